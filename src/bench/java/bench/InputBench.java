@@ -0,0 +1,138 @@
+package bench;
+
+import frontend.ProgramParser;
+import interp.BufferedInput;
+import interp.CompiledProgram;
+import interp.ExecutionContext;
+import interp.OutputSink;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Durchsatz der Eingabe: erzeugt eine Datei mit Zufallszahlen (beliebig gross, wird
+ * gestreamt geschrieben) und liest sie
+ *   1) direkt mit BufferedInput.readInt (ohne String pro Zahl),
+ *   2) zum Vergleich mit BufferedReader + split + Integer.parseInt,
+ *   3) ueber ein MiniCpp-Skript mit read_int/eof (auf einem kleineren Anfang der Datei,
+ *      weil hier der Interpreter dominiert).
+ *
+ * Aufruf: InputBench [groesse] [skriptgroesse], Groessen z.B. 512m oder 4g.
+ *
+ */
+public final class InputBench {
+
+    private static final String SCRIPT = """
+            int main() {
+                int s = 0;
+                while (eof() == false) {
+                    s = s + read_int();
+                }
+                return s;
+            }
+            """;
+
+    public static void main(String[] args) throws Exception {
+        long size = parseSize(args.length > 0 ? args[0] : "256m");
+        long scriptSize = Math.min(size, parseSize(args.length > 1 ? args[1] : "32m"));
+
+        Path file = Files.createTempFile("minicpp-input", ".txt");
+        Path small = Files.createTempFile("minicpp-input", ".txt");
+        try {
+            System.out.printf("generating %d MB ...%n", size >> 20);
+            long count = generate(file, size);
+            generate(small, scriptSize);
+
+            for (int round = 1; round <= 3; round++) {
+                System.out.println("round " + round);
+                measure("BufferedInput.readInt", size, () -> readInts(file));
+                measure("BufferedReader+parseInt", size, () -> readLines(file));
+                measure("MiniCpp read_int", scriptSize, () -> runScript(small));
+            }
+            System.out.println(count + " numbers");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(small);
+        }
+    }
+
+    // --------- Varianten ---------
+
+    private static long readInts(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file)) {
+            BufferedInput in = new BufferedInput(ch);
+            long sum = 0;
+            while (!in.eof()) sum += in.readInt();
+            return sum;
+        }
+    }
+
+    private static long readLines(Path file) throws IOException {
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            long sum = 0;
+            for (String line; (line = r.readLine()) != null; ) {
+                for (String tok : line.split(" ")) {
+                    if (!tok.isEmpty()) sum += Integer.parseInt(tok);
+                }
+            }
+            return sum;
+        }
+    }
+
+    private static long runScript(Path file) throws IOException {
+        ExecutionContext ctx = CompiledProgram.compile(ProgramParser.parse(SCRIPT)).newContext(OutputSink.discard());
+        try (FileChannel ch = FileChannel.open(file)) {
+            ctx.setInput(new BufferedInput(ch));
+            return (Integer) ctx.runMain();
+        }
+    }
+
+    // --------- Hilfen ---------
+
+    private interface Run {
+        long run() throws IOException;
+    }
+
+    private static void measure(String name, long bytes, Run r) throws IOException {
+        long start = System.nanoTime();
+        long result = r.run();
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  %-26s %8.1f MB/s  %7.2f s  (checksum %d)%n", name, bytes / 1e6 / secs, secs, result);
+    }
+
+    // Zeilen mit je 10 Zahlen (gemischt klein/gross/negativ) bis ca. size Bytes
+    private static long generate(Path file, long size) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        long written = 0, count = 0;
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            StringBuilder line = new StringBuilder(128);
+            while (written < size) {
+                line.setLength(0);
+                for (int i = 0; i < 10; i++) {
+                    if (i > 0) line.append(' ');
+                    line.append(random.nextBoolean() ? random.nextInt(-1000, 1000) : random.nextInt());
+                }
+                line.append('\n');
+                w.append(line);
+                written += line.length();
+                count += 10;
+            }
+        }
+        return count;
+    }
+
+    private static long parseSize(String s) {
+        s = s.trim().toLowerCase();
+        long unit = switch (s.charAt(s.length() - 1)) {
+            case 'k' -> 1L << 10;
+            case 'm' -> 1L << 20;
+            case 'g' -> 1L << 30;
+            default -> 1;
+        };
+        return Long.parseLong(unit == 1 ? s : s.substring(0, s.length() - 1)) * unit;
+    }
+}
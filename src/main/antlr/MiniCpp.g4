@@ -9,6 +9,16 @@ program
     : (functionDecl | classDecl | stmt)* EOF
     ;
 
+/**
+ * Ein einzelnes Top-Level-Element (fuer das Streaming-Parsen grosser Dateien):
+ * Wird wiederholt aufgerufen, bis EOF erreicht ist.
+ */
+topLevel
+    : functionDecl
+    | classDecl
+    | stmt
+    ;
+
 /**
  * Funktionsdeklaration:
  * - Optionales 'virtual' (fuer Methoden in Klassen).
@@ -154,12 +164,14 @@ postfix
 /**
  * Atome (Die kleinsten Einheiten):
  * - Funktions-/Konstruktoraufrufe
+ * - spawn eines Funktionsaufrufs als Task (Ergebnis mit t.join())
  * - Literale (Zahlen, Strings, Bools)
  * - Variablenzugriffe
  * - Klammerung von Ausdruecken
  */
 atom
     : ID '(' argList? ')'           # CallOrCtor    // Funktionsaufruf oder Konstruktor (z.B. "f()" oder "A()")
+    | 'spawn' ID '(' argList? ')'   # Spawn         // Task starten: spawn f(x)
     | INT                           # IntLiteral    // Ganzzahl: 42
     | BOOL                          # BoolLiteral   // true/false
     | CHAR                          # CharLiteral   // 'a'
@@ -175,7 +187,8 @@ argList
 
 /**
  * Typen:
- * Unterstuetzt primitive Typen, Referenzen (int&) und benutzerdefinierte Klassen (ID).
+ * Unterstuetzt primitive Typen, Referenzen (int&), Tasks (task<int>)
+ * und benutzerdefinierte Klassen (ID).
  */
 type
     : 'int'       # IntType
@@ -183,6 +196,7 @@ type
     | 'char'      # CharType
     | 'string'    # StringType
     | type '&'    # RefType
+    | 'task' '<' type '>'  # TaskType
     | ID          # ClassType
     ;
 
@@ -195,6 +209,9 @@ type
  STRING : '"' ( ~["\\] | '\\' . )* '"' ;
 
 // Bezeichner (Variablen-, Funktions-, Klassennamen)
+// Schluesselwoerter aus den Parser-Regeln sind keine Bezeichner. Das gilt auch fuer
+// 'spawn' und 'task' (Tasks): Programme, die sie als Namen verwenden (int spawn = 1;),
+// sind seitdem ein Syntaxfehler (siehe cpp-test/negativ/spawnkeyword.txt).
  ID     : [a-zA-Z_][a-zA-Z0-9_]* ;
 
 // Whitespace (Leerzeichen, Tabs, Newlines) -> ignorieren
@@ -206,5 +223,6 @@ type
  // Block-Kommentare (/* ... */) -> ignorieren
  BLOCK_COMMENT : '/*' .*? '*/' -> skip ;
 
- // Praeprozessor (#include etc.) -> ignorieren
- PREPROCESSOR : '#' ~[\r\n]* -> skip ;
\ No newline at end of file
+ // Praeprozessor (#include etc.) -> Hidden-Channel: Parser ignoriert ihn,
+ // der IncludeResolver wertet die #include-Zeilen aus
+ PREPROCESSOR : '#' ~[\r\n]* -> channel(HIDDEN) ;
\ No newline at end of file
@@ -0,0 +1,3 @@
+int helper(int x) { return x + 1; }
+
+print_int(helper(1)); // Fehler: Statements sind in eingebundenen Dateien nicht erlaubt
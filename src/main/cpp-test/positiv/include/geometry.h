@@ -0,0 +1,11 @@
+#include "mathutil.h"
+
+class Rect {
+public:
+  int w;
+  int h;
+  Rect() { w = 0; h = 0; }
+  int area() { return w * h; }
+};
+
+int perimeter(Rect r) { return twice(r.w + r.h); }
@@ -0,0 +1,9 @@
+// Nur Deklarationen: wird von geometry.h und direkt eingebunden (nur einmal registriert)
+int twice(int x) { return x * 2; }
+
+int maxOf(int a, int b) {
+  if (a > b) {
+    return a;
+  }
+  return b;
+}
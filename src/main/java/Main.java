@@ -1,32 +1,222 @@
-import visitor.ASTBuilder;
 import ast.Program;
+import batch.BatchRunner;
+import frontend.IncludeResolver;
+import frontend.ModuleCache;
+import frontend.ReplInput;
+import frontend.SourceLoader;
+import interp.AsyncOutputSink;
+import interp.BufferedInput;
+import interp.ExecutionBudget;
 import interp.Interpreter;
-import org.antlr.v4.runtime.*;
-import org.antlr.v4.runtime.tree.ParseTree;
-import parser.MiniCppLexer;
-import parser.MiniCppParser;
+import interp.InterpreterImage;
+import interp.InterpreterMetrics;
+import interp.Profiler;
+import interp.SamplingProfiler;
+import server.ReplServer;
+import server.ScriptServer;
 
 import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
 
     public static void main(String[] args) throws Exception {
-        Interpreter interpreter = new Interpreter();
+        // Aufruf: Main [--stream | --lazy] [-I<verzeichnis>]... [--serve=<port|unix:pfad>
+        //             [--workers=N] [--queue=N] [--timeout=MS] [--warmup=N]] [datei]
+        //        Main [-I<verzeichnis>]... [--workers=N] --batch=<verzeichnis|manifest>
+        // Images: --image=<datei> startet mit geladenem Image, --save-image=<datei> speichert
+        //         nach dem Laden der Datei (ohne main()) und beendet
+        // Grenzen: --max-steps=N begrenzt Schleifendurchlaeufe + Aufrufe, --max-memory=BYTES die
+        //          geschaetzten Bytes angelegter Objekte, --max-frames=N die Aufruftiefe; sie gelten
+        //          beim Ausfuehren der Datei, pro Request, pro Batch-Datei und pro Eingabe im REPL-Server.
+        //          --timeout=MS gilt pro Request, pro Batch-Datei bzw. pro Eingabe im REPL-Server.
+        //          --alloc-report gibt nach dem Ausfuehren der Datei die Speicher-Statistik aus (stderr)
+        // Profiling: --profile gibt nach dem Ausfuehren der Datei den Profiler-Bericht aus (stderr),
+        //            --profile-out=<datei> schreibt Collapsed Stacks fuer Flame Graphs
+        //            --sample[=MIKROSEKUNDEN] Stichproben-Profiler (Standard 1000 us), Bericht auf stderr,
+        //            --sample-out=<datei> schreibt zusaetzlich Collapsed Stacks (Anzahl Samples)
+        // Metriken: --jmx[=NAME] registriert Zaehler als MBean minicpp:type=Interpreter,name=NAME
+        //          (Standard: Dateiname bzw. "repl"); im Server-Modus zaehlen alle Requests mit
+        // Ausgabe: --async-output formatiert und schreibt print_* auf einem eigenen Thread
+        // Eingabe: --input=<datei> liest read_* aus der Datei statt von stdin
+        // Netzwerk-REPL: --repl-server=<port|unix:pfad> [--idle=SEKUNDEN] [--session-ttl=SEKUNDEN] [datei]
+        boolean stream = false;
+        boolean lazy = false;
+        String file = null;
+        String serve = null;
+        String replServer = null;
+        long idleSeconds = 300;
+        long ttlSeconds = 3600;
+        String batch = null;
+        String image = null;
+        String saveImage = null;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int queue = 64;
+        long timeout = 10_000;
+        int warmup = 0;
+        long maxSteps = 0;
+        long maxMemory = 0;
+        int maxFrames = 0;
+        boolean allocReport = false;
+        boolean profile = false;
+        String profileOut = null;
+        long sampleMicros = 0;
+        String sampleOut = null;
+        String jmx = null;
+        boolean asyncOutput = false;
+        String input = null;
+        List<Path> includePath = new ArrayList<>();
+        for (String a : args) {
+            if (a.equals("--stream")) stream = true;
+            else if (a.equals("--lazy")) lazy = true;
+            else if (a.startsWith("-I")) includePath.add(Path.of(a.substring(2)));
+            else if (a.startsWith("--serve=")) serve = a.substring(8);
+            else if (a.startsWith("--repl-server=")) replServer = a.substring(14);
+            else if (a.startsWith("--idle=")) idleSeconds = Long.parseLong(a.substring(7));
+            else if (a.startsWith("--session-ttl=")) ttlSeconds = Long.parseLong(a.substring(14));
+            else if (a.startsWith("--batch=")) batch = a.substring(8);
+            else if (a.startsWith("--image=")) image = a.substring(8);
+            else if (a.startsWith("--save-image=")) saveImage = a.substring(13);
+            else if (a.startsWith("--workers=")) workers = Integer.parseInt(a.substring(10));
+            else if (a.startsWith("--queue=")) queue = Integer.parseInt(a.substring(8));
+            else if (a.startsWith("--timeout=")) timeout = Long.parseLong(a.substring(10));
+            else if (a.startsWith("--max-steps=")) maxSteps = Long.parseLong(a.substring(12));
+            else if (a.startsWith("--max-memory=")) maxMemory = Long.parseLong(a.substring(13));
+            else if (a.startsWith("--max-frames=")) maxFrames = Integer.parseInt(a.substring(13));
+            else if (a.equals("--alloc-report")) allocReport = true;
+            else if (a.equals("--profile")) profile = true;
+            else if (a.startsWith("--profile-out=")) profileOut = a.substring(14);
+            else if (a.equals("--sample")) sampleMicros = 1000;
+            else if (a.startsWith("--sample=")) sampleMicros = Long.parseLong(a.substring(9));
+            else if (a.startsWith("--sample-out=")) sampleOut = a.substring(13);
+            else if (a.equals("--jmx")) jmx = "";
+            else if (a.startsWith("--jmx=")) jmx = a.substring(6);
+            else if (a.equals("--async-output")) asyncOutput = true;
+            else if (a.startsWith("--input=")) input = a.substring(8);
+            else if (a.startsWith("--warmup=")) warmup = Integer.parseInt(a.substring(9));
+            else file = a;
+        }
+
+        // Batch: alle Programme ausfuehren, Bericht, Exit-Code = Fehler ja/nein
+        if (batch != null) {
+            BatchRunner runner = new BatchRunner(includePath, ModuleCache.defaultCache(), new ForkJoinPool(workers));
+            runner.setLimits(maxSteps, timeout, maxMemory, maxFrames);
+            List<BatchRunner.Result> results = runner.run(BatchRunner.collect(Path.of(batch)));
+            int failed = BatchRunner.report(results, System.out);
+            System.exit(failed == 0 ? 0 : 1);
+        }
+
+        // Interpreter leer oder aus einem Image (ohne Parsen und Top-Level-Statements)
+        Interpreter interpreter = (image != null) ? InterpreterImage.load(Path.of(image)) : new Interpreter();
+
+        // Asynchrone Ausgabe: wird beim Beenden der JVM (auch nach Fehlern) vollstaendig geschrieben
+        if (asyncOutput) {
+            AsyncOutputSink sink = new AsyncOutputSink(new FileOutputStream(FileDescriptor.out).getChannel());
+            Runtime.getRuntime().addShutdownHook(new Thread(sink::close, "output-close"));
+            interpreter.context().setOutput(sink);
+        }
 
-        // 1) Optional: Datei laden
-        if (args.length > 0) {
-            String code = Files.readString(Path.of(args[0]));
-            Program p = parseProgram(code);
-            interpreter.loadProgram(p);
+        if (input != null) {
+            interpreter.context().setInput(new BufferedInput(FileChannel.open(Path.of(input))));
+        }
+
+        InterpreterMetrics metrics = null;
+        if (jmx != null) {
+            metrics = new InterpreterMetrics();
+            String name = !jmx.isEmpty() ? jmx : (file != null) ? Path.of(file).getFileName().toString() : "repl";
+            System.err.println("Metrics registered as " + metrics.register(name));
+            interpreter.context().setMetrics(metrics);
+        }
+
+        // 1) Optional: Datei laden (memory-mapped, lazy dekodiert)
+        if (file != null) {
+            boolean limited = maxSteps > 0 || maxMemory > 0 || maxFrames > 0;
+            if (limited) interpreter.context().setBudget(new ExecutionBudget(maxSteps, 0, maxMemory, maxFrames));
+            Profiler profiler = (profile || profileOut != null) ? new Profiler() : null;
+            interpreter.context().setProfiler(profiler);
+            if (sampleOut != null && sampleMicros == 0) sampleMicros = 1000;
+            SamplingProfiler sampler = (sampleMicros > 0) ? new SamplingProfiler(sampleMicros) : null;
+            if (sampler != null) {
+                interpreter.context().setSampler(sampler);
+                sampler.start();
+            }
+            Path path = Path.of(file);
+            IncludeResolver includes = new IncludeResolver(includePath, ModuleCache.defaultCache());
+            includes.setLazyBodies(lazy);
+            if (stream) {
+                // Top-Level-Elemente einzeln parsen und sofort ausfuehren (define-before-use)
+                SourceLoader.stream(path, includes, interpreter::execTopLevel);
+            } else {
+                long parseStart = System.nanoTime();
+                Program p = includes.resolve(path);
+                if (metrics != null) metrics.recordParse(System.nanoTime() - parseStart);
+                interpreter.loadProgram(p);
+            }
 
-            // optional main() ausführen, falls vorhanden
-            Object ret = interpreter.runMainIfPresent();
+            if (saveImage != null) {
+                InterpreterImage.save(interpreter, Path.of(saveImage));
+                return;
+            }
+
+            // optional main() ausführen, falls vorhanden (im Server-Modus pro Request)
+            Object ret = (serve == null && replServer == null) ? interpreter.runMainIfPresent() : null;
+            // Programmausgabe (gepuffert) vor eigenen Ausgaben auf System.out
+            interpreter.context().output().flush();
             if (ret != null) {
                 System.out.println("main returned: " + ret);
             }
+            if (allocReport) System.err.print(interpreter.context().allocations().report());
+            if (sampler != null) {
+                sampler.stop();
+                interpreter.context().setSampler(null);
+                System.err.print(sampler.report());
+                if (sampleOut != null) {
+                    try (Writer w = Files.newBufferedWriter(Path.of(sampleOut))) {
+                        sampler.writeCollapsed(w);
+                    }
+                }
+            }
+            if (profiler != null) {
+                interpreter.context().setProfiler(null);
+                if (profile) System.err.print(profiler.report());
+                if (profileOut != null) {
+                    try (Writer w = Files.newBufferedWriter(Path.of(profileOut))) {
+                        profiler.writeCollapsed(w);
+                    }
+                }
+            }
+
+            // Grenzen gelten nur fuer die Datei, nicht fuer die REPL danach
+            if (limited) interpreter.context().setBudget(null);
+        }
+
+        // Server: Programm bleibt geladen, jeder Request laeuft in eigener Session
+        if (serve != null) {
+            ScriptServer server = new ScriptServer(interpreter.program(), workers, queue, timeout);
+            server.setLimits(maxSteps, maxMemory, maxFrames);
+            server.setMetrics(metrics);
+            server.warmup(warmup);
+            server.serve(serve);
+            return;
+        }
+
+        // Netzwerk-REPL: alle Sessions teilen sich das geladene Programm
+        if (replServer != null) {
+            Path dir = Path.of(System.getProperty("minicpp.sessionDir",
+                    Path.of(System.getProperty("java.io.tmpdir"), "minicpp-sessions-" + System.getProperty("user.name")).toString()));
+            ReplServer server = new ReplServer(interpreter.program(), idleSeconds * 1000, ttlSeconds * 1000, dir);
+            server.setLimits(maxSteps, timeout, maxMemory, maxFrames);
+            server.serve(replServer);
+            return;
         }
 
         // 2) REPL starten
@@ -35,10 +225,12 @@ public class Main {
 
     private static void runRepl(Interpreter interpreter) throws Exception {
         BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
-        StringBuilder buf = new StringBuilder();
+        ReplInput input = new ReplInput();
         boolean firstLine = true;
 
         while (true) {
+            // Ausgaben der letzten Eingabe vor dem Prompt durchschreiben
+            interpreter.context().output().flush();
             System.out.print(firstLine ? ">>> " : "... ");
             String line = br.readLine();
             if (line == null) break;
@@ -48,96 +240,23 @@ public class Main {
                 break;
             }
 
-            buf.append(line).append("\n");
-
-            if (!isInputComplete(buf.toString())) {
+            // Zeile wird nur einmal gescannt; fertige Tokens gehen direkt an den Parser
+            if (!input.addLine(line)) {
                 firstLine = false;
                 continue;
             }
-
-            String input = buf.toString();
-            buf.setLength(0);
             firstLine = true;
 
             try {
-                Program p = parseProgram(input);
+                Program p = input.takeProgram();
                 interpreter.execReplProgram(p);
             } catch (RuntimeException ex) {
+                interpreter.context().output().flush();
                 System.out.println("Error: " + ex.getMessage());
             } catch (Exception ex) {
+                interpreter.context().output().flush();
                 System.out.println("Error: " + ex);
             }
         }
     }
-
-    private static Program parseProgram(String code) {
-        CharStream cs = CharStreams.fromString(code);
-        MiniCppLexer lexer = new MiniCppLexer(cs);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        MiniCppParser parser = new MiniCppParser(tokens);
-
-        // Syntaxfehler als Exception
-        parser.removeErrorListeners();
-        parser.addErrorListener(new BaseErrorListener() {
-            @Override
-            public void syntaxError(Recognizer<?, ?> recognizer,
-                                    Object offendingSymbol,
-                                    int line, int charPositionInLine,
-                                    String msg, RecognitionException e) {
-                throw new RuntimeException("Syntax error at " + line + ":" + charPositionInLine + " - " + msg);
-            }
-        });
-
-        ParseTree tree = parser.program();
-        ASTBuilder builder = new ASTBuilder();
-        return (Program) builder.visit(tree);
-    }
-
-    // Heuristik fuer Mehrzeilen-Eingaben: Klammern/Blöcke/Strings/Kommentare balancieren
-    private static boolean isInputComplete(String s) {
-        int paren = 0, brace = 0;
-        boolean inStr = false, inChar = false;
-        boolean inLineComment = false, inBlockComment = false;
-
-        for (int i = 0; i < s.length(); i++) {
-            char c = s.charAt(i);
-            char n = (i + 1 < s.length()) ? s.charAt(i + 1) : '\0';
-
-            if (inLineComment) {
-                if (c == '\n') inLineComment = false;
-                continue;
-            }
-            if (inBlockComment) {
-                if (c == '*' && n == '/') { inBlockComment = false; i++; }
-                continue;
-            }
-
-            if (!inStr && !inChar) {
-                if (c == '/' && n == '/') { inLineComment = true; i++; continue; }
-                if (c == '/' && n == '*') { inBlockComment = true; i++; continue; }
-                if (c == '#') { inLineComment = true; continue; }
-            }
-
-            if (inStr) {
-                if (c == '\\') { i++; continue; }
-                if (c == '"') inStr = false;
-                continue;
-            }
-            if (inChar) {
-                if (c == '\\') { i++; continue; }
-                if (c == '\'') inChar = false;
-                continue;
-            }
-
-            if (c == '"') { inStr = true; continue; }
-            if (c == '\'') { inChar = true; continue; }
-
-            if (c == '(') paren++;
-            else if (c == ')') paren--;
-            else if (c == '{') brace++;
-            else if (c == '}') brace--;
-        }
-
-        return !inStr && !inChar && !inBlockComment && paren == 0 && brace == 0;
-    }
 }
@@ -1,9 +1,48 @@
 package ast;
 
+import java.io.Serializable;
+
 /**
  * Die abstrakte Basisklasse fuer alle Knoten im Abstract Syntax Tree (AST).
  * Jeder Teil des geparsten Programms (Ausdruck, Statement, Deklaration)
  * ist eine Instanz einer Unterklasse von ASTNode.
+ * Serialisierbar, damit vorkompilierte Module (siehe frontend.ModuleCache) gespeichert werden koennen.
+ *
+ * Jeder Knoten traegt seine Quelltextposition (gesetzt vom ASTBuilder), gepackt in ein int:
+ * Zeile in den oberen 20 Bit, Spalte in den unteren 12 Bit (beide ab 1, 0 = unbekannt).
+ * Groessere Werte werden auf das Maximum begrenzt.
  *
  */
-public abstract class ASTNode {}
+public abstract class ASTNode implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int COLUMN_BITS = 12;
+    private static final int MAX_COLUMN = (1 << COLUMN_BITS) - 1;
+    private static final int MAX_LINE = (1 << (32 - COLUMN_BITS)) - 1;
+
+    private int position;
+
+    /** Zeile ab 1, 0 = unbekannt. */
+    public int line() {
+        return position >>> COLUMN_BITS;
+    }
+
+    /** Spalte ab 1, 0 = unbekannt. */
+    public int column() {
+        return position & MAX_COLUMN;
+    }
+
+    public boolean hasPosition() {
+        return position != 0;
+    }
+
+    public void setPosition(int line, int column) {
+        position = (Math.min(Math.max(line, 0), MAX_LINE) << COLUMN_BITS)
+                | Math.min(Math.max(column, 0), MAX_COLUMN);
+    }
+
+    /** z.B. "12:5", leer wenn unbekannt. */
+    public String position() {
+        return hasPosition() ? line() + ":" + column() : "";
+    }
+}
@@ -7,6 +7,7 @@ package ast;
  *
  */
 public class BinaryExpr extends Expr {
+    private static final long serialVersionUID = 1L;
 
     /** Der Operator als String (z.B. "+", "==", "&&", "="). */
     public final String op;
@@ -10,6 +10,7 @@ import java.util.List;
  *
  */
 public class BlockStmt extends Statement {
+    private static final long serialVersionUID = 1L;
 
     /** Die Liste der Statements innerhalb des Blocks. */
     public final List<Statement> statements = new ArrayList<>();
@@ -6,6 +6,8 @@ package ast;
  *
  */
 public class BoolLiteral extends Expr {
+    private static final long serialVersionUID = 1L;
+
     public final boolean value;
 
     public BoolLiteral(boolean value) {
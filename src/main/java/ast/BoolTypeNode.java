@@ -5,4 +5,5 @@ package ast;
  *
  */
 public class BoolTypeNode extends TypeNode{
+    private static final long serialVersionUID = 1L;
 }
@@ -6,6 +6,8 @@ package ast;
  *
  */
 public class CharLiteral extends Expr {
+    private static final long serialVersionUID = 1L;
+
     public final char value;
 
     public CharLiteral(char value) {
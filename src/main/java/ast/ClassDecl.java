@@ -9,15 +9,16 @@ import java.util.List;
  *
  */
 public class ClassDecl extends ASTNode {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der Klasse (z.B. "MyClass"). */
-    public final String name;
+    public final Symbol name;
 
     /**
      * Der Name der Basisklasse, von der geerbt wird.
      * Ist null, wenn keine Vererbung stattfindet.
      */
-    public final String baseName;
+    public final Symbol baseName;
 
     /**
      * Liste der Klassen-Member.
@@ -25,7 +26,7 @@ public class ClassDecl extends ASTNode {
      */
     public final List<ASTNode> members = new ArrayList<>();
 
-    public ClassDecl(String name, String baseName, List<ASTNode> members) {
+    public ClassDecl(Symbol name, Symbol baseName, List<ASTNode> members) {
         this.name = name;
         this.baseName = baseName;
         this.members.addAll(members);
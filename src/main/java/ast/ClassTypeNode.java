@@ -7,11 +7,12 @@ package ast;
  *
  */
 public class ClassTypeNode extends TypeNode {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der Klasse. */
-    public final String name;
+    public final Symbol name;
 
-    public ClassTypeNode(String name) {
+    public ClassTypeNode(Symbol name) {
         this.name = name;
     }
 }
@@ -9,17 +9,22 @@ import java.util.List;
  *
  */
 public class ConstructorDecl extends ASTNode {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der Klasse (muss identisch mit dem Klassennamen sein). */
-    public final String className;
+    public final Symbol className;
 
     /** Liste der Parameter. */
     public final List<Param> params;
 
-    /** Der Code, der zur Initialisierung ausgefuehrt wird. */
-    public final BlockStmt body;
+    /** Der Code, der zur Initialisierung ausgefuehrt wird (ggf. lazy). */
+    public final LazyBlock body;
 
-    public ConstructorDecl(String className, List<Param> params, BlockStmt body) {
+    public ConstructorDecl(Symbol className, List<Param> params, BlockStmt body) {
+        this(className, params, LazyBlock.of(body));
+    }
+
+    public ConstructorDecl(Symbol className, List<Param> params, LazyBlock body) {
         this.className = className;
         this.params = params;
         this.body = body;
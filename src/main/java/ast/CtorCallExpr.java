@@ -8,14 +8,15 @@ import java.util.List;
  *
  */
 public class CtorCallExpr extends Expr {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der Klasse, die instanziiert wird. */
-    public final String className;
+    public final Symbol className;
 
     /** Die Argumente fuer den Konstruktor. */
     public final List<Expr> args;
 
-    public CtorCallExpr(String className, List<Expr> args) {
+    public CtorCallExpr(Symbol className, List<Expr> args) {
         this.className = className;
         this.args = args;
     }
@@ -6,4 +6,6 @@ package ast;
  * oder ein Objekt). Beispiele: 1 + 2, a == b, new A().
  *
  */
-public abstract class Expr extends ASTNode {}
+public abstract class Expr extends ASTNode {
+    private static final long serialVersionUID = 1L;
+}
@@ -8,6 +8,7 @@ package ast;
  *
  */
 public class ExprStmt extends Statement {
+    private static final long serialVersionUID = 1L;
 
     /** Der Ausdruck, der ausgefuehrt (und dessen Ergebnis meist verworfen) wird. */
     public final Expr expr;
@@ -6,14 +6,15 @@ package ast;
  *
  */
 public class FieldAccessExpr extends Expr {
+    private static final long serialVersionUID = 1L;
 
     /** Das Objekt, dessen Feld gelesen/geschrieben wird. */
     public final Expr obj;
 
     /** Der Name des Feldes. */
-    public final String field;
+    public final Symbol field;
 
-    public FieldAccessExpr(Expr obj, String field) {
+    public FieldAccessExpr(Expr obj, Symbol field) {
         this.obj = obj;
         this.field = field;
     }
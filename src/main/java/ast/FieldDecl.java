@@ -7,14 +7,15 @@ package ast;
  *
  */
 public class FieldDecl extends ASTNode {
+    private static final long serialVersionUID = 1L;
 
     /** Der Datentyp des Feldes. */
     public final TypeNode type;
 
     /** Der Name des Feldes. */
-    public final String name;
+    public final Symbol name;
 
-    public FieldDecl(TypeNode type, String name) {
+    public FieldDecl(TypeNode type, Symbol name) {
         this.type = type;
         this.name = name;
     }
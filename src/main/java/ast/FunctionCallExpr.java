@@ -8,14 +8,18 @@ import java.util.List;
  *
  */
 public class FunctionCallExpr extends Expr {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der aufgerufenen Funktion. */
-    public final String name;
+    public final Symbol name;
 
     /** Die Liste der uebergebenen Argumente (Ausdruecke). */
     public final List<Expr> args;
 
-    public FunctionCallExpr(String name, List<Expr> args) {
+    /** Vom Interpreter gemerktes Aufrufziel (pro Programmversion), nicht Teil des AST. */
+    public transient volatile Object callSite;
+
+    public FunctionCallExpr(Symbol name, List<Expr> args) {
         this.name = name;
         this.args = args;
     }
@@ -9,15 +9,19 @@ import java.util.List;
  *
  */
 public class FunctionDecl extends ASTNode {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der Funktion/Methode. */
-    public final String name;
+    public final Symbol name;
+
+    /** Der Rueckgabetyp (void erscheint als ClassTypeNode "void"). */
+    public final TypeNode returnType;
 
     /** Die Liste der Parameter (Typ und Name). */
     public final List<Param> params;
 
-    /** Der Funktionskoerper (Block mit Statements). */
-    public final BlockStmt body;
+    /** Der Funktionskoerper (Block mit Statements), ggf. erst beim ersten Aufruf aufgebaut. */
+    public final LazyBlock body;
 
     /**
      * Gibt an, ob die Methode als 'virtual' deklariert wurde.
@@ -26,8 +30,13 @@ public class FunctionDecl extends ASTNode {
     public final boolean isVirtual;
 
 
-    public FunctionDecl(String name, List<Param> params, BlockStmt body, boolean isVirtual) {
+    public FunctionDecl(Symbol name, TypeNode returnType, List<Param> params, BlockStmt body, boolean isVirtual) {
+        this(name, returnType, params, LazyBlock.of(body), isVirtual);
+    }
+
+    public FunctionDecl(Symbol name, TypeNode returnType, List<Param> params, LazyBlock body, boolean isVirtual) {
         this.name = name;
+        this.returnType = returnType;
         this.params = params;
         this.body = body;
         this.isVirtual = isVirtual;
@@ -6,6 +6,7 @@ package ast;
  *
  */
 public class IfStmt extends Statement {
+    private static final long serialVersionUID = 1L;
 
     /** Die Bedingung (muss zu bool auswertbar sein). */
     public final Expr cond;
@@ -6,6 +6,8 @@ package ast;
  *
  */
 public class IntLiteral extends Expr {
+    private static final long serialVersionUID = 1L;
+
     public final int value;
 
     public IntLiteral(int value) {
@@ -4,4 +4,6 @@ package ast;
  * Primitiver Datentyp 'int'.
  *
  */
-public class IntTypeNode extends TypeNode {}
\ No newline at end of file
+public class IntTypeNode extends TypeNode {
+    private static final long serialVersionUID = 1L;
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package ast;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.function.Supplier;
+
+/**
+ * Funktions-/Konstruktor-Body, der erst beim ersten Aufruf aufgebaut werden kann.
+ * Im Lazy-Modus merkt sich der ASTBuilder nur die Token-Position des Bodys;
+ * der AST entsteht erst in get(). Sonst ist der Block sofort vorhanden.
+ * get() ist thread-sicher, der Body wird genau einmal gebaut.
+ *
+ */
+public final class LazyBlock implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private volatile BlockStmt block;
+
+    // Erzeugt den Block beim ersten Zugriff (danach null)
+    private transient Supplier<BlockStmt> source;
+
+    private LazyBlock(BlockStmt block, Supplier<BlockStmt> source) {
+        this.block = block;
+        this.source = source;
+    }
+
+    public static LazyBlock of(BlockStmt block) {
+        return new LazyBlock(block, null);
+    }
+
+    public static LazyBlock deferred(Supplier<BlockStmt> source) {
+        return new LazyBlock(null, source);
+    }
+
+    public BlockStmt get() {
+        BlockStmt b = block;
+        if (b != null) return b;
+
+        synchronized (this) {
+            if (block == null) {
+                block = source.get();
+                source = null;
+            }
+            return block;
+        }
+    }
+
+    public boolean isMaterialized() {
+        return block != null;
+    }
+
+    // Beim Speichern (Modul-Cache) immer den fertigen Block schreiben
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        get();
+        out.defaultWriteObject();
+    }
+}
@@ -9,17 +9,18 @@ import java.util.List;
  *
  */
 public class MethodCallExpr extends Expr {
+    private static final long serialVersionUID = 1L;
 
     /** Das Objekt, auf dem die Methode aufgerufen wird (Receiver). */
     public final Expr obj;
 
     /** Der Name der Methode. */
-    public final String method;
+    public final Symbol method;
 
     /** Die Argumente des Aufrufs. */
     public final List<Expr> args;
 
-    public MethodCallExpr(Expr obj, String method, List<Expr> args) {
+    public MethodCallExpr(Expr obj, Symbol method, List<Expr> args) {
         this.obj = obj;
         this.method = method;
         this.args = args;
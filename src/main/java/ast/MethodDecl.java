@@ -7,6 +7,7 @@ import java.util.List;
  *
  */
 public class MethodDecl extends ASTNode {
+    private static final long serialVersionUID = 1L;
 
     /** Ob die Methode virtual ist (für Polymorphie). */
     public final boolean isVirtual;
@@ -15,7 +16,7 @@ public class MethodDecl extends ASTNode {
     public final TypeNode returnType;
 
     /** Der Methodenname. */
-    public final String name;
+    public final Symbol name;
 
     /** Die Parameterliste. */
     public final List<Param> params;
@@ -23,7 +24,7 @@ public class MethodDecl extends ASTNode {
     /** Der Body der Methode. */
     public final BlockStmt body;
 
-    public MethodDecl(boolean isVirtual, TypeNode returnType, String name, List<Param> params, BlockStmt body) {
+    public MethodDecl(boolean isVirtual, TypeNode returnType, Symbol name, List<Param> params, BlockStmt body) {
         this.isVirtual = isVirtual;
         this.returnType = returnType;
         this.name = name;
@@ -1,19 +1,22 @@
 package ast;
 
+import java.io.Serializable;
+
 /**
  * Eine Hilfsklasse fuer Parameter-Listen in Funktionen/Konstruktoren.
  * Speichert die Kombination aus Typ und Name (z.B. "int x").
  *
  */
-public class Param {
+public class Param implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     /** Der Typ des Parameters (kann auch ein RefTypeNode sein). */
     public final TypeNode type;
 
     /** Der Name des Parameters. */
-    public final String name;
+    public final Symbol name;
 
-    public Param(TypeNode type, String name) {
+    public Param(TypeNode type, Symbol name) {
         this.type = type;
         this.name = name;
     }
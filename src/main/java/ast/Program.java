@@ -11,6 +11,7 @@ import java.util.List;
  *
  */
 public class Program extends ASTNode {
+    private static final long serialVersionUID = 1L;
 
     /**
      * Die Liste aller Top-Level-Elemente in der Datei/Eingabe.
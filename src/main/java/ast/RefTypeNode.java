@@ -7,6 +7,7 @@ package ast;
  *
  */
 public class RefTypeNode extends TypeNode {
+    private static final long serialVersionUID = 1L;
 
     /** Der Basistyp, auf den referenziert wird (z.B. IntTypeNode). */
     public final TypeNode base;
@@ -6,6 +6,7 @@ package ast;
  *
  */
 public class ReturnStmt extends Statement {
+    private static final long serialVersionUID = 1L;
 
     /** * Der Rueckgabewert.
      * Ist null bei 'return;' (void-Funktionen).
@@ -0,0 +1,18 @@
+package ast;
+
+/**
+ * Startet einen Funktionsaufruf als Task.
+ * Syntax: spawn funcName(arg1, arg2, ...)
+ * Liefert einen Wert vom Typ task<T>.
+ *
+ */
+public class SpawnExpr extends Expr {
+    private static final long serialVersionUID = 1L;
+
+    /** Der Aufruf, der im Task ausgefuehrt wird. */
+    public final FunctionCallExpr call;
+
+    public SpawnExpr(FunctionCallExpr call) {
+        this.call = call;
+    }
+}
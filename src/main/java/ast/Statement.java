@@ -6,4 +6,6 @@ package ast;
  * haben aber selbst keinen direkten Rueckgabewert im Sinne eines Ausdrucks.
  *
  */
-public abstract class Statement extends ASTNode {}
+public abstract class Statement extends ASTNode {
+    private static final long serialVersionUID = 1L;
+}
@@ -6,6 +6,8 @@ package ast;
  *
  */
 public class StringLiteral extends Expr {
+    private static final long serialVersionUID = 1L;
+
     public final String value;
 
     public StringLiteral(String value) {
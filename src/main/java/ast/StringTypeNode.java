@@ -6,4 +6,5 @@ package ast;
  *
  */
 public class StringTypeNode extends TypeNode{
+    private static final long serialVersionUID = 1L;
 }
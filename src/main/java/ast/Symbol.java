@@ -0,0 +1,124 @@
+package ast;
+
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Internierter Bezeichner (Variablen-, Funktions-, Klassen-, Feld- und Methodennamen).
+ * Jeder Name existiert genau einmal als Symbol-Objekt und bekommt eine kleine
+ * Integer-ID. Vergleiche sind damit Referenzvergleiche, Laufzeittabellen
+ * werden ueber die ID adressiert (siehe interp.SymbolMap).
+ *
+ * Die Intern-Tabelle haelt Symbole nur schwach: ein Name, den kein AST, Programm
+ * oder Scope mehr verwendet, wird wieder freigegeben (wichtig fuer die Server,
+ * deren Clients beliebig viele Namen erzeugen koennen). Wird er spaeter erneut
+ * benutzt, bekommt er ein neues Symbol. Die ID eines freigegebenen Symbols wird
+ * an neue Symbole weitergegeben; die IDs bleiben so dicht bei der Anzahl gleichzeitig
+ * lebender Symbole und gehen in langlaufenden Servern nicht aus. Das ist sicher,
+ * weil jede Tabelle, die nach ID sucht, ihr Symbol erreichbar haelt (SymbolMap
+ * speichert die Keys, in interp.PersistentTable verweist der Wert auf seinen Namen).
+ * Grenze: hoechstens 2^31 gleichzeitig lebende Symbole.
+ *
+ */
+public final class Symbol implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Globale Intern-Tabelle: Name -> Symbol (ueber alle Parser-Laeufe/REPL-Eingaben hinweg)
+    private static final ConcurrentHashMap<String, Ref> TABLE = new ConcurrentHashMap<>();
+
+    // Freigegebene Symbole, deren Eintraege noch aus TABLE entfernt werden muessen
+    private static final ReferenceQueue<Symbol> RELEASED = new ReferenceQueue<>();
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    // IDs freigegebener Symbole, werden vor neuen IDs vergeben
+    private static final ConcurrentLinkedQueue<Integer> FREE_IDS = new ConcurrentLinkedQueue<>();
+
+    /**
+     * ID ab 0, eindeutig unter allen lebenden Symbolen. Nach der Freigabe eines
+     * Symbols kann ein anderes Symbol seine ID bekommen.
+     */
+    public final int id;
+
+    /** Der Name im Quelltext. */
+    public final String name;
+
+    private Symbol(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Liefert das Symbol fuer einen Namen und legt es bei Bedarf an.
+     */
+    public static Symbol of(String name) {
+        Ref r = TABLE.get(name);
+        Symbol s = (r != null) ? r.get() : null;
+        if (s != null) return s;
+
+        expunge();
+        // Atomar: neues Symbol, falls es keins gibt oder das alte freigegeben wurde
+        Symbol[] res = new Symbol[1];
+        TABLE.compute(name, (n, old) -> {
+            Symbol live = (old != null) ? old.get() : null;
+            if (live != null) {
+                res[0] = live;
+                return old;
+            }
+            res[0] = new Symbol(nextId(), n);
+            return new Ref(res[0]);
+        });
+        return res[0];
+    }
+
+    private static int nextId() {
+        Integer free = FREE_IDS.poll();
+        if (free != null) return free;
+        int id = NEXT_ID.getAndIncrement();
+        if (id < 0) throw new IllegalStateException("Symbol IDs exhausted");
+        return id;
+    }
+
+    // Eintraege freigegebener Symbole entfernen (nur, wenn der Eintrag noch zu ihnen gehoert)
+    // und ihre IDs zur Wiederverwendung freigeben
+    private static void expunge() {
+        Reference<? extends Symbol> r;
+        while ((r = RELEASED.poll()) != null) {
+            Ref ref = (Ref) r;
+            TABLE.remove(ref.name, ref);
+            FREE_IDS.offer(ref.id);
+        }
+    }
+
+    private static final class Ref extends WeakReference<Symbol> {
+        final String name;
+        final int id;
+
+        Ref(Symbol s) {
+            super(s, RELEASED);
+            this.name = s.name;
+            this.id = s.id;
+        }
+    }
+
+    /** Obergrenze der vergebenen IDs (hoechste ID + 1, auch ueber freigegebene Symbole). */
+    public static int count() {
+        return NEXT_ID.get();
+    }
+
+    // Beim Deserialisieren neu internieren: IDs sind nur innerhalb eines Prozesses gueltig
+    private Object readResolve() {
+        return of(name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
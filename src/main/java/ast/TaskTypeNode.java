@@ -0,0 +1,17 @@
+package ast;
+
+/**
+ * Typ eines gestarteten Tasks.
+ * Syntax: task<T> (z.B. task<int>), Ergebnis vom Typ T ueber t.join().
+ *
+ */
+public class TaskTypeNode extends TypeNode {
+    private static final long serialVersionUID = 1L;
+
+    /** Der Ergebnistyp des Tasks. */
+    public final TypeNode result;
+
+    public TaskTypeNode(TypeNode result) {
+        this.result = result;
+    }
+}
@@ -6,4 +6,6 @@ package ast;
  * oder Rueckgabetypen zu beschreiben (z.B. int, bool, MyClass, int&).
  *
  */
-public abstract class TypeNode extends ASTNode {}
+public abstract class TypeNode extends ASTNode {
+    private static final long serialVersionUID = 1L;
+}
@@ -6,6 +6,7 @@ package ast;
  *
  */
 public class UnaryExpr extends Expr {
+    private static final long serialVersionUID = 1L;
 
     /** Der Operator als String (z.B. "-", "!"). */
     public String op;
@@ -7,9 +7,10 @@ package ast;
  *
  */
 public class VarDeclStmt extends Statement {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der Variable. */
-    public String name;
+    public Symbol name;
 
     /** Der Datentyp der Variable (z.B. IntTypeNode, ClassTypeNode). */
     public TypeNode type;
@@ -20,7 +21,7 @@ public class VarDeclStmt extends Statement {
      */
     public Expr init;
 
-    public VarDeclStmt(String name, TypeNode type, Expr init) {
+    public VarDeclStmt(Symbol name, TypeNode type, Expr init) {
         this.name = name;
         this.type = type;
         this.init = init;
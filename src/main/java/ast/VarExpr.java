@@ -6,11 +6,12 @@ package ast;
  *
  */
 public class VarExpr extends Expr {
+    private static final long serialVersionUID = 1L;
 
     /** Der Name der referenzierten Variable. */
-    public String name;
+    public Symbol name;
 
-    public VarExpr(String name) {
+    public VarExpr(Symbol name) {
         this.name = name;
     }
 }
@@ -6,6 +6,7 @@ package ast;
  *
  */
 public class WhileStmt extends Statement {
+    private static final long serialVersionUID = 1L;
 
     /** Die Schleifenbedingung. Wird vor jedem Durchlauf geprueft. */
     public final Expr cond;
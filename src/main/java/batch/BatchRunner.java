@@ -0,0 +1,219 @@
+package batch;
+
+import ast.Program;
+import frontend.IncludeResolver;
+import frontend.ModuleCache;
+import interp.CompiledProgram;
+import interp.ExecutionBudget;
+import interp.ExecutionContext;
+import interp.InputSource;
+import interp.MemorySink;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Batch-Modus: fuehrt viele Programme in einer JVM aus (Warmup nur einmal) und
+ * prueft sie gegen ihre Erwartung.
+ *
+ * - Programme mit Block "/* EXPECT ... *&#47;": Ausgabe muss Zeile fuer Zeile passen.
+ * - Programme unter einem Verzeichnis "negativ": muessen mit einem Fehler abbrechen.
+ * - Alle anderen: muessen ohne Fehler durchlaufen.
+ * Liegt neben einem Programm eine Datei "<name>.in", lesen read_* daraus; sonst ist die
+ * Eingabe leer.
+ *
+ * Die Programme laufen parallel auf einem Fork-Join-Pool (work stealing), jedes
+ * mit eigenem ExecutionContext und mitgeschnittener Ausgabe. Mit setLimits()
+ * bekommt jedes Programm ein eigenes ExecutionBudget; eine Endlosschleife bricht
+ * dann nur diese Datei ab (Status ERROR, bzw. PASS unter "negativ").
+ *
+ */
+public final class BatchRunner {
+
+    // Dateiendungen, die beim Durchsuchen eines Verzeichnisses beruecksichtigt werden
+    private static final List<String> EXTENSIONS = List.of(".txt", ".cpp", ".cc");
+
+    // "/* EXPECT" + Rest der Zeile (z.B. "(Zeile für Zeile):"), dann Inhalt bis "*/"
+    private static final Pattern EXPECT = Pattern.compile("/\\*\\s*EXPECT[^\\n]*\\n(.*?)\\*/", Pattern.DOTALL);
+
+    public enum Status { PASS, FAIL, ERROR }
+
+    /** Ergebnis fuer eine Datei. */
+    public record Result(Path file, Status status, long nanos, String detail) {}
+
+    private final List<Path> includePath;
+    private final ModuleCache cache;
+    private final ForkJoinPool pool;
+
+    // Grenzen pro Datei, 0 = unbegrenzt
+    private long maxSteps;
+    private long timeoutMillis;
+    private long maxBytes;
+    private int maxFrames;
+
+    public BatchRunner(List<Path> includePath, ModuleCache cache, ForkJoinPool pool) {
+        this.includePath = List.copyOf(includePath);
+        this.cache = cache;
+        this.pool = pool;
+    }
+
+    /** Grenzen pro Datei (0 = unbegrenzt), siehe ExecutionBudget. */
+    public void setLimits(long maxSteps, long timeoutMillis, long maxBytes, int maxFrames) {
+        this.maxSteps = maxSteps;
+        this.timeoutMillis = timeoutMillis;
+        this.maxBytes = maxBytes;
+        this.maxFrames = maxFrames;
+    }
+
+    /**
+     * Liefert die Programme eines Verzeichnisses (rekursiv) bzw. eines Manifests
+     * (eine Datei pro Zeile, relativ zum Manifest; '#' leitet Kommentare ein).
+     */
+    public static List<Path> collect(Path dirOrManifest) throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        if (Files.isDirectory(dirOrManifest)) {
+            try (Stream<Path> s = Files.walk(dirOrManifest)) {
+                s.filter(Files::isRegularFile)
+                        .filter(p -> EXTENSIONS.stream().anyMatch(p.getFileName().toString()::endsWith))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        } else {
+            Path base = dirOrManifest.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(dirOrManifest, StandardCharsets.UTF_8)) {
+                String l = line.strip();
+                if (l.isEmpty() || l.startsWith("#")) continue;
+                files.add(base.resolve(l).normalize());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Fuehrt alle Dateien aus; das Ergebnis hat dieselbe Reihenfolge wie files.
+     */
+    public List<Result> run(List<Path> files) {
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>(files.size());
+        for (Path f : files) tasks.add(ForkJoinTask.adapt(() -> runOne(f)));
+
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        List<Result> res = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Result> t : tasks) res.add(t.join());
+        return res;
+    }
+
+    /**
+     * Schreibt den Bericht (eine Zeile pro Datei + Zusammenfassung).
+     * @return Anzahl fehlgeschlagener Dateien
+     */
+    public static int report(List<Result> results, PrintStream out) {
+        int failed = 0;
+        long total = 0;
+        for (Result r : results) {
+            out.printf("%-5s %8.1f ms  %s%n", r.status(), r.nanos() / 1e6, r.file());
+            if (r.status() != Status.PASS) {
+                failed++;
+                for (String l : r.detail().split("\n")) out.println("        " + l);
+            }
+            total += r.nanos();
+        }
+        out.printf("%d files, %d passed, %d failed, %.1f ms cpu%n",
+                results.size(), results.size() - failed, failed, total / 1e6);
+        return failed;
+    }
+
+    // --------- Einzelne Datei ---------
+
+    private Result runOne(Path file) {
+        long start = System.nanoTime();
+
+        String source;
+        try {
+            source = Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            return new Result(file, Status.ERROR, System.nanoTime() - start, "Cannot read: " + ex.getMessage());
+        }
+        List<String> expected = expectation(source);
+        boolean negative = isNegative(file);
+
+        MemorySink out = new MemorySink();
+        String error = null;
+        try {
+            // IncludeResolver ist pro Programm (merkt sich ausgelieferte Module), Cache und Pool sind geteilt
+            Program p = new IncludeResolver(includePath, cache, pool).resolve(file);
+            boolean limited = maxSteps != 0 || timeoutMillis != 0 || maxBytes != 0 || maxFrames != 0;
+            ExecutionBudget budget = limited ? new ExecutionBudget(maxSteps, timeoutMillis, maxBytes, maxFrames) : null;
+            ExecutionContext ctx = CompiledProgram.compile(p).newContext(out, budget, input(file));
+            ctx.runMain();
+        } catch (RuntimeException | IOException | StackOverflowError ex) {
+            error = (ex.getMessage() != null) ? ex.getMessage() : ex.toString();
+        }
+        long nanos = System.nanoTime() - start;
+        String output = out.text();
+
+        if (negative) {
+            return (error != null)
+                    ? new Result(file, Status.PASS, nanos, "")
+                    : new Result(file, Status.FAIL, nanos, "expected an error, but program completed");
+        }
+        if (error != null) {
+            return new Result(file, Status.ERROR, nanos, error);
+        }
+        if (expected != null) {
+            String diff = compare(expected, lines(output));
+            if (diff != null) return new Result(file, Status.FAIL, nanos, diff);
+        }
+        return new Result(file, Status.PASS, nanos, "");
+    }
+
+    private static InputSource input(Path file) throws IOException {
+        Path in = file.resolveSibling(file.getFileName() + ".in");
+        return Files.isRegularFile(in) ? InputSource.of(Files.readString(in, StandardCharsets.UTF_8)) : InputSource.of("");
+    }
+
+    /** Erwartete Ausgabezeilen aus dem EXPECT-Block oder null. */
+    static List<String> expectation(String source) {
+        Matcher m = EXPECT.matcher(source);
+        return m.find() ? lines(m.group(1)) : null;
+    }
+
+    private static boolean isNegative(Path file) {
+        for (Path part : file.toAbsolutePath()) {
+            if (part.toString().equals("negativ")) return true;
+        }
+        return false;
+    }
+
+    // Zeilen ohne Leerraum am Zeilenende, ohne Leerzeilen am Anfang/Ende
+    private static List<String> lines(String text) {
+        List<String> res = new ArrayList<>();
+        for (String l : text.split("\\R", -1)) res.add(l.stripTrailing());
+        while (!res.isEmpty() && res.get(0).isEmpty()) res.remove(0);
+        while (!res.isEmpty() && res.get(res.size() - 1).isEmpty()) res.remove(res.size() - 1);
+        return res;
+    }
+
+    private static String compare(List<String> expected, List<String> actual) {
+        int n = Math.max(expected.size(), actual.size());
+        for (int i = 0; i < n; i++) {
+            String e = (i < expected.size()) ? expected.get(i) : "<end of output>";
+            String a = (i < actual.size()) ? actual.get(i) : "<end of output>";
+            if (!e.equals(a)) {
+                return "line " + (i + 1) + ": expected '" + e + "', got '" + a + "'";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,261 @@
+package frontend;
+
+import ast.ASTNode;
+import ast.Program;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import parser.MiniCppLexer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Front-End-Stufe fuer #include.
+ * Der Lexer legt Praeprozessor-Zeilen auf den Hidden-Channel; diese Klasse
+ * wertet die #include-Angaben aus und liefert ein Programm, in dem die
+ * Deklarationen aller eingebundenen Dateien vor den eigenen stehen.
+ *
+ * - Eingebundene Dateien werden parallel auf einem Fork-Join-Pool geparst.
+ * - Jede Datei wird nur einmal eingebunden: dedupliziert ueber den realen Pfad
+ *   und ueber den Inhalts-Hash (wie "#pragma once"); Zyklen sind damit harmlos.
+ * - Eingebundene Dateien duerfen nur Funktionen und Klassen deklarieren.
+ * - Geparste Module landen im ModuleCache und werden spaeter ohne Parsen geladen.
+ *
+ */
+public final class IncludeResolver {
+
+    // Header, deren Inhalt der Interpreter selbst bereitstellt (Builtins)
+    private static final Set<String> RUNTIME_HEADERS = Set.of("hsbi_runtime.h");
+
+    private static final Pattern INCLUDE = Pattern.compile("#\\s*include\\s*[\"<]([^\">]+)[\">]");
+
+    private final List<Path> includePath;
+    private final ModuleCache cache;
+    private final ForkJoinPool pool;
+
+    // Deduplizierung: realer Pfad -> Modul, Inhalts-Hash -> Modul
+    private final ConcurrentHashMap<Path, Module> byPath = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Module> byHash = new ConcurrentHashMap<>();
+
+    // Pfade, fuer die bereits ein Parse-Task angelegt wurde
+    private final Set<Path> scheduled = ConcurrentHashMap.newKeySet();
+
+    // Module, deren Deklarationen schon ausgeliefert wurden (nur Aufrufer-Thread)
+    private final Set<String> emitted = new HashSet<>();
+
+    // Bodies der Hauptdatei erst beim ersten Aufruf bauen
+    private boolean lazyBodies = false;
+
+    /**
+     * @param includePath zusaetzliche Suchverzeichnisse (nach dem Verzeichnis der einbindenden Datei)
+     * @param cache       Plattencache fuer Module oder null
+     */
+    public IncludeResolver(List<Path> includePath, ModuleCache cache) {
+        this(includePath, cache, ForkJoinPool.commonPool());
+    }
+
+    public IncludeResolver(List<Path> includePath, ModuleCache cache, ForkJoinPool pool) {
+        this.includePath = List.copyOf(includePath);
+        this.cache = cache;
+        this.pool = pool;
+    }
+
+    /**
+     * Lazy-Modus fuer die Hauptdatei: nur Signaturen und Token-Bereiche der Bodies
+     * werden beim Laden erfasst (siehe ProgramParser.parse(TokenStream, boolean)).
+     * Module aus dem Cache sind immer vollstaendig.
+     */
+    public void setLazyBodies(boolean lazyBodies) {
+        this.lazyBodies = lazyBodies;
+    }
+
+    /**
+     * Parst die Hauptdatei (memory-mapped, siehe SourceLoader) und bindet alle
+     * Includes transitiv ein.
+     */
+    public Program resolve(Path root) throws IOException {
+        Program main;
+        List<String> includes;
+        try (FileChannel ch = FileChannel.open(root, StandardOpenOption.READ)) {
+            CommonTokenStream tokens = new CommonTokenStream(SourceLoader.newLexer(root, ch));
+            main = ProgramParser.parse(tokens, lazyBodies);
+            includes = directives(tokens.getTokens());
+        }
+
+        Program p = new Program();
+        p.declarations.addAll(include(root, includes));
+        p.declarations.addAll(main.declarations);
+        return p;
+    }
+
+    /**
+     * Bindet die Includes einer Datei ein und liefert die Deklarationen aller
+     * noch nicht ausgelieferten Module in Abhaengigkeitsreihenfolge.
+     * (Wird auch im Streaming-Modus pro #include-Zeile aufgerufen.)
+     */
+    public List<ASTNode> include(Path from, List<String> includes) {
+        if (includes.isEmpty()) return List.of();
+
+        Path dir = from.toAbsolutePath().getParent();
+        try {
+            pool.invoke(ForkJoinTask.adapt(() -> parseAll(dir, includes, from)));
+        } catch (RuntimeException ex) {
+            // Fork-Join verpackt Fehler aus Worker-Threads in eine Kopie -> Original melden
+            if (ex.getCause() instanceof RuntimeException cause && cause.getClass() == ex.getClass()) throw cause;
+            throw ex;
+        }
+
+        List<ASTNode> out = new ArrayList<>();
+        collect(dir, includes, from, out);
+        return out;
+    }
+
+    /** Extrahiert die #include-Angaben aus den Praeprozessor-Tokens. */
+    public static List<String> directives(List<Token> tokens) {
+        List<String> res = new ArrayList<>();
+        for (Token t : tokens) {
+            if (t.getType() != MiniCppLexer.PREPROCESSOR) continue;
+            String inc = includeName(t.getText());
+            if (inc != null) res.add(inc);
+        }
+        return res;
+    }
+
+    /** Name aus einer Praeprozessor-Zeile ("#include \"a.h\"" -> "a.h") oder null. */
+    static String includeName(String directive) {
+        Matcher m = INCLUDE.matcher(directive);
+        return m.lookingAt() ? m.group(1) : null;
+    }
+
+    // --------- Parsen (parallel) ---------
+
+    // Legt fuer jede neue Datei einen Parse-Task an und wartet auf alle
+    private void parseAll(Path dir, List<String> includes, Path from) {
+        List<ParseTask> tasks = new ArrayList<>();
+        for (String inc : includes) {
+            Path file = locate(dir, inc, from);
+            if (file != null && scheduled.add(file)) tasks.add(new ParseTask(file));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    private final class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path file;
+
+        ParseTask(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        protected void compute() {
+            Module m = module(file);
+            byPath.put(file, m);
+
+            // Includes des Moduls ebenfalls parallel
+            parseAll(file.getParent(), m.includes, file);
+        }
+    }
+
+    private Module module(Path file) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read include " + file, ex);
+        }
+        String hash = sha256(bytes);
+
+        // gleicher Inhalt unter anderem Pfad -> bereits geparst
+        Module m = byHash.get(hash);
+        if (m != null) return m;
+
+        if (cache != null) m = cache.load(hash);
+        if (m == null) {
+            m = parseModule(file, bytes, hash);
+            if (cache != null) cache.store(m);
+        }
+
+        Module prev = byHash.putIfAbsent(hash, m);
+        return (prev != null) ? prev : m;
+    }
+
+    private static Module parseModule(Path file, byte[] bytes, String hash) {
+        String code = new String(bytes, StandardCharsets.UTF_8);
+        CommonTokenStream tokens = new CommonTokenStream(new MiniCppLexer(CharStreams.fromString(code, file.toString())));
+
+        Program p;
+        try {
+            p = ProgramParser.parse(tokens);
+        } catch (RuntimeException ex) {
+            throw new RuntimeException(file + ": " + ex.getMessage(), ex);
+        }
+
+        for (ASTNode n : p.declarations) {
+            if (!(n instanceof ast.FunctionDecl) && !(n instanceof ast.ClassDecl)) {
+                throw new RuntimeException("Only function and class declarations allowed in included file: " + file);
+            }
+        }
+        return new Module(hash, directives(tokens.getTokens()), List.copyOf(p.declarations));
+    }
+
+    // --------- Zusammensetzen ---------
+
+    // Post-Order: Abhaengigkeiten eines Moduls stehen vor dessen Deklarationen
+    private void collect(Path dir, List<String> includes, Path from, List<ASTNode> out) {
+        for (String inc : includes) {
+            Path file = locate(dir, inc, from);
+            if (file == null) continue;
+
+            Module m = byPath.get(file);
+            if (!emitted.add(m.hash)) continue;
+
+            collect(file.getParent(), m.includes, file, out);
+            out.addAll(m.declarations);
+        }
+    }
+
+    /**
+     * Sucht die Datei relativ zur einbindenden Datei, dann im Include-Pfad.
+     * Liefert den realen Pfad oder null fuer Runtime-Header.
+     */
+    private Path locate(Path dir, String inc, Path from) {
+        if (RUNTIME_HEADERS.contains(inc)) return null;
+
+        try {
+            Path c = dir.resolve(inc);
+            if (Files.isRegularFile(c)) return c.toRealPath();
+            for (Path p : includePath) {
+                c = p.resolve(inc);
+                if (Files.isRegularFile(c)) return c.toRealPath();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot resolve include " + inc, ex);
+        }
+        throw new RuntimeException("Include not found: " + inc + " (included from " + from + ")");
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
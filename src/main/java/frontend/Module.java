@@ -0,0 +1,33 @@
+package frontend;
+
+import ast.ASTNode;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Ein per #include eingebundenes, fertig geparstes Modul.
+ * Enthaelt nur Deklarationen (Funktionen und Klassen) sowie die eigenen
+ * #include-Angaben (unaufgeloest, da die Aufloesung vom Speicherort abhaengt).
+ * Wird ueber den Inhalts-Hash im ModuleCache abgelegt.
+ *
+ */
+public final class Module implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** SHA-256 des Dateiinhalts (hex). */
+    public final String hash;
+
+    /** Die #include-Angaben der Datei, z.B. "util.h". */
+    public final List<String> includes;
+
+    /** Die Funktions- und Klassendeklarationen der Datei. */
+    public final List<ASTNode> declarations;
+
+    public Module(String hash, List<String> includes, List<ASTNode> declarations) {
+        this.hash = hash;
+        this.includes = includes;
+        this.declarations = declarations;
+    }
+}
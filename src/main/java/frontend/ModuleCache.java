@@ -0,0 +1,125 @@
+package frontend;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+
+/**
+ * Plattencache fuer vorkompilierte Module (Schluessel: Inhalts-Hash).
+ * Spaetere Laeufe laden die Deklarationen eines unveraenderten Moduls direkt,
+ * ohne die Datei erneut zu lexen/parsen.
+ * Defekte oder veraltete Eintraege (z.B. nach AST-Aenderungen) gelten als Cache-Miss.
+ *
+ * Cache-Dateien werden deserialisiert, daher:
+ * - beim Lesen sind nur AST-Klassen, Module und java.util/java.lang-Werte erlaubt
+ *   (ObjectInputFilter), alles andere bricht das Lesen ab (Cache-Miss);
+ * - Dateien, die nicht dem aktuellen Benutzer gehoeren, werden ignoriert;
+ * - das Verzeichnis wird, wo moeglich, nur fuer den Benutzer lesbar angelegt,
+ *   ein fremdes Verzeichnis wird nicht benutzt.
+ * Filter, Besitzer-Pruefung und Verzeichnis nutzt auch InterpreterImage.
+ *
+ */
+public final class ModuleCache {
+
+    // Bei inkompatiblen AST-Aenderungen erhoehen
+    private static final String FORMAT = "v4";
+
+    // Erlaubte Klassen im Objektgraphen eines Moduls; Grenzen gegen aufgeblaehte Dateien
+    private static final ObjectInputFilter FILTER = filter("maxdepth=2000;frontend.Module");
+
+    private final Path dir;
+
+    public ModuleCache(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Standard-Cache: System-Property "minicpp.moduleCache" oder ~/.cache/minicpp/modules.
+     */
+    public static ModuleCache defaultCache() {
+        String prop = System.getProperty("minicpp.moduleCache");
+        Path dir = (prop != null)
+                ? Path.of(prop)
+                : Path.of(System.getProperty("user.home"), ".cache", "minicpp", "modules");
+        return new ModuleCache(dir);
+    }
+
+    /** Liefert das Modul zum Hash oder null. */
+    public Module load(String hash) {
+        Path f = fileFor(hash);
+        if (!Files.isRegularFile(f, LinkOption.NOFOLLOW_LINKS) || !ownedByCurrentUser(f)) return null;
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(f)))) {
+            in.setObjectInputFilter(FILTER);
+            Module m = (Module) in.readObject();
+            return hash.equals(m.hash) ? m : null;
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            // InvalidClassException: vom Filter abgelehnt
+            return null;
+        }
+    }
+
+    /**
+     * Filter fuer deserialisierte AST-Graphen: AST-Klassen, java.util/java.lang-Werte
+     * und zusaetzlich die Muster in allowed (z.B. "maxdepth=...;frontend.Module"),
+     * alles andere wird abgelehnt. Auch fuer Interpreter-Images (InterpreterImage).
+     */
+    public static ObjectInputFilter filter(String allowed) {
+        return ObjectInputFilter.Config.createFilter(
+                "maxarray=1000000;" + allowed + ";ast.*;java.util.*;"
+                + "java.lang.Object;java.lang.Integer;java.lang.Number;java.lang.Boolean;java.lang.Character;java.lang.Enum;!*");
+    }
+
+    /**
+     * Fremde Dateien nie deserialisieren; ohne Besitzer-Information (Dateisystem) ebenfalls nicht.
+     * Symlinks zaehlen als eigene Datei (NOFOLLOW_LINKS).
+     */
+    public static boolean ownedByCurrentUser(Path f) {
+        try {
+            UserPrincipal owner = Files.getOwner(f, LinkOption.NOFOLLOW_LINKS);
+            UserPrincipal me = f.getFileSystem().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            return owner.equals(me);
+        } catch (IOException | UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    /** Speichert das Modul (atomar ueber eine temporaere Datei). Fehler sind nicht fatal. */
+    public void store(Module m) {
+        try {
+            createPrivateDirectory(dir);
+            Path tmp = Files.createTempFile(dir, m.hash, ".tmp");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeObject(m);
+            }
+            Files.move(tmp, fileFor(m.hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // Cache ist optional: beim naechsten Lauf wird eben neu geparst
+        }
+    }
+
+    /**
+     * Legt dir, wo moeglich, nur fuer den Benutzer lesbar an (rwx------).
+     * Ein schon vorhandenes Verzeichnis (z.B. vorab von einem anderen Benutzer
+     * in einem geteilten tmp angelegt) wird nur akzeptiert, wenn es dem Benutzer
+     * gehoert und kein Symlink ist; sonst IOException.
+     */
+    public static void createPrivateDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } catch (UnsupportedOperationException ex) {
+                Files.createDirectories(dir);
+            }
+        }
+        if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS) || !ownedByCurrentUser(dir)) {
+            throw new IOException("Not a directory owned by the current user: " + dir);
+        }
+    }
+
+    private Path fileFor(String hash) {
+        return dir.resolve(FORMAT + "-" + hash + ".mod");
+    }
+}
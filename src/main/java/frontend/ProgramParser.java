@@ -0,0 +1,242 @@
+package frontend;
+
+import ast.BlockStmt;
+import ast.LazyBlock;
+import ast.Program;
+import jfr.ParseEvent;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.tree.ParseTree;
+import parser.MiniCppLexer;
+import parser.MiniCppParser;
+import visitor.ASTBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Front-End: Quelltext bzw. Tokens -> Parse-Tree -> AST.
+ * Syntaxfehler werden als RuntimeException gemeldet.
+ *
+ */
+public final class ProgramParser {
+
+    // Token-Typen fuer das Ueberspringen von Bodies (Lazy-Modus)
+    private static final int LPAREN = literalType("'('");
+    private static final int RPAREN = literalType("')'");
+    private static final int LBRACE = literalType("'{'");
+    private static final int RBRACE = literalType("'}'");
+
+    private ProgramParser() {}
+
+    public static Program parse(String code) {
+        return parse(CharStreams.fromString(code));
+    }
+
+    public static Program parse(CharStream cs) {
+        MiniCppLexer lexer = new MiniCppLexer(cs);
+        return parse(new CommonTokenStream(lexer));
+    }
+
+    /**
+     * Parst bereits gescannte Tokens (z.B. aus der REPL, siehe ReplInput).
+     */
+    public static Program parse(TokenStream tokens) {
+        return parse(tokens, false);
+    }
+
+    /**
+     * @param lazyBodies true: Funktions-/Konstruktor-Bodies werden gar nicht erst geparst.
+     *                   Sie werden vorher auf Token-Ebene (Klammerzaehlung) ausgeschnitten,
+     *                   der Parser sieht nur "{ }". Jeder Body behaelt eine Kopie seiner
+     *                   eigenen Tokens und wird beim ersten Aufruf daraus gebaut; Syntaxfehler
+     *                   in einem Body fallen erst dann auf.
+     */
+    public static Program parse(TokenStream tokens, boolean lazyBodies) {
+        if (lazyBodies && tokens instanceof BufferedTokenStream bts) return parseLazy(bts);
+
+        MiniCppParser parser = newParser(tokens);
+        ParseEvent parsing = begin();
+        ParseTree tree = parser.program();
+        commit(parsing, tokens, "parse");
+
+        ParseEvent building = begin();
+        Program p = (Program) new ASTBuilder().visit(tree);
+        commit(building, tokens, "ast");
+        return p;
+    }
+
+    private static Program parseLazy(BufferedTokenStream tokens) {
+        tokens.fill();
+        Map<Token, BodyTokens> bodies = new IdentityHashMap<>();
+        List<Token> outline = skipBodies(tokens.getTokens(), bodies);
+
+        CommonTokenStream outlineTokens = new CommonTokenStream(new ListTokenSource(outline, tokens.getSourceName()));
+        MiniCppParser parser = newParser(outlineTokens);
+        ParseEvent parsing = begin();
+        ParseTree tree = parser.program();
+        commit(parsing, outlineTokens, "parse");
+
+        String source = tokens.getSourceName();
+        ASTBuilder builder = new ASTBuilder(block -> {
+            BodyTokens body = bodies.remove(block.getStart());
+            if (body == null) return LazyBlock.of((BlockStmt) new ASTBuilder().visit(block));
+            return LazyBlock.deferred(() -> parseBody(body.tokens(), source));
+        });
+        ParseEvent building = begin();
+        Program p = (Program) builder.visit(tree);
+        commit(building, outlineTokens, "ast");
+        return p;
+    }
+
+    /**
+     * Liefert die Tokens ohne den Inhalt von Funktions-/Konstruktor-Bodies ("{ }" bleibt stehen)
+     * und legt den Inhalt jedes Bodys unter seinem '{' in bodies ab. Ein Body ist ein '{'
+     * direkt nach ')', dessen '(' auf einen Namen folgt ("f(...) {", nicht "while (...) {").
+     * Nur Tokens des Default-Kanals; bei unbalancierten Klammern bleibt der Rest stehen,
+     * damit der Parser den Fehler meldet.
+     */
+    static List<Token> skipBodies(List<Token> all, Map<Token, BodyTokens> bodies) {
+        List<Token> out = new ArrayList<>(all.size());
+        // Gleiche Texte ("=", "a", "return", ...) teilen sich einen String ueber alle Bodies
+        Map<String, String> texts = new HashMap<>();
+        int i = 0;
+        while (i < all.size()) {
+            Token t = all.get(i++);
+            if (t.getChannel() != Token.DEFAULT_CHANNEL) continue;
+            out.add(t);
+            if (t.getType() != LBRACE || !startsBody(out)) continue;
+
+            int close = matchingBrace(all, i);
+            if (close < 0) continue;
+
+            bodies.put(t, new BodyTokens(all, i - 1, close, texts));
+            out.add(all.get(close));
+            i = close + 1;
+        }
+        return out;
+    }
+
+    // out endet mit '{': davor ')' und vor dem passenden '(' ein Name?
+    private static boolean startsBody(List<Token> out) {
+        int k = out.size() - 2;
+        if (k < 0 || out.get(k).getType() != RPAREN) return false;
+        int depth = 0;
+        for (; k >= 0; k--) {
+            int type = out.get(k).getType();
+            if (type == RPAREN) depth++;
+            else if (type == LPAREN && --depth == 0) break;
+        }
+        return k > 0 && out.get(k - 1).getType() == MiniCppLexer.ID;
+    }
+
+    // Index der schliessenden Klammer zum '{' direkt vor from, oder -1
+    private static int matchingBrace(List<Token> all, int from) {
+        int depth = 1;
+        for (int j = from; j < all.size(); j++) {
+            Token t = all.get(j);
+            if (t.getChannel() != Token.DEFAULT_CHANNEL) continue;
+            if (t.getType() == LBRACE) depth++;
+            else if (t.getType() == RBRACE && --depth == 0) return j;
+        }
+        return -1;
+    }
+
+    /**
+     * Kompakte Kopie der Tokens eines Bodys: nur Typ, Text und Position, ohne Referenz
+     * auf die anderen Tokens, den Lexer oder den Zeichenstrom. Token-Objekte entstehen
+     * erst, wenn der Body gebaut wird.
+     */
+    private static final class BodyTokens {
+        private final int[] types;
+        private final String[] texts;
+        private final int[] lines;
+        private final int[] columns;
+
+        BodyTokens(List<Token> all, int open, int close, Map<String, String> shared) {
+            int n = 0;
+            for (int j = open; j <= close; j++) if (all.get(j).getChannel() == Token.DEFAULT_CHANNEL) n++;
+            types = new int[n];
+            texts = new String[n];
+            lines = new int[n];
+            columns = new int[n];
+            int k = 0;
+            for (int j = open; j <= close; j++) {
+                Token t = all.get(j);
+                if (t.getChannel() != Token.DEFAULT_CHANNEL) continue;
+                types[k] = t.getType();
+                texts[k] = shared.computeIfAbsent(t.getText(), x -> x);
+                lines[k] = t.getLine();
+                columns[k] = t.getCharPositionInLine();
+                k++;
+            }
+        }
+
+        List<Token> tokens() {
+            List<Token> res = new ArrayList<>(types.length);
+            for (int k = 0; k < types.length; k++) {
+                CommonToken t = new CommonToken(types[k], texts[k]);
+                t.setLine(lines[k]);
+                t.setCharPositionInLine(columns[k]);
+                res.add(t);
+            }
+            return res;
+        }
+    }
+
+    private static BlockStmt parseBody(List<Token> body, String source) {
+        ParseEvent ev = begin();
+        CommonTokenStream bodyTokens = new CommonTokenStream(new ListTokenSource(body, source));
+        MiniCppParser parser = newParser(bodyTokens);
+        BlockStmt b = (BlockStmt) new ASTBuilder().visit(parser.block());
+        commit(ev, bodyTokens, "body");
+        return b;
+    }
+
+    private static int literalType(String literal) {
+        Vocabulary v = MiniCppLexer.VOCABULARY;
+        for (int t = 0; t <= v.getMaxTokenType(); t++) {
+            if (literal.equals(v.getLiteralName(t))) return t;
+        }
+        throw new IllegalStateException("No token for " + literal);
+    }
+
+    // JFR-Event fuer eine Phase, null wenn ausgeschaltet
+    static ParseEvent begin() {
+        if (!ParseEvent.PROBE.isEnabled()) return null;
+        ParseEvent ev = new ParseEvent();
+        ev.begin();
+        return ev;
+    }
+
+    static void commit(ParseEvent ev, TokenStream tokens, String phase) {
+        if (ev == null) return;
+        ev.end();
+        if (ev.shouldCommit()) {
+            ev.source = tokens.getSourceName();
+            ev.phase = phase;
+            // ungepufferte Streams (Streaming-Modus) kennen ihre Laenge nicht
+            ev.tokens = (tokens instanceof BufferedTokenStream) ? tokens.size() : 0;
+            ev.commit();
+        }
+    }
+
+    static MiniCppParser newParser(TokenStream tokens) {
+        MiniCppParser parser = new MiniCppParser(tokens);
+
+        // Syntaxfehler als Exception
+        parser.removeErrorListeners();
+        parser.addErrorListener(new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer,
+                                    Object offendingSymbol,
+                                    int line, int charPositionInLine,
+                                    String msg, RecognitionException e) {
+                throw new RuntimeException("Syntax error at " + line + ":" + charPositionInLine + " - " + msg);
+            }
+        });
+        return parser;
+    }
+}
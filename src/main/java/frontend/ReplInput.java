@@ -0,0 +1,136 @@
+package frontend;
+
+import ast.Program;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import parser.MiniCppLexer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inkrementelle Mehrzeilen-Eingabe fuer die REPL.
+ * Jede Zeile wird genau einmal gescannt: Klammer-/Blocktiefe und der
+ * String-/Kommentar-Modus bleiben zwischen den Zeilen erhalten.
+ * Sobald der Scanner an einem Zeilenende nicht in einem String/Char/Block-Kommentar
+ * steht, wird der bis dahin gesammelte Text einmal gelext; die Tokens werden
+ * gesammelt und bei vollstaendiger Eingabe direkt an den Parser uebergeben.
+ *
+ */
+public final class ReplInput {
+
+    // Scanner-Zustand ueber Zeilengrenzen hinweg
+    private int paren = 0, brace = 0;
+    private boolean inStr = false, inChar = false;
+    private boolean inBlockComment = false;
+
+    // Text seit der letzten sauberen Grenze (noch nicht gelext)
+    private final StringBuilder pending = new StringBuilder();
+    private int pendingStartLine = 1;
+    private int lineNo = 0;
+
+    // Bereits gelexte Tokens der aktuellen Eingabe
+    private final List<Token> tokens = new ArrayList<>();
+
+    /**
+     * Fuegt eine Zeile (ohne Zeilenumbruch) hinzu.
+     * Liefert true, wenn die Eingabe jetzt vollstaendig ist (Klammern/Bloecke/Strings/Kommentare balanciert).
+     */
+    public boolean addLine(String line) {
+        lineNo++;
+        if (pending.length() == 0) pendingStartLine = lineNo;
+        pending.append(line).append('\n');
+        scan(line);
+
+        // Zeilenende ausserhalb von String/Char/Block-Kommentar: Text kann isoliert gelext werden
+        if (!inStr && !inChar && !inBlockComment) {
+            lexPending();
+        }
+        return isComplete();
+    }
+
+    public boolean isComplete() {
+        return !inStr && !inChar && !inBlockComment && paren == 0 && brace == 0;
+    }
+
+    /** true, solange noch keine Zeile der aktuellen Eingabe vorliegt. */
+    public boolean isEmpty() {
+        return lineNo == 0;
+    }
+
+    /**
+     * Parst die gesammelten Tokens als Programm und setzt den Zustand zurueck
+     * (auch bei Syntaxfehlern).
+     */
+    public Program takeProgram() {
+        try {
+            lexPending();
+            ListTokenSource source = new ListTokenSource(new ArrayList<>(tokens), "<repl>");
+            return ProgramParser.parse(new CommonTokenStream(source));
+        } finally {
+            reset();
+        }
+    }
+
+    public void reset() {
+        paren = 0;
+        brace = 0;
+        inStr = false;
+        inChar = false;
+        inBlockComment = false;
+        pending.setLength(0);
+        pendingStartLine = 1;
+        lineNo = 0;
+        tokens.clear();
+    }
+
+    // Heuristik fuer Mehrzeilen-Eingaben: Klammern/Bloecke/Strings/Kommentare balancieren
+    private void scan(String s) {
+        int len = s.length();
+
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            char n = (i + 1 < len) ? s.charAt(i + 1) : '\n';
+
+            if (inBlockComment) {
+                if (c == '*' && n == '/') { inBlockComment = false; i++; }
+                continue;
+            }
+
+            if (inStr) {
+                if (c == '\\') { i++; continue; }
+                if (c == '"') inStr = false;
+                continue;
+            }
+            if (inChar) {
+                if (c == '\\') { i++; continue; }
+                if (c == '\'') inChar = false;
+                continue;
+            }
+
+            // Zeilenkommentar / Praeprozessor: Rest der Zeile ignorieren
+            if (c == '/' && n == '/') return;
+            if (c == '/' && n == '*') { inBlockComment = true; i++; continue; }
+            if (c == '#') return;
+
+            if (c == '"') { inStr = true; continue; }
+            if (c == '\'') { inChar = true; continue; }
+
+            if (c == '(') paren++;
+            else if (c == ')') paren--;
+            else if (c == '{') brace++;
+            else if (c == '}') brace--;
+        }
+    }
+
+    private void lexPending() {
+        if (pending.length() == 0) return;
+
+        MiniCppLexer lexer = new MiniCppLexer(CharStreams.fromString(pending.toString(), "<repl>"));
+        lexer.setLine(pendingStartLine);
+        tokens.addAll(lexer.getAllTokens());
+        pending.setLength(0);
+    }
+}
@@ -0,0 +1,184 @@
+package frontend;
+
+import ast.ASTNode;
+import ast.Program;
+import jfr.ParseEvent;
+import org.antlr.v4.runtime.*;
+import parser.MiniCppLexer;
+import parser.MiniCppParser;
+import visitor.ASTBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Laedt Quelldateien, ohne sie mehrfach (byte[], String, Code-Point-Array) im Heap zu halten.
+ * Die Datei wird fensterweise per FileChannel.map eingeblendet und erst beim Lexen
+ * dekodiert (UnbufferedCharStream). Tokens kopieren ihren Text, damit der
+ * Zeichenpuffer nach jedem Token wieder freigegeben werden kann.
+ *
+ * Zwei Modi:
+ * - load():   ganzes Programm parsen (wie bisher, Deklarationen vor Statements registriert).
+ * - stream(): Top-Level-Elemente einzeln parsen und sofort weiterreichen;
+ *             es gilt dann "define-before-use" wie in der REPL.
+ *             #include-Zeilen werden dabei sofort ueber den IncludeResolver eingebunden.
+ *
+ */
+public final class SourceLoader {
+
+    // FileChannel.map ist pro Mapping auf 2 GB begrenzt -> Datei in Fenstern einblenden
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    // Zeichenpuffer des Lexers (waechst nur, solange ein Token ihn markiert)
+    private static final int CHAR_BUFFER = 1 << 16;
+
+    private SourceLoader() {}
+
+    /**
+     * Parst die ganze Datei als Programm.
+     */
+    public static Program load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MiniCppLexer lexer = newLexer(file, ch);
+            return ProgramParser.parse(new CommonTokenStream(lexer));
+        }
+    }
+
+    /**
+     * Parst die Datei Top-Level-Element fuer Top-Level-Element und reicht jedes
+     * fertige AST-Element an sink weiter, bevor das naechste gelesen wird.
+     * Parse-Tree und Tokens eines Elements sind danach nicht mehr erreichbar,
+     * der Speicherbedarf haengt also nur vom groessten Element ab.
+     */
+    public static void stream(Path file, IncludeResolver includes, Consumer<ASTNode> sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            // Deklarationen aus #include-Zeilen, die vor dem naechsten Element ausgeliefert werden
+            List<ASTNode> included = new ArrayList<>();
+            TokenSource source = new DirectiveFilter(newLexer(file, ch), inc -> included.addAll(includes.include(file, List.of(inc))));
+
+            UnbufferedTokenStream<Token> tokens = new UnbufferedTokenStream<>(source);
+            MiniCppParser parser = ProgramParser.newParser(tokens);
+            ASTBuilder builder = new ASTBuilder();
+
+            while (tokens.LA(1) != Token.EOF) {
+                drain(included, sink);
+                ParseEvent parsing = ProgramParser.begin();
+                MiniCppParser.TopLevelContext ctx = parser.topLevel();
+                ProgramParser.commit(parsing, tokens, "parse");
+                ParseEvent building = ProgramParser.begin();
+                ASTNode n = builder.visit(ctx);
+                ProgramParser.commit(building, tokens, "ast");
+                drain(included, sink);
+                sink.accept(n);
+            }
+            drain(included, sink);
+        }
+    }
+
+    private static void drain(List<ASTNode> pending, Consumer<ASTNode> sink) {
+        for (ASTNode n : pending) sink.accept(n);
+        pending.clear();
+    }
+
+    static MiniCppLexer newLexer(Path file, FileChannel ch) {
+        UnbufferedCharStream cs = new UnbufferedCharStream(new MappedInputStream(ch), CHAR_BUFFER, StandardCharsets.UTF_8);
+        cs.name = file.toString();
+
+        MiniCppLexer lexer = new MiniCppLexer(cs);
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        return lexer;
+    }
+
+    /**
+     * Entfernt Hidden-Channel-Tokens (UnbufferedTokenStream filtert keine Channels)
+     * und meldet dabei #include-Angaben.
+     */
+    private static final class DirectiveFilter implements TokenSource {
+
+        private final TokenSource lexer;
+        private final Consumer<String> onInclude;
+
+        DirectiveFilter(TokenSource lexer, Consumer<String> onInclude) {
+            this.lexer = lexer;
+            this.onInclude = onInclude;
+        }
+
+        @Override
+        public Token nextToken() {
+            while (true) {
+                Token t = lexer.nextToken();
+                if (t.getChannel() == Token.DEFAULT_CHANNEL) return t;
+
+                String inc = (t.getType() == MiniCppLexer.PREPROCESSOR) ? IncludeResolver.includeName(t.getText()) : null;
+                if (inc != null) onInclude.accept(inc);
+            }
+        }
+
+        @Override public int getLine() { return lexer.getLine(); }
+        @Override public int getCharPositionInLine() { return lexer.getCharPositionInLine(); }
+        @Override public CharStream getInputStream() { return lexer.getInputStream(); }
+        @Override public String getSourceName() { return lexer.getSourceName(); }
+        @Override public void setTokenFactory(TokenFactory<?> factory) { lexer.setTokenFactory(factory); }
+        @Override public TokenFactory<?> getTokenFactory() { return lexer.getTokenFactory(); }
+    }
+
+    /**
+     * InputStream ueber eine Datei, die fensterweise eingeblendet wird.
+     * Nicht mehr benoetigte Fenster werden vom GC freigegeben.
+     */
+    private static final class MappedInputStream extends InputStream {
+
+        private final FileChannel ch;
+        private final long size;
+        private long windowStart = 0;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel ch) {
+            this.ch = ch;
+            try {
+                this.size = ch.size();
+            } catch (IOException ex) {
+                throw new RuntimeException("Cannot read source size: " + ex.getMessage(), ex);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureWindow()) return -1;
+            return window.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (!ensureWindow()) return -1;
+            int n = Math.min(len, window.remaining());
+            window.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return (window != null) ? window.remaining() : 0;
+        }
+
+        private boolean ensureWindow() throws IOException {
+            if (window != null && window.hasRemaining()) return true;
+            if (window != null) windowStart += window.capacity();
+            if (windowStart >= size) return false;
+
+            long len = Math.min(WINDOW_SIZE, size - windowStart);
+            window = ch.map(FileChannel.MapMode.READ_ONLY, windowStart, len);
+            return true;
+        }
+    }
+}
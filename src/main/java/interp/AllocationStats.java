@@ -0,0 +1,147 @@
+package interp;
+
+import ast.Symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Speicher-Buchhaltung eines ExecutionContext: angelegte Objekte (InstanceValue)
+ * mit geschaetzter Groesse, Anzahl pro Klasse und die maximale Aufruftiefe.
+ *
+ * Die Groesse wird aus dem Feld-Layout geschaetzt (64-Bit-JVM, komprimierte Referenzen):
+ * InstanceValue + SymbolMap mit ihren Arrays + eine Cell pro Feld. Feldwerte selbst
+ * (Integer, String) zaehlen nicht mit, verschachtelte Objekte zaehlen als eigene Objekte.
+ * Gezaehlt wird das angelegte Volumen seit dem letzten reset(), nicht der lebende Heap.
+ *
+ * Pro Objekt kostet das ein paar Additionen und einen Lookup in einer SymbolMap,
+ * pro Aufruf ein Inkrement und einen Vergleich; es ist daher immer eingeschaltet.
+ * Grenzen kommen aus dem ExecutionBudget des Kontexts.
+ *
+ * Tasks (spawn) bekommen eine eigene Statistik (forTask()), ihre Bytes zaehlen aber
+ * in eine gemeinsame Summe mit dem Erzeuger: die Speichergrenze gilt fuer alle
+ * zusammen. Die Aufruftiefe bleibt pro Kontext (jeder Task hat seinen eigenen Stack).
+ *
+ */
+public final class AllocationStats {
+
+    private static final int INSTANCE_BYTES = 24;        // Header + dynamicClass + fieldCells
+    private static final int MAP_BYTES = 32 + 3 * 16;    // SymbolMap + Header von ids/keys/values
+    private static final int FIELD_BYTES = 3 * 4 + 16;   // je ein Slot in ids/keys/values + Cell
+
+    // Grenzen (aus dem Budget; MAX_VALUE = unbegrenzt)
+    long maxBytes = Long.MAX_VALUE;
+    int maxFrames = Integer.MAX_VALUE;
+
+    private long bytes;
+    private long instances;
+    int frames;
+    private int peakFrames;
+
+    // Bytes dieses Kontexts und aller Tasks, die von ihm (auch indirekt) gestartet wurden
+    private final AtomicLong total;
+
+    // Klasse -> {Anzahl, Bytes}
+    private SymbolMap<long[]> perClass = new SymbolMap<>();
+
+    AllocationStats() {
+        this(new AtomicLong());
+    }
+
+    private AllocationStats(AtomicLong total) {
+        this.total = total;
+    }
+
+    // Statistik fuer einen Task dieses Kontexts: gleiche Grenzen, gemeinsame Byte-Summe
+    AllocationStats forTask() {
+        AllocationStats s = new AllocationStats(total);
+        s.maxBytes = maxBytes;
+        s.maxFrames = maxFrames;
+        return s;
+    }
+
+    /** Geschaetzte Bytes seit dem letzten reset(). */
+    public long bytes() { return bytes; }
+
+    /** Angelegte Objekte seit dem letzten reset(). */
+    public long instances() { return instances; }
+
+    /** Groesste Aufruftiefe seit dem letzten reset(). */
+    public int peakFrames() { return peakFrames; }
+
+    /** Angelegte Objekte einer Klasse. */
+    public long instances(Symbol className) {
+        long[] c = perClass.get(className);
+        return (c == null) ? 0 : c[0];
+    }
+
+    static long estimate(int fields) {
+        long b = INSTANCE_BYTES + MAP_BYTES + (long) Math.max(2, fields) * FIELD_BYTES;
+        if (fields > 8) b += 16 + 8L * fields;   // Hash-Index grosser Maps
+        return b;
+    }
+
+    // Ein neues Objekt (Grenze prueft der Kontext: overLimit())
+    void record(InstanceValue iv) {
+        long b = estimate(iv.fieldCells.size());
+        long[] c = perClass.get(iv.dynamicClass);
+        if (c == null) perClass.put(iv.dynamicClass, c = new long[2]);
+        c[0]++;
+        c[1] += b;
+        instances++;
+        bytes += b;
+        total.addAndGet(b);
+    }
+
+    // Grenze gilt fuer die gemeinsame Summe mit Erzeuger und Tasks
+    boolean overLimit() {
+        return total.get() > maxBytes;
+    }
+
+    // Neuer Hoechststand der Aufruftiefe (frames ist schon erhoeht); false bei Ueberschreitung
+    boolean newPeak() {
+        peakFrames = frames;
+        return frames <= maxFrames;
+    }
+
+    /** Setzt die Zaehler zurueck (Beginn einer neuen Ausfuehrung, Tasks sind abgeschlossen). */
+    public void reset() {
+        total.set(0);
+        bytes = 0;
+        instances = 0;
+        frames = 0;
+        peakFrames = 0;
+        perClass = new SymbolMap<>();
+    }
+
+    /** Kurzfassung: die Klassen mit den meisten Objekten. */
+    String summary(int top) {
+        StringBuilder sb = new StringBuilder();
+        for (Symbol s : byCount()) {
+            if (top-- == 0) break;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(s).append(" x").append(perClass.get(s)[0]);
+        }
+        return sb.toString();
+    }
+
+    /** Bericht: Summen, Aufruftiefe und eine Zeile pro Klasse (meiste Objekte zuerst). */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("allocated: ~").append(bytes).append(" bytes in ").append(instances).append(" objects\n");
+        sb.append("peak call depth: ").append(peakFrames).append('\n');
+        for (Symbol s : byCount()) {
+            long[] c = perClass.get(s);
+            sb.append(String.format("  %-20s %10d objects %12d bytes%n", s, c[0], c[1]));
+        }
+        return sb.toString();
+    }
+
+    private List<Symbol> byCount() {
+        List<Symbol> res = new ArrayList<>(perClass.size());
+        for (int i = 0; i < perClass.size(); i++) res.add(perClass.keyAt(i));
+        res.sort((a, b) -> Long.compare(perClass.get(b)[0], perClass.get(a)[0]));
+        return res;
+    }
+}
@@ -0,0 +1,306 @@
+package interp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ausgabe ueber einen eigenen Writer-Thread: der Interpreter legt nur Print-Datensaetze
+ * (Art + Wert) in einen Ringpuffer, Formatieren und Schreiben passieren im Hintergrund.
+ * Interpretation und I/O laufen so ueberlappend.
+ *
+ * - Ringpuffer mit einem Produzenten und einem Konsumenten, ohne Locks: der Produzent
+ *   veroeffentlicht ueber head, der Writer gibt Plaetze ueber tail frei (jeweils lazySet).
+ *   Schreiben mehrere Threads (spawn), reihen sie sich am Monitor der Produzentenseite ein;
+ *   ohne Tasks ist dieser unbestritten.
+ * - Der Writer formatiert in mehrere Direct-Buffer und schreibt sie mit einem
+ *   gesammelten write(ByteBuffer[]) auf den Kanal (FileChannel, stdout, ...).
+ * - Gegendruck: ist der Ring voll, wartet der Produzent, bis der Writer aufgeholt hat.
+ * - flush() wartet, bis alles bisher Ausgegebene geschrieben ist; close() zusaetzlich auf
+ *   das Ende des Writers. Ein Schreibfehler wird beim naechsten flush()/close() (bzw. bei
+ *   vollem Ring) geworfen; der Writer verwirft danach, damit niemand haengen bleibt.
+ *
+ */
+public final class AsyncOutputSink implements OutputSink, AutoCloseable {
+
+    private static final byte INT = 0, CHAR = 1, STRING = 2;
+
+    // Direct-Buffer pro gesammeltem Schreibvorgang
+    private static final int BUFFERS = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Solange wartet der Writer ohne neue Datensaetze, bevor er Teilpuffer schreibt
+    private static final long LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final GatheringByteChannel channel;
+
+    // Ring: Art, Zahlwert bzw. String pro Platz
+    private final int capacity;
+    private final int mask;
+    private final byte[] kinds;
+    private final int[] values;
+    private final String[] strings;
+
+    // Naechster zu schreibender / naechster zu lesender Platz
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Alle Datensaetze vor written sind auf dem Kanal
+    private final AtomicLong written = new AtomicLong();
+
+    // Produzentenseite (unter this): eigene Kopie von head, zuletzt gesehenes tail
+    private long produced;
+    private long cachedTail;
+
+    // Writer-Seite
+    private final Thread writer;
+    private final ByteBuffer[] buffers = new ByteBuffer[BUFFERS];
+    private int current;
+    private final byte[] scratch = new byte[12];
+
+    private volatile boolean writerSleeping;
+    private volatile long flushRequest;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public AsyncOutputSink(GatheringByteChannel channel) {
+        this(channel, 1 << 16);
+    }
+
+    /**
+     * @param capacity Anzahl Datensaetze im Ring (wird auf eine Zweierpotenz aufgerundet)
+     */
+    public AsyncOutputSink(GatheringByteChannel channel, int capacity) {
+        this.channel = channel;
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.kinds = new byte[this.capacity];
+        this.values = new int[this.capacity];
+        this.strings = new String[this.capacity];
+        for (int i = 0; i < BUFFERS; i++) buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        this.writer = new Thread(this::drainLoop, "output-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // --------- Produzent ---------
+
+    @Override
+    public synchronized void println(int v) {
+        int i = claim();
+        kinds[i] = INT;
+        values[i] = v;
+        publish();
+    }
+
+    @Override
+    public synchronized void println(char c) {
+        int i = claim();
+        kinds[i] = CHAR;
+        values[i] = c;
+        publish();
+    }
+
+    @Override
+    public synchronized void println(String s) {
+        int i = claim();
+        kinds[i] = STRING;
+        strings[i] = s;
+        publish();
+    }
+
+    /** Wartet, bis alle bisherigen Ausgaben auf dem Kanal sind. */
+    @Override
+    public void flush() {
+        long target;
+        synchronized (this) {
+            target = produced;
+        }
+        if (written.get() >= target) {
+            checkFailure();
+            return;
+        }
+        flushRequest = target;
+        LockSupport.unpark(writer);
+        while (written.get() < target && failure == null) {
+            LockSupport.parkNanos(10_000);
+        }
+        checkFailure();
+    }
+
+    /** Schreibt alles und beendet den Writer-Thread; weitere Ausgaben sind nicht erlaubt. */
+    @Override
+    public void close() {
+        if (closed) return;
+        try {
+            flush();
+        } finally {
+            closed = true;
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkFailure();
+    }
+
+    // Freien Platz holen; bei vollem Ring warten (Gegendruck)
+    private int claim() {
+        if (closed) throw new IllegalStateException("Output already closed");
+        long h = produced;
+        if (h - cachedTail >= capacity) {
+            cachedTail = tail.get();
+            for (int spins = 0; h - cachedTail >= capacity; spins++) {
+                checkFailure();
+                if (writerSleeping) LockSupport.unpark(writer);
+                // kurz aktiv warten, der Writer gibt meist gleich einen ganzen Block frei
+                if (spins < 256) Thread.onSpinWait();
+                else LockSupport.parkNanos(10_000);
+                cachedTail = tail.get();
+            }
+        }
+        return (int) h & mask;
+    }
+
+    private void publish() {
+        long h = ++produced;
+        head.lazySet(h);
+        // Writer erst wecken, wenn sich das Schreiben lohnt (sonst weckt ihn sein Timeout)
+        if (writerSleeping && h - cachedTail >= capacity >> 1) LockSupport.unpark(writer);
+    }
+
+    private void checkFailure() {
+        IOException ex = failure;
+        if (ex != null) throw new UncheckedIOException("Output failed", ex);
+    }
+
+    // --------- Writer ---------
+
+    private void drainLoop() {
+        long t = 0;
+        long idleSince = 0;
+        while (true) {
+            long h = head.get();
+            if (t < h) {
+                for (; t < h; t++) {
+                    int i = (int) t & mask;
+                    format(i);
+                    strings[i] = null;
+                }
+                tail.lazySet(t);
+                idleSince = 0;
+                continue;
+            }
+
+            // Aufgeholt: Teilpuffer schreiben bei flush(), close() oder nach kurzer Pause
+            boolean pending = current > 0 || buffers[0].position() > 0;
+            long now = System.nanoTime();
+            if (idleSince == 0) idleSince = now;
+            if (pending && (flushRequest > written.get() || closed || now - idleSince >= LINGER_NANOS)) {
+                writeAll(t);
+                continue;
+            }
+            if (!pending && written.get() < t) written.set(t);
+            if (closed && head.get() == t) return;
+
+            writerSleeping = true;
+            if (head.get() == t && !closed && flushRequest <= written.get()) {
+                LockSupport.parkNanos(LINGER_NANOS);
+            }
+            writerSleeping = false;
+        }
+    }
+
+    private void format(int i) {
+        switch (kinds[i]) {
+            case INT -> {
+                int n = formatInt(values[i]);
+                ensure(n + 1).put(scratch, 0, n).put((byte) '\n');
+            }
+            case CHAR -> {
+                char c = (char) values[i];
+                if (c < 0x80) ensure(2).put((byte) c).put((byte) '\n');
+                else putBytes((c + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            default -> {
+                String s = strings[i];
+                if (s.length() < BUFFER_SIZE / 4 && isAscii(s)) {
+                    ByteBuffer b = ensure(s.length() + 1);
+                    for (int k = 0; k < s.length(); k++) b.put((byte) s.charAt(k));
+                    b.put((byte) '\n');
+                } else {
+                    putBytes((s + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    // Puffer mit mind. n freien Bytes (n <= BUFFER_SIZE)
+    private ByteBuffer ensure(int n) {
+        if (buffers[current].remaining() >= n) return buffers[current];
+        if (current == BUFFERS - 1) writeAll(-1);
+        else current++;
+        return buffers[current];
+    }
+
+    private void putBytes(byte[] bytes) {
+        int off = 0;
+        while (off < bytes.length) {
+            ByteBuffer b = buffers[current];
+            if (!b.hasRemaining()) b = ensure(1);
+            int n = Math.min(b.remaining(), bytes.length - off);
+            b.put(bytes, off, n);
+            off += n;
+        }
+    }
+
+    // Gesammelt schreiben; upTo >= 0: danach sind alle Datensaetze vor upTo geschrieben
+    private void writeAll(long upTo) {
+        for (int k = 0; k <= current; k++) buffers[k].flip();
+        try {
+            if (failure == null) {
+                while (buffers[current].hasRemaining()) channel.write(buffers, 0, current + 1);
+            }
+        } catch (IOException ex) {
+            // ab jetzt verwerfen; Produzent bekommt den Fehler bei flush()/close()
+            failure = ex;
+        }
+        for (int k = 0; k <= current; k++) buffers[k].clear();
+        current = 0;
+        if (upTo >= 0) written.set(upTo);
+    }
+
+    private int formatInt(int v) {
+        if (v == Integer.MIN_VALUE) {
+            byte[] m = "-2147483648".getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(m, 0, scratch, 0, m.length);
+            return m.length;
+        }
+        int p = scratch.length;
+        boolean neg = v < 0;
+        if (neg) v = -v;
+        do {
+            scratch[--p] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (neg) scratch[--p] = '-';
+        int n = scratch.length - p;
+        System.arraycopy(scratch, p, scratch, 0, n);
+        return n;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int k = 0; k < s.length(); k++) {
+            if (s.charAt(k) >= 0x80) return false;
+        }
+        return true;
+    }
+}
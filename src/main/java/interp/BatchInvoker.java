@@ -0,0 +1,149 @@
+package interp;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Spaltenweiser Aufruf einer MiniCpp-Funktion ueber viele Eingabezeilen.
+ * Beispiel: score(int, bool) auf int[] und boolean[] mit je einer Million Eintraegen.
+ *
+ * - Die Ueberladung wird einmal beim Erzeugen aufgeloest (anhand der Spaltentypen),
+ *   ueber ein CallHandle.
+ * - apply() teilt die Zeilen in Bereiche auf und verteilt sie auf einen Fork-Join-Pool.
+ * - Jeder Worker-Thread nutzt den Frame des Handles (eigener Kontext mit vorbereitetem
+ *   CallFrame); pro Zeile werden nur die Parameterzellen neu belegt.
+ *
+ * Unterstuetzte Spalten und Ergebnisse: int[], boolean[], char[], String[]
+ * (MiniCpp-Typen int, bool, char, string).
+ *
+ */
+public final class BatchInvoker {
+
+    // Mindestanzahl Zeilen pro Teilaufgabe
+    private static final int MIN_CHUNK = 1024;
+
+    // Spalten- bzw. Ergebnisart
+    private static final int INT = CallHandle.INT, BOOL = CallHandle.BOOL, CHAR = CallHandle.CHAR;
+
+    private final CallHandle handle;
+    private final int[] paramKinds;
+    private final int resultKind;
+
+    /**
+     * @param columnTypes Elementtypen der Spalten: int.class, boolean.class, char.class oder String.class
+     */
+    public BatchInvoker(CompiledProgram program, String functionName, Class<?>... columnTypes) {
+        this.handle = new CallHandle(program, functionName, columnTypes);
+        this.paramKinds = new int[handle.arity()];
+        for (int i = 0; i < paramKinds.length; i++) paramKinds[i] = handle.paramKind(i);
+        this.resultKind = handle.resultKind();
+        if (resultKind == CallHandle.VOID) {
+            throw new IllegalArgumentException("Unsupported return type: void");
+        }
+    }
+
+    /** Wie apply(ForkJoinPool, ...) auf dem Common Pool. */
+    public Object apply(Object... columns) {
+        return apply(ForkJoinPool.commonPool(), columns);
+    }
+
+    /**
+     * Ruft die Funktion fuer jede Zeile auf.
+     * @param columns eine Spalte pro Parameter, alle gleich lang
+     * @return Ergebnisspalte (int[], boolean[], char[] oder String[])
+     */
+    public Object apply(ForkJoinPool pool, Object... columns) {
+        int rows = checkColumns(columns);
+        Object result = switch (resultKind) {
+            case INT -> new int[rows];
+            case BOOL -> new boolean[rows];
+            case CHAR -> new char[rows];
+            default -> new String[rows];
+        };
+
+        int chunk = Math.max(MIN_CHUNK, rows / (pool.getParallelism() * 4));
+        pool.invoke(new Range(columns, result, 0, rows, chunk));
+        return result;
+    }
+
+    // --------- Aufteilung ---------
+
+    private final class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] columns;
+        private final Object result;
+        private final int from, to, chunk;
+
+        Range(Object[] columns, Object result, int from, int to, int chunk) {
+            this.columns = columns;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                run(columns, result, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(columns, result, from, mid, chunk),
+                      new Range(columns, result, mid, to, chunk));
+        }
+    }
+
+    // Auf dem Frame des aktuellen Worker-Threads
+    private void run(Object[] columns, Object result, int from, int to) {
+        CallHandle.Frame frame = handle.frame();
+        Cell[] args = frame.call.args;
+        for (int r = from; r < to; r++) {
+            for (int c = 0; c < args.length; c++) {
+                args[c].set(cell(columns[c], paramKinds[c], r));
+            }
+            store(result, r, frame.run());
+        }
+    }
+
+    private static Object cell(Object column, int kind, int row) {
+        return switch (kind) {
+            case INT -> ((int[]) column)[row];
+            case BOOL -> ((boolean[]) column)[row];
+            case CHAR -> ((char[]) column)[row];
+            default -> ((String[]) column)[row];
+        };
+    }
+
+    private void store(Object result, int row, Object v) {
+        if (v == null) throw new RuntimeException(handle.function().name + " returned no value");
+        switch (resultKind) {
+            case INT -> ((int[]) result)[row] = (Integer) v;
+            case BOOL -> ((boolean[]) result)[row] = (Boolean) v;
+            case CHAR -> ((char[]) result)[row] = (Character) v;
+            default -> ((String[]) result)[row] = (String) v;
+        }
+    }
+
+    private int checkColumns(Object[] columns) {
+        if (columns.length != paramKinds.length) {
+            throw new IllegalArgumentException("Expected " + paramKinds.length + " columns, got " + columns.length);
+        }
+        int rows = -1;
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] == null || kindOf(columns[c].getClass().getComponentType()) != paramKinds[c]) {
+                throw new IllegalArgumentException("Column " + c + " has wrong type");
+            }
+            int len = java.lang.reflect.Array.getLength(columns[c]);
+            if (rows >= 0 && len != rows) throw new IllegalArgumentException("Columns differ in length");
+            rows = len;
+        }
+        if (rows < 0) throw new IllegalArgumentException("Function without parameters needs a row count");
+        return rows;
+    }
+
+    private static int kindOf(Class<?> c) {
+        return CallHandle.kindOf(c);
+    }
+}
@@ -7,7 +7,7 @@ import ast.TypeNode;
  * Verknuepft einen Namen mit einem Typ und einer Speicherzelle.
  *
  */
-public sealed interface Binding permits ValueBinding, RefBinding {
+public sealed interface Binding extends java.io.Serializable permits ValueBinding, RefBinding {
 
     // Der statische Typ der Variable
     TypeNode type();
@@ -0,0 +1,191 @@
+package interp;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Gepufferte Eingabe ueber einen NIO-Kanal (FileChannel, stdin, ...).
+ * Zahlen werden direkt aus den Bytes geparst, ohne String pro Token; Strings und
+ * Zeilen werden erst am Ende aus dem Puffer dekodiert (UTF-8).
+ * Ein Token darf ueber die Puffergrenze gehen: der Puffer wird dann ab Tokenanfang
+ * nach vorne geschoben und, falls noetig, vergroessert.
+ *
+ */
+public final class BufferedInput implements InputSource {
+
+    private static final int DEFAULT_SIZE = 1 << 16;
+
+    private static final class Stdin {
+        static final BufferedInput INSTANCE = new BufferedInput(new FileInputStream(FileDescriptor.in).getChannel());
+    }
+
+    static BufferedInput stdin() {
+        return Stdin.INSTANCE;
+    }
+
+    private final ReadableByteChannel channel;
+    private byte[] buf;
+    private ByteBuffer view;
+    private int pos, limit;
+
+    // Anfang des Tokens, das beim Nachladen erhalten bleiben muss (-1 = keins)
+    private int mark = -1;
+    private boolean atEnd;
+
+    public BufferedInput(ReadableByteChannel channel) {
+        this(channel, DEFAULT_SIZE);
+    }
+
+    public BufferedInput(ReadableByteChannel channel, int size) {
+        this.channel = channel;
+        this.buf = new byte[Math.max(size, 16)];
+        this.view = ByteBuffer.wrap(buf);
+    }
+
+    @Override
+    public synchronized int readInt() {
+        if (!skipWhitespace()) throw new RuntimeException("read_int: end of input");
+
+        boolean neg = false;
+        if (buf[pos] == '-' || buf[pos] == '+') {
+            neg = buf[pos] == '-';
+            pos++;
+        }
+
+        long v = 0;
+        int digits = 0;
+        while (pos < limit || fill()) {
+            int d = buf[pos] - '0';
+            if (d < 0 || d > 9) break;
+            v = v * 10 + d;
+            if (v > 0x8000_0000L) throw new RuntimeException("read_int: number out of range");
+            pos++;
+            digits++;
+        }
+        if (digits == 0) throw new RuntimeException("read_int: expected a number");
+        if (!neg && v > Integer.MAX_VALUE) throw new RuntimeException("read_int: number out of range");
+        return (int) (neg ? -v : v);
+    }
+
+    @Override
+    public synchronized char readChar() {
+        if (!skipWhitespace()) throw new RuntimeException("read_char: end of input");
+        int b = buf[pos] & 0xFF;
+        if (b < 0x80) {
+            pos++;
+            return (char) b;
+        }
+        // Mehrbyte-UTF-8: ganze Sequenz dekodieren
+        int len = (b >= 0xF0) ? 4 : (b >= 0xE0) ? 3 : 2;
+        mark = pos;
+        try {
+            while (limit - mark < len && fill()) { }
+        } finally {
+            pos = mark;
+            mark = -1;
+        }
+        int n = Math.min(len, limit - pos);
+        String s = new String(buf, pos, n, StandardCharsets.UTF_8);
+        pos += n;
+        return (s.length() == 1) ? s.charAt(0) : '?';   // ausserhalb der BMP: kein char
+    }
+
+    @Override
+    public synchronized String readString() {
+        if (!skipWhitespace()) throw new RuntimeException("read_string: end of input");
+        mark = pos;
+        try {
+            while ((pos < limit || fill()) && (buf[pos] & 0xFF) > ' ') pos++;
+            return new String(buf, mark, pos - mark, StandardCharsets.UTF_8);
+        } finally {
+            mark = -1;
+        }
+    }
+
+    @Override
+    public synchronized String readLine() {
+        if (pos >= limit && !fill()) throw new RuntimeException("read_line: end of input");
+        mark = pos;
+        try {
+            while ((pos < limit || fill()) && buf[pos] != '\n') pos++;
+            int end = pos;
+            if (pos < limit) pos++;                                   // '\n' verbrauchen
+            if (end > mark && buf[end - 1] == '\r') end--;
+            return new String(buf, mark, end - mark, StandardCharsets.UTF_8);
+        } finally {
+            mark = -1;
+        }
+    }
+
+    @Override
+    public synchronized boolean eof() {
+        // Leerraum nur ansehen, nicht verbrauchen (read_line braucht ihn noch)
+        mark = pos;
+        try {
+            int i = pos;
+            while (true) {
+                if (i == limit) {
+                    int off = i - mark;
+                    if (!fill()) return true;
+                    i = mark + off;
+                }
+                if ((buf[i] & 0xFF) > ' ') return false;
+                i++;
+            }
+        } finally {
+            mark = -1;
+        }
+    }
+
+    // --------- intern ---------
+
+    private boolean skipWhitespace() {
+        while (pos < limit || fill()) {
+            if ((buf[pos] & 0xFF) > ' ') return true;
+            pos++;
+        }
+        return false;
+    }
+
+    /**
+     * Laedt nach; Bytes ab mark (bzw. pos) bleiben erhalten und wandern an den Anfang.
+     * pos und mark werden entsprechend verschoben. false am Ende der Eingabe.
+     */
+    private boolean fill() {
+        if (atEnd) return false;
+
+        int keep = (mark >= 0) ? mark : pos;
+        if (keep > 0) {
+            System.arraycopy(buf, keep, buf, 0, limit - keep);
+            limit -= keep;
+            pos -= keep;
+            if (mark >= 0) mark -= keep;
+        } else if (limit == buf.length) {
+            // Token fuellt den ganzen Puffer
+            buf = java.util.Arrays.copyOf(buf, buf.length * 2);
+            view = ByteBuffer.wrap(buf);
+        }
+
+        try {
+            while (true) {
+                view.limit(buf.length).position(limit);
+                int n = channel.read(view);
+                if (n < 0) {
+                    atEnd = true;
+                    return false;
+                }
+                if (n > 0) {
+                    limit += n;
+                    return true;
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package interp;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte-gepufferte Ausgabe (UTF-8) auf einen OutputStream.
+ * Ganzzahlen und Zeichen werden direkt in den Puffer kodiert, ASCII-Strings
+ * Zeichen fuer Zeichen kopiert; es gibt keinen Flush pro Zeile.
+ * Geschrieben wird, wenn der Puffer voll ist, bei flush() und (fuer stdout())
+ * beim Beenden der JVM.
+ *
+ */
+public final class BufferedSink implements OutputSink {
+
+    private static final int DEFAULT_SIZE = 1 << 16;
+
+    static final OutputSink DISCARD = new BufferedSink(OutputStream.nullOutputStream(), 64);
+
+    // stdout direkt ueber den File-Deskriptor (an System.out vorbei, ohne dessen Autoflush)
+    private static final class Stdout {
+        static final BufferedSink INSTANCE = new BufferedSink(new FileOutputStream(FileDescriptor.out));
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::flush, "stdout-flush"));
+        }
+    }
+
+    static BufferedSink stdout() {
+        return Stdout.INSTANCE;
+    }
+
+    private final OutputStream target;
+    private final byte[] buf;
+    private int pos;
+
+    public BufferedSink(OutputStream target) {
+        this(target, DEFAULT_SIZE);
+    }
+
+    public BufferedSink(OutputStream target, int size) {
+        this.target = target;
+        this.buf = new byte[Math.max(size, 16)];
+    }
+
+    @Override
+    public synchronized void println(int v) {
+        if (buf.length - pos < 12) drain();   // "-2147483648\n"
+
+        if (v == Integer.MIN_VALUE) {
+            writeAscii("-2147483648");
+        } else {
+            if (v < 0) {
+                buf[pos++] = '-';
+                v = -v;
+            }
+            // Ziffern rueckwaerts an ihre Stelle schreiben
+            int end = pos + digits(v);
+            int p = end;
+            do {
+                buf[--p] = (byte) ('0' + v % 10);
+                v /= 10;
+            } while (v != 0);
+            pos = end;
+        }
+        buf[pos++] = '\n';
+    }
+
+    @Override
+    public synchronized void println(char c) {
+        if (buf.length - pos < 4) drain();
+        if (c < 0x80) {
+            buf[pos++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[pos++] = (byte) (0xC0 | (c >> 6));
+            buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buf[pos++] = '?';   // einzelnes Surrogat ist kein Zeichen
+        } else {
+            buf[pos++] = (byte) (0xE0 | (c >> 12));
+            buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+        buf[pos++] = '\n';
+    }
+
+    @Override
+    public synchronized void println(String s) {
+        writeAscii(s);
+        if (pos == buf.length) drain();
+        buf[pos++] = '\n';
+    }
+
+    @Override
+    public synchronized void flush() {
+        drain();
+        try {
+            target.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Schreibt s; bei Nicht-ASCII wird der Rest als UTF-8 kodiert
+    private void writeAscii(String s) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                writeBytes(s.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (pos == buf.length) drain();
+            buf[pos++] = (byte) c;
+        }
+    }
+
+    private void writeBytes(byte[] b) {
+        if (b.length > buf.length - pos) {
+            drain();
+            if (b.length > buf.length) {
+                write(b, b.length);
+                return;
+            }
+        }
+        System.arraycopy(b, 0, buf, pos, b.length);
+        pos += b.length;
+    }
+
+    private void drain() {
+        if (pos == 0) return;
+        write(buf, pos);
+        pos = 0;
+    }
+
+    private void write(byte[] b, int len) {
+        try {
+            target.write(b, 0, len);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static int digits(int v) {
+        int d = 1;
+        while (v >= 10) {
+            v /= 10;
+            d++;
+        }
+        return d;
+    }
+}
@@ -0,0 +1,52 @@
+package interp;
+
+import ast.Symbol;
+import ast.TypeNode;
+
+import java.util.List;
+
+/**
+ * Die eingebauten Funktionen des Interpreters: Ausgabe ueber den OutputSink,
+ * Eingabe ueber die InputSource des aufrufenden Kontexts.
+ * Jedes Programm startet mit diesen Eintraegen (siehe CompiledProgram.EMPTY).
+ *
+ */
+final class Builtins {
+
+    private Builtins() {}
+
+    private static final TypeNode INT = new ast.IntTypeNode();
+    private static final TypeNode BOOL = new ast.BoolTypeNode();
+    private static final TypeNode CHAR = new ast.CharTypeNode();
+    private static final TypeNode STRING = new ast.StringTypeNode();
+    private static final TypeNode VOID = new ast.ClassTypeNode(Symbol.of("void"));
+
+    static final List<NativeFunction> ALL = List.of(
+            builtin("print_int", VOID, List.of(INT), (ctx, a) -> {
+                ctx.output().println((int) (Integer) a[0]);
+                return null;
+            }),
+            // C++ Style: bool als 1/0
+            builtin("print_bool", VOID, List.of(BOOL), (ctx, a) -> {
+                ctx.output().println((Boolean) a[0] ? 1 : 0);
+                return null;
+            }),
+            builtin("print_char", VOID, List.of(CHAR), (ctx, a) -> {
+                ctx.output().println((char) (Character) a[0]);
+                return null;
+            }),
+            builtin("print_string", VOID, List.of(STRING), (ctx, a) -> {
+                ctx.output().println((String) a[0]);
+                return null;
+            }),
+            builtin("read_int", INT, List.of(), (ctx, a) -> ctx.input().readInt()),
+            builtin("read_char", CHAR, List.of(), (ctx, a) -> ctx.input().readChar()),
+            builtin("read_string", STRING, List.of(), (ctx, a) -> ctx.input().readString()),
+            builtin("read_line", STRING, List.of(), (ctx, a) -> ctx.input().readLine()),
+            builtin("eof", BOOL, List.of(), (ctx, a) -> ctx.input().eof())
+    );
+
+    private static NativeFunction builtin(String name, TypeNode ret, List<TypeNode> params, NativeFunction.Body body) {
+        return new NativeFunction(Symbol.of(name), ret, params, body);
+    }
+}
@@ -0,0 +1,45 @@
+package interp;
+
+import ast.FunctionDecl;
+import ast.Param;
+
+/**
+ * Vorbereiteter, wiederverwendbarer Aufrufrahmen fuer eine Funktion mit
+ * by-value-Parametern: Scope und Parameterzellen werden einmal angelegt,
+ * pro Aufruf werden nur die Zellen neu belegt (siehe ExecutionContext.invoke).
+ * Der Aufrufer schreibt in args; die Parameter des Bodys sind eigene Zellen, die
+ * vor jedem Aufruf aus args gesetzt werden. Zuweisungen an Parameter wirken damit
+ * nicht in den naechsten Aufruf hinein.
+ * Ein Rahmen gehoert zu genau einem Kontext und damit zu einem Thread.
+ *
+ */
+final class CallFrame {
+
+    final FunctionDecl function;
+
+    // Parameter-Scope; der Body bekommt darunter bei jedem Aufruf einen eigenen Block-Scope
+    final SymbolMap<Binding> scope;
+
+    // Argumentwerte in Parameterreihenfolge (vom Aufrufer belegt)
+    final Cell[] args;
+
+    // Parameterzellen im Scope, vor jedem Aufruf aus args belegt
+    final Cell[] params;
+
+    CallFrame(FunctionDecl function) {
+        this.function = function;
+        this.args = new Cell[function.params.size()];
+        this.params = new Cell[args.length];
+        this.scope = new SymbolMap<>(args.length);
+
+        for (int i = 0; i < args.length; i++) {
+            Param p = function.params.get(i);
+            if (p.type instanceof ast.RefTypeNode) {
+                throw new RuntimeException("Reference parameter not supported here: " + p.name);
+            }
+            args[i] = new Cell(null);
+            params[i] = new Cell(null);
+            scope.put(p.name, new ValueBinding(p.type, params[i]));
+        }
+    }
+}
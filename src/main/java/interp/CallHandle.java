@@ -0,0 +1,241 @@
+package interp;
+
+import ast.FunctionDecl;
+import ast.Symbol;
+import ast.TypeNode;
+
+import java.util.List;
+
+/**
+ * Typisierter Einstiegspunkt in eine MiniCpp-Funktion fuer Java-Code, z.B. pro Event:
+ *
+ *   CallHandle score = program.handle("score", int.class, int.class, boolean.class);
+ *   int s = score.frame().setInt(0, a).setInt(1, b).setBool(2, flag).invokeInt();
+ *
+ * - Name, Ueberladung, Parameter- und Ergebnisart werden einmal beim Erzeugen aufgeloest.
+ * - Jeder Thread bekommt beim ersten Aufruf einen eigenen Kontext mit vorbereitetem
+ *   CallFrame; ein Aufruf belegt nur die Parameterzellen neu und fuehrt den Body aus
+ *   (kein Namens-Lookup, keine Ueberladungsaufloesung, kein Argument-Array).
+ * - Parameter behalten ihren Wert bis zum naechsten Setzen (anfangs 0/false/'\0'/"").
+ *
+ * Unterstuetzte Typen wie bei BatchInvoker: int, boolean, char, String
+ * (MiniCpp int, bool, char, string), als Ergebnis zusaetzlich void.
+ * Das Handle ist threadsicher; ein Frame gehoert dem Thread, der ihn geholt hat.
+ *
+ */
+public final class CallHandle {
+
+    // Parameter- bzw. Ergebnisart
+    static final int INT = 0, BOOL = 1, CHAR = 2, STRING = 3, VOID = 4;
+
+    private final CompiledProgram program;
+    private final FunctionDecl function;
+    private final int[] paramKinds;
+    private final int resultKind;
+
+    // Pro Thread ein Kontext + Rahmen (nur fuer dieses Handle)
+    private final ThreadLocal<Frame> frames;
+
+    /**
+     * @param paramTypes int.class, boolean.class, char.class oder String.class pro Parameter
+     */
+    CallHandle(CompiledProgram program, String name, Class<?>... paramTypes) {
+        this.program = program;
+        this.paramKinds = new int[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) paramKinds[i] = kindOf(paramTypes[i]);
+
+        this.function = resolve(Symbol.of(name), paramKinds);
+        this.resultKind = kindOf(function.returnType);
+        this.frames = ThreadLocal.withInitial(Frame::new);
+    }
+
+    public FunctionDecl function() {
+        return function;
+    }
+
+    /**
+     * Der Rahmen des aktuellen Threads. Laeuft der schon (Aufruf aus der Funktion heraus
+     * ueber eine native Funktion), gibt es einen neuen.
+     */
+    public Frame frame() {
+        Frame f = frames.get();
+        return f.busy ? new Frame() : f;
+    }
+
+    /** Bequemer, aber langsamer: Argumente als Objekte (Integer, Boolean, Character, String). */
+    public Object invoke(Object... args) {
+        if (args.length != paramKinds.length) {
+            throw new IllegalArgumentException("Expected " + paramKinds.length + " arguments, got " + args.length);
+        }
+        Frame f = frame();
+        for (int i = 0; i < args.length; i++) {
+            if (kindOfValue(args[i]) != paramKinds[i]) {
+                throw new IllegalArgumentException("Argument " + i + " has wrong type: " + args[i]);
+            }
+            f.call.args[i].set(args[i]);
+        }
+        return f.run();
+    }
+
+    // --------- Rahmen ---------
+
+    /** Vorbereiteter Aufruf eines Threads: Parameter setzen, dann invoke*(). */
+    public final class Frame {
+        private final ExecutionContext ctx;
+        final CallFrame call;
+        private boolean busy;
+
+        private Frame() {
+            this.ctx = new ExecutionContext(program, OutputSink.stdout());
+            this.call = new CallFrame(function);
+            for (int i = 0; i < paramKinds.length; i++) call.args[i].set(defaultValue(paramKinds[i]));
+        }
+
+        public Frame setInt(int index, int value) {
+            cell(index, INT).set(value);
+            return this;
+        }
+
+        public Frame setBool(int index, boolean value) {
+            cell(index, BOOL).set(value);
+            return this;
+        }
+
+        public Frame setChar(int index, char value) {
+            cell(index, CHAR).set(value);
+            return this;
+        }
+
+        public Frame setString(int index, String value) {
+            if (value == null) throw new NullPointerException("string argument " + index);
+            cell(index, STRING).set(value);
+            return this;
+        }
+
+        public int invokeInt() {
+            return (Integer) result(INT);
+        }
+
+        public boolean invokeBool() {
+            return (Boolean) result(BOOL);
+        }
+
+        public char invokeChar() {
+            return (Character) result(CHAR);
+        }
+
+        public String invokeString() {
+            return (String) result(STRING);
+        }
+
+        /** Fuer void-Funktionen bzw. beliebige Ergebnisart (null bei void). */
+        public Object invoke() {
+            return run();
+        }
+
+        /** Ausgaben der Funktion (print_*) gehen nach out statt nach stdout. */
+        public Frame setOutput(OutputSink out) {
+            ctx.setOutput(out);
+            return this;
+        }
+
+        Object run() {
+            busy = true;
+            try {
+                return ctx.invoke(call);
+            } finally {
+                busy = false;
+            }
+        }
+
+        private Cell cell(int index, int kind) {
+            if (paramKinds[index] != kind) {
+                throw new IllegalArgumentException("Parameter " + index + " of " + function.name + " has another type");
+            }
+            return call.args[index];
+        }
+
+        private Object result(int kind) {
+            if (resultKind != kind) {
+                throw new IllegalStateException(function.name + " does not return this type");
+            }
+            Object v = run();
+            if (v == null) throw new RuntimeException(function.name + " returned no value");
+            return v;
+        }
+    }
+
+    // --------- Aufloesung ---------
+
+    int paramKind(int i) {
+        return paramKinds[i];
+    }
+
+    int resultKind() {
+        return resultKind;
+    }
+
+    int arity() {
+        return paramKinds.length;
+    }
+
+    private FunctionDecl resolve(Symbol name, int[] kinds) {
+        List<FunctionDecl> overloads = program.functions(name);
+        if (overloads == null || overloads.isEmpty()) {
+            throw new RuntimeException("Undefined function: " + name);
+        }
+
+        outer:
+        for (FunctionDecl cand : overloads) {
+            if (cand.params.size() != kinds.length) continue;
+            for (int i = 0; i < kinds.length; i++) {
+                if (!Types.sameType(cand.params.get(i).type, typeOf(kinds[i]))) continue outer;
+            }
+            return cand;
+        }
+        throw new RuntimeException("No matching overload for " + name + " with given parameter types");
+    }
+
+    static int kindOf(Class<?> c) {
+        if (c == int.class) return INT;
+        if (c == boolean.class) return BOOL;
+        if (c == char.class) return CHAR;
+        if (c == String.class) return STRING;
+        throw new IllegalArgumentException("Unsupported parameter type: " + c);
+    }
+
+    private static int kindOf(TypeNode t) {
+        if (t instanceof ast.IntTypeNode) return INT;
+        if (t instanceof ast.BoolTypeNode) return BOOL;
+        if (t instanceof ast.CharTypeNode) return CHAR;
+        if (t instanceof ast.StringTypeNode) return STRING;
+        if (t instanceof ast.ClassTypeNode ct && ct.name.name.equals("void")) return VOID;
+        throw new IllegalArgumentException("Unsupported return type: " + t.getClass().getSimpleName());
+    }
+
+    private static int kindOfValue(Object v) {
+        if (v instanceof Integer) return INT;
+        if (v instanceof Boolean) return BOOL;
+        if (v instanceof Character) return CHAR;
+        if (v instanceof String) return STRING;
+        return -1;
+    }
+
+    private static TypeNode typeOf(int kind) {
+        return switch (kind) {
+            case INT -> new ast.IntTypeNode();
+            case BOOL -> new ast.BoolTypeNode();
+            case CHAR -> new ast.CharTypeNode();
+            default -> new ast.StringTypeNode();
+        };
+    }
+
+    private static Object defaultValue(int kind) {
+        return switch (kind) {
+            case INT -> 0;
+            case BOOL -> false;
+            case CHAR -> '\0';
+            default -> "";
+        };
+    }
+}
@@ -6,7 +6,9 @@ package interp;
  * Mehrere Variablen (Bindings) koennen auf dieselbe Cell zeigen (Aliasing durch Referenzen).
  *
  */
-public final class Cell {
+public final class Cell implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // Der Laufzeitwert (Integer, Boolean, InstanceValue, etc.)
     private Object value;
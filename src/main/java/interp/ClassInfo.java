@@ -1,5 +1,6 @@
 package interp;
 
+import ast.Symbol;
 import ast.TypeNode;
 import java.util.*;
 
@@ -8,22 +9,24 @@ import java.util.*;
  * Dient als Blueprint fuer die Erstellung von InstanceValues.
  *
  */
-public final class ClassInfo {
-    public final String name;
+public final class ClassInfo implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+    public final Symbol name;
 
     // Name der Elternklasse (oder null)
-    public final String baseName;
+    public final Symbol baseName;
 
-    // Felder der Klasse (Name -> Typ)
-    public final LinkedHashMap<String, TypeNode> fields = new LinkedHashMap<>();
+    // Felder der Klasse (Name -> Typ), in Deklarationsreihenfolge
+    public final SymbolMap<TypeNode> fields = new SymbolMap<>();
 
     // Methoden der Klasse (Name -> Liste von Ueberladungen)
-    public final Map<String, List<MethodInfo>> methods = new HashMap<>();
+    public final SymbolMap<List<MethodInfo>> methods = new SymbolMap<>();
 
     // Konstruktoren der Klasse
     public final List<CtorInfo> ctors = new ArrayList<>();
 
-    public ClassInfo(String name, String baseName) {
+    public ClassInfo(Symbol name, Symbol baseName) {
         this.name = name;
         this.baseName = baseName;
     }
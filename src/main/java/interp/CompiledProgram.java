@@ -0,0 +1,393 @@
+package interp;
+
+import ast.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Der unveraenderliche Teil eines geladenen Programms:
+ * Funktions- und Klassentabellen sowie die Top-Level-Statements.
+ * Nach dem Erzeugen wird nichts mehr veraendert, ein CompiledProgram kann daher
+ * von beliebig vielen Threads gleichzeitig genutzt werden. Der veraenderliche
+ * Ausfuehrungszustand liegt in ExecutionContext (ein Kontext pro Thread/Request).
+ *
+ * Neue Deklarationen (REPL) erzeugen eine neue Version, bestehende Kontexte sehen
+ * weiterhin ihre. Die Tabellen sind persistent (PersistentTable): eine neue Version
+ * teilt fast alles mit der alten, eine Deklaration kostet daher nicht mehr eine
+ * Kopie aller Tabellen (wichtig fuer --stream und eingefuegte REPL-Bloecke).
+ *
+ * Native Funktionen (Builtins und vom Einbettenden registrierte Java-Funktionen)
+ * gehoeren ebenfalls zur Programmversion. Sie werden nicht serialisiert: ein aus
+ * einem Image geladenes Programm hat wieder nur die Builtins.
+ * Eine MiniCpp-Funktion mit denselben Parametertypen wie eine native Funktion
+ * verdeckt diese, unabhaengig von der Reihenfolge der Registrierung (z.B. ein
+ * eigenes "void print_int(int)"). Andere native Ueberladungen bleiben sichtbar.
+ *
+ */
+public final class CompiledProgram implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Einstiegspunkt
+    private static final Symbol MAIN = Symbol.of("main");
+
+    public static final CompiledProgram EMPTY = new CompiledProgram(PersistentTable.empty(),
+            PersistentTable.empty(), List.of(), PersistentTable.empty(), builtins());
+
+    // Funktionsdefinitionen (Name -> Liste von Ueberladungen)
+    private final transient PersistentTable<List<FunctionDecl>> functions;
+
+    // Klassendefinitionen (Klassenname -> ClassInfo)
+    private final transient PersistentTable<ClassInfo> classes;
+
+    // Top-Level-Statements, die jeder neue Kontext im Session-Scope ausfuehrt
+    final transient List<Statement> statements;
+
+    // Alle Funktions-/Klassendeklarationen in Registrierungsreihenfolge (Position -> Deklaration)
+    private final transient PersistentTable<ASTNode> declarations;
+
+    // Native Funktionen (Name -> Liste von Ueberladungen)
+    private final transient SymbolMap<List<NativeFunction>> natives;
+
+    private CompiledProgram(PersistentTable<List<FunctionDecl>> functions,
+                            PersistentTable<ClassInfo> classes,
+                            List<Statement> statements,
+                            PersistentTable<ASTNode> declarations,
+                            SymbolMap<List<NativeFunction>> natives) {
+        this.functions = functions;
+        this.classes = classes;
+        this.statements = statements;
+        this.declarations = declarations;
+        this.natives = natives;
+    }
+
+    // Serialisiert werden nur Deklarationen und Statements; beim Lesen wird neu
+    // registriert (mit den Builtins als natives)
+    private Object writeReplace() {
+        return new Serialized(declarations(0), statements);
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws java.io.InvalidObjectException {
+        throw new java.io.InvalidObjectException("CompiledProgram is serialized as declarations");
+    }
+
+    private record Serialized(List<ASTNode> declarations, List<Statement> statements)
+            implements java.io.Serializable {
+        private Object readResolve() {
+            Builder b = new Builder(EMPTY);
+            for (ASTNode d : declarations) b.add(d);
+            return b.build(List.copyOf(statements));
+        }
+    }
+
+    private static SymbolMap<List<NativeFunction>> builtins() {
+        SymbolMap<List<NativeFunction>> m = new SymbolMap<>();
+        for (NativeFunction f : Builtins.ALL) m.put(f.name, List.of(f));
+        return m;
+    }
+
+    /**
+     * Registriert alle Klassen/Funktionen des Programms (Pass 1) und merkt sich
+     * die Top-Level-Statements fuer neue Kontexte.
+     */
+    public static CompiledProgram compile(Program p) {
+        return EMPTY.extend(p);
+    }
+
+    /** Neue Version mit den Deklarationen und Statements von p. */
+    public CompiledProgram extend(Program p) {
+        Builder b = new Builder(this);
+        List<Statement> stmts = new ArrayList<>(statements);
+        for (ASTNode decl : p.declarations) {
+            if (decl instanceof Statement s) stmts.add(s);
+            else b.add(decl);
+        }
+        return b.build(List.copyOf(stmts));
+    }
+
+    /** Neue Version mit einer zusaetzlichen Funktion oder Klasse (REPL). */
+    public CompiledProgram withDeclaration(ASTNode decl) {
+        Builder b = new Builder(this);
+        b.add(decl);
+        return b.build(statements);
+    }
+
+    /** Neue Version mit weiteren Funktionen/Klassen (Reihenfolge wie in decls). */
+    public CompiledProgram withDeclarations(List<? extends ASTNode> decls) {
+        if (decls.isEmpty()) return this;
+        Builder b = new Builder(this);
+        for (ASTNode d : decls) b.add(d);
+        return b.build(statements);
+    }
+
+    /**
+     * Neue Version mit einer weiteren nativen Funktion. Eine Ueberladung mit
+     * denselben Parametertypen wie eine bestehende native Funktion ersetzt diese.
+     */
+    public CompiledProgram withNative(NativeFunction f) {
+        SymbolMap<List<NativeFunction>> next = natives.copy();
+        List<NativeFunction> list = new ArrayList<>();
+        List<NativeFunction> old = natives.get(f.name);
+        if (old != null) {
+            for (NativeFunction o : old) {
+                if (!Types.sameTypes(o.paramTypes, f.paramTypes)) list.add(o);
+            }
+        }
+        list.add(f);
+        next.put(f.name, List.copyOf(list));
+        return new CompiledProgram(functions, classes, statements, declarations, next);
+    }
+
+    /**
+     * Die Deklarationen, die diese Version gegenueber base hinzugefuegt hat.
+     * Diese Version muss aus base entstanden sein (extend/withDeclaration).
+     */
+    public List<ASTNode> declarationsSince(CompiledProgram base) {
+        int n = base.declarations.size();
+        if (declarations.size() < n || (n > 0 && declarations.get(n - 1) != base.declarations.get(n - 1))) {
+            throw new IllegalArgumentException("Program was not derived from the given base");
+        }
+        return declarations(n);
+    }
+
+    // Deklarationen ab Position from
+    private List<ASTNode> declarations(int from) {
+        List<ASTNode> res = new ArrayList<>(declarations.size() - from);
+        for (int i = from; i < declarations.size(); i++) res.add(declarations.get(i));
+        return List.copyOf(res);
+    }
+
+    /**
+     * Erzeugt einen frischen Ausfuehrungskontext und fuehrt darin die
+     * Top-Level-Statements des Programms aus (globale Variablen der Session).
+     */
+    public ExecutionContext newContext() {
+        return newContext(OutputSink.stdout());
+    }
+
+    /** Wie newContext(), Ausgaben gehen aber nach out (z.B. pro Request mitgeschnitten). */
+    public ExecutionContext newContext(OutputSink out) {
+        return newContext(out, null);
+    }
+
+    /** Wie newContext(out); das Budget gilt schon fuer die Top-Level-Statements. */
+    public ExecutionContext newContext(OutputSink out, ExecutionBudget budget) {
+        return newContext(out, budget, InputSource.stdin());
+    }
+
+    /**
+     * Wie newContext(out, budget); auch read_* in den Top-Level-Statements liest
+     * schon aus in (z.B. der Eingabe eines Requests statt stdin des Servers).
+     */
+    public ExecutionContext newContext(OutputSink out, ExecutionBudget budget, InputSource in) {
+        ExecutionContext ctx = new ExecutionContext(this, out);
+        ctx.setBudget(budget);
+        ctx.setInput(in);
+        for (Statement s : statements) ctx.execStatement(s);
+        return ctx;
+    }
+
+    /**
+     * Typisiertes, wiederverwendbares Handle auf eine Funktion dieser Version,
+     * z.B. handle("score", int.class, int.class, boolean.class). Siehe CallHandle.
+     */
+    public CallHandle handle(String name, Class<?>... paramTypes) {
+        return new CallHandle(this, name, paramTypes);
+    }
+
+    // --------- Abfragen ---------
+
+    /** Die main()-Funktion oder null, falls keine existiert. */
+    public FunctionDecl main() {
+        List<FunctionDecl> mains = functions.get(MAIN);
+        if (mains == null || mains.isEmpty()) return null;
+        if (mains.size() != 1) throw new RuntimeException("Ambiguous main()");
+        return mains.get(0);
+    }
+
+    public List<FunctionDecl> functions(Symbol name) {
+        return functions.get(name);
+    }
+
+    /**
+     * Ob genau dieser Knoten (Identitaet, nicht Gleichheit) bereits als Funktion
+     * oder Klasse registriert ist, z.B. weil dasselbe kompilierte Skript schon lief.
+     */
+    public boolean declares(ASTNode decl) {
+        if (decl instanceof FunctionDecl f) {
+            List<FunctionDecl> list = functions.get(f.name);
+            if (list != null) for (FunctionDecl g : list) if (g == f) return true;
+            return false;
+        }
+        for (int i = 0; i < declarations.size(); i++) if (declarations.get(i) == decl) return true;
+        return false;
+    }
+
+    public boolean hasFunction(Symbol name) {
+        return functions.containsKey(name) || natives.containsKey(name);
+    }
+
+    /** Native Ueberladungen (inkl. Builtins) ohne die von MiniCpp-Funktionen verdeckten, oder null. */
+    public List<NativeFunction> natives(Symbol name) {
+        List<NativeFunction> all = natives.get(name);
+        List<FunctionDecl> own = functions.get(name);
+        if (all == null || own == null) return all;
+
+        List<NativeFunction> res = new ArrayList<>(all.size());
+        for (NativeFunction nf : all) {
+            boolean shadowed = false;
+            for (FunctionDecl f : own) {
+                if (sameTypes(f.params, nf.paramTypes)) {
+                    shadowed = true;
+                    break;
+                }
+            }
+            if (!shadowed) res.add(nf);
+        }
+        return res.isEmpty() ? null : res;
+    }
+
+    private static boolean sameTypes(List<Param> params, List<TypeNode> types) {
+        if (params.size() != types.size()) return false;
+        for (int i = 0; i < params.size(); i++) {
+            if (!Types.sameType(params.get(i).type, types.get(i))) return false;
+        }
+        return true;
+    }
+
+    public ClassInfo findClass(Symbol name) {
+        return classes.get(name);
+    }
+
+    ClassInfo classInfo(Symbol name) {
+        ClassInfo ci = classes.get(name);
+        if (ci == null) throw new RuntimeException("Unknown class: " + name);
+        return ci;
+    }
+
+    boolean isSubclass(Symbol sub, Symbol base) {
+        if (sub == base) return true;
+        ClassInfo ci = classes.get(sub);
+        if (ci == null || ci.baseName == null) return false;
+        return isSubclass(ci.baseName, base);
+    }
+
+    SymbolMap<TypeNode> collectAllFields(Symbol className) {
+        ClassInfo ci = classInfo(className);
+        var res = new SymbolMap<TypeNode>();
+        if (ci.baseName != null) res.putAll(collectAllFields(ci.baseName));
+        res.putAll(ci.fields);
+        return res;
+    }
+
+    List<MethodInfo> getMethodOverloadsInHierarchy(Symbol className, Symbol methodName) {
+        ClassInfo ci = classInfo(className);
+
+        List<MethodInfo> here = ci.methods.get(methodName);
+        if (here != null && !here.isEmpty()) return here;
+
+        if (ci.baseName != null) return getMethodOverloadsInHierarchy(ci.baseName, methodName);
+        return List.of();
+    }
+
+    MethodInfo resolveOverride(Symbol dynClass, Symbol name, List<Param> params) {
+        ClassInfo ci = classInfo(dynClass);
+
+        List<MethodInfo> overloads = ci.methods.get(name);
+        if (overloads != null) {
+            for (MethodInfo m : overloads) {
+                if (Types.sameParamTypes(m.params, params)) return m;
+            }
+        }
+
+        if (ci.baseName != null) return resolveOverride(ci.baseName, name, params);
+
+        throw new RuntimeException("BUG: override resolution failed for " + name);
+    }
+
+    // --------- Aufbau (copy-on-write) ---------
+
+    private static final class Builder {
+        private PersistentTable<List<FunctionDecl>> functions;
+        private PersistentTable<ClassInfo> classes;
+        private PersistentTable<ASTNode> declarations;
+        private final SymbolMap<List<NativeFunction>> natives;
+
+        // Tabellen sind unveraenderlich: der Builder haelt nur die jeweils neueste Version
+        Builder(CompiledProgram base) {
+            this.natives = base.natives;
+            this.functions = base.functions;
+            this.classes = base.classes;
+            this.declarations = base.declarations;
+        }
+
+        void add(ASTNode decl) {
+            declarations = declarations.append(decl);
+            if (decl instanceof ClassDecl c) {
+                registerClass(c);
+            } else if (decl instanceof FunctionDecl f) {
+                // Ueberladungsliste kopieren: die alte Version bleibt unveraendert
+                List<FunctionDecl> old = functions.get(f.name);
+                List<FunctionDecl> list = (old != null) ? new ArrayList<>(old) : new ArrayList<>(1);
+                list.add(f);
+                functions = functions.with(f.name, List.copyOf(list));
+            } else {
+                throw new RuntimeException("Not a declaration: " + decl.getClass().getSimpleName());
+            }
+        }
+
+        CompiledProgram build(List<Statement> statements) {
+            return new CompiledProgram(functions, classes, statements, declarations, natives);
+        }
+
+        private void registerClass(ClassDecl c) {
+            if (classes.containsKey(c.name)) {
+                throw new RuntimeException("Class redefined: " + c.name);
+            }
+
+            // ClassInfo anlegen
+            ClassInfo ci = new ClassInfo(c.name, c.baseName);
+
+            // Members einsammeln: Felder (VarDeclStmt), Methoden (FunctionDecl), Konstruktoren
+            for (ASTNode m : c.members) {
+                if (m instanceof VarDeclStmt v) {
+                    if (ci.fields.containsKey(v.name))
+                        throw new RuntimeException("Duplicate field: " + v.name);
+                    ci.fields.put(v.name, v.type);
+
+                } else if (m instanceof FunctionDecl f) {
+                    MethodInfo mi = new MethodInfo(
+                            f.name,
+                            f.returnType,
+                            f.params,
+                            f.body,
+                            f.isVirtual,
+                            c.name
+                    );
+                    ci.methods
+                            .computeIfAbsent(f.name, k -> new ArrayList<>())
+                            .add(mi);
+
+                } else if (m instanceof ConstructorDecl cd) {
+                    ci.ctors.add(new CtorInfo(cd.className, cd.params, cd.body));
+
+                } else {
+                    throw new RuntimeException("Unknown class member: "
+                            + m.getClass().getSimpleName());
+                }
+            }
+
+            if (ci.ctors.isEmpty()) {
+                ci.ctors.add(
+                        new CtorInfo(
+                                c.name,
+                                List.of(),
+                                LazyBlock.of(new BlockStmt())
+                        )
+                );
+            }
+            classes = classes.with(c.name, ci);
+        }
+    }
+}
@@ -8,12 +8,14 @@ import java.util.*;
  * Wird verwendet, um bei 'new A(1, 2)' den passenden Konstruktor zu finden.
  *
  */
-public final class CtorInfo {
-    public final String className;
+public final class CtorInfo implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+    public final Symbol className;
     public final List<Param> params;
-    public final BlockStmt body;
+    public final LazyBlock body;
 
-    public CtorInfo(String className, List<Param> params, BlockStmt body) {
+    public CtorInfo(Symbol className, List<Param> params, LazyBlock body) {
         this.className = className;
         this.params = params;
         this.body = body;
@@ -0,0 +1,71 @@
+package interp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lauf wurde durch sein ExecutionBudget beendet (Schrittlimit, Zeitlimit, cancel(),
+ * Speichergrenze oder Aufruftiefe).
+ * Meldet, an welcher Stelle abgebrochen wurde, und die Aufrufkette dorthin
+ * (innerste Funktion zuerst).
+ *
+ */
+public class ExecutionAbortedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason { STEPS, DEADLINE, CANCELLED, MEMORY, FRAMES }
+
+    // Laengere Aufrufketten werden in getMessage() gekuerzt
+    private static final int MAX_FRAMES_SHOWN = 10;
+
+    public final Reason reason;
+
+    // z.B. "while loop" oder "call to fib"
+    private String where;
+
+    // Funktionen, durch die die Exception gelaufen ist (innerste zuerst)
+    private final List<String> frames = new ArrayList<>();
+
+    ExecutionAbortedException(Reason reason, String message) {
+        // Stacktrace des Interpreters sagt nichts ueber das MiniCpp-Programm
+        super(message, null, false, false);
+        this.reason = reason;
+    }
+
+    /** Stelle, an der abgebrochen wurde. */
+    public String where() {
+        return where;
+    }
+
+    /** Aufrufkette (innerste Funktion zuerst); leer = Top-Level. */
+    public List<String> frames() {
+        return List.copyOf(frames);
+    }
+
+    ExecutionAbortedException at(String where) {
+        if (this.where == null) this.where = where;
+        return this;
+    }
+
+    ExecutionAbortedException unwind(Object function) {
+        frames.add(String.valueOf(function));
+        return this;
+    }
+
+    @Override
+    public String getMessage() {
+        StringBuilder sb = new StringBuilder("Execution aborted: ").append(super.getMessage());
+        if (where != null) sb.append(" at ").append(where);
+        if (frames.isEmpty()) {
+            sb.append(" (top level)");
+        } else if (frames.size() <= MAX_FRAMES_SHOWN) {
+            sb.append(" in ").append(String.join(" <- ", frames));
+        } else {
+            // tiefe Rekursion: Anfang und Ende der Kette
+            sb.append(" in ").append(String.join(" <- ", frames.subList(0, MAX_FRAMES_SHOWN - 2)))
+              .append(" <- ... ").append(frames.size() - MAX_FRAMES_SHOWN).append(" more ... <- ")
+              .append(String.join(" <- ", frames.subList(frames.size() - 2, frames.size())));
+        }
+        return sb.toString();
+    }
+}
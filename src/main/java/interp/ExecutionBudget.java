@@ -0,0 +1,104 @@
+package interp;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grenzen fuer einen Lauf: maximale Anzahl Schritte, Zeitlimit und Abbruch von aussen.
+ * Ein Schritt ist ein Schleifendurchlauf (Ruecksprung im while) oder ein Aufruf.
+ * Dazu optional Speichergrenzen, die jeder Kontext fuer sich prueft (AllocationStats):
+ * geschaetzte Bytes angelegter Objekte und maximale Aufruftiefe.
+ *
+ * Der Kontext zaehlt Schritte in einem lokalen Zaehler herunter und holt sich nur alle
+ * CHUNK Schritte ein neues Kontingent (refill). Erst dort werden Zeitlimit und
+ * Abbruch-Flag geprueft; ohne Budget ist die Pruefung ein Dekrement plus Vergleich.
+ * Ein Kontingent ist hoechstens ein SHARES-tel des Rests, damit bei kleinen Limits
+ * nicht ein Kontext alles haelt; ungenutzte Schritte gibt ein Kontext am Ende zurueck
+ * (giveBack).
+ *
+ * Ein Budget kann von mehreren Kontexten geteilt werden (Tasks erben es von ihrem
+ * Erzeuger), cancel() darf von jedem Thread aus aufgerufen werden.
+ *
+ */
+public final class ExecutionBudget {
+
+    // Schritte zwischen zwei Pruefungen von Zeitlimit und Abbruch-Flag
+    static final int CHUNK = 1024;
+
+    // Ein Kontingent ist hoechstens remaining / SHARES (mind. 1 Schritt)
+    private static final int SHARES = 8;
+
+    private final long maxSteps;
+    private final long timeoutMillis;
+    private final long deadline;
+    final long maxBytes;
+    final int maxFrames;
+
+    // Noch nicht vergebene Schritte (Long.MAX_VALUE = unbegrenzt)
+    private final AtomicLong remaining;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Die Zeit laeuft ab dem Erzeugen.
+     * @param maxSteps      max. Schritte, 0 = unbegrenzt
+     * @param timeoutMillis Zeitlimit, 0 = unbegrenzt
+     */
+    public ExecutionBudget(long maxSteps, long timeoutMillis) {
+        this(maxSteps, timeoutMillis, 0, 0);
+    }
+
+    /**
+     * @param maxBytes  max. geschaetzte Bytes angelegter Objekte pro Kontext, 0 = unbegrenzt
+     * @param maxFrames max. Aufruftiefe pro Kontext, 0 = unbegrenzt
+     */
+    public ExecutionBudget(long maxSteps, long timeoutMillis, long maxBytes, int maxFrames) {
+        if (maxSteps < 0 || timeoutMillis < 0 || maxBytes < 0 || maxFrames < 0) {
+            throw new IllegalArgumentException("limits must be >= 0");
+        }
+        this.maxSteps = maxSteps;
+        this.maxBytes = maxBytes;
+        this.maxFrames = maxFrames;
+        this.timeoutMillis = timeoutMillis;
+        this.deadline = System.nanoTime() + java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.remaining = new AtomicLong(maxSteps == 0 ? Long.MAX_VALUE : maxSteps);
+    }
+
+    /** Bricht alle Kontexte mit diesem Budget beim naechsten Safepoint ab. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Neues Kontingent fuer einen Kontext (mind. 1 Schritt).
+     * Wirft ExecutionAbortedException, wenn der Lauf enden muss.
+     */
+    long refill() {
+        if (cancelled) {
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.CANCELLED, "cancelled");
+        }
+        if (timeoutMillis != 0 && System.nanoTime() - deadline >= 0) {
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.DEADLINE,
+                    "time limit of " + timeoutMillis + " ms exceeded");
+        }
+        while (true) {
+            long r = remaining.get();
+            if (r <= 0) {
+                throw new ExecutionAbortedException(ExecutionAbortedException.Reason.STEPS,
+                        "step limit of " + maxSteps + " exceeded");
+            }
+            if (r == Long.MAX_VALUE) return CHUNK;
+            long n = Math.min(CHUNK, Math.max(1, r / SHARES));
+            if (remaining.compareAndSet(r, r - n)) return n;
+        }
+    }
+
+    /** Nicht verbrauchte Schritte eines Kontingents zurueckgeben (Kontext ist fertig). */
+    void giveBack(long unused) {
+        if (unused <= 0) return;
+        remaining.getAndUpdate(r -> (r == Long.MAX_VALUE) ? r : r + unused);
+    }
+}
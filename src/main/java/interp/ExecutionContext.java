@@ -0,0 +1,1568 @@
+package interp;
+
+import ast.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Veraenderlicher Ausfuehrungszustand eines Programms:
+ * Scope-Stack, Session-Scope und aktueller Receiver.
+ * Fuehrt Statements aus und wertet Expressions aus; Funktionen und Klassen
+ * kommen aus dem (unveraenderlichen) CompiledProgram.
+ *
+ * Ein Kontext gehoert immer genau einem Thread. Mehrere Threads fuehren dasselbe
+ * Programm aus, indem jeder seinen eigenen Kontext bekommt (CompiledProgram.newContext()).
+ *
+ */
+public final class ExecutionContext {
+
+    // Namen, die der Interpreter selbst kennt (Builtins stehen als NativeFunction im Programm)
+    private static final Symbol JOIN = Symbol.of("join");
+
+    // Funktionen und Klassen (in der REPL durch neuere Versionen ersetzt)
+    private CompiledProgram program;
+
+    // Scope-Stack: Eine Liste von Maps. Das oberste Element ist der aktuelle Scope.
+    // Map: Variablensymbol -> Binding (Verbindung zu Typ und Speicherzelle)
+    private final Deque<SymbolMap<Binding>> scopes = new ArrayDeque<>();
+
+    private interp.InstanceValue currentReceiver = null;
+
+    // Der "Sitzungs-Scope": Bleibt zwischen REPL-Eingaben erhalten.
+    private final SymbolMap<Binding> sessionRoot;
+
+    // Waehrend Funktions-/Methodenaufrufen: Session nicht sichtbar
+    private boolean hideSessionForCalls = false;
+
+    // Einbettung (siehe setEmbedded): Redeklaration ersetzt Session-Variablen, kein Echo
+    private boolean embedded = false;
+
+    // Ziel fuer print_* und das Echo von Ausdrucks-Statements
+    private OutputSink out;
+
+    // Quelle fuer read_* und eof()
+    private InputSource in = InputSource.stdin();
+
+    // Von diesem Kontext gestartete Tasks; werden spaetestens am Ende von main()
+    // bzw. des Tasks abgewartet (kein Task ueberlebt seinen Erzeuger). Abgeholte und
+    // fehlerfrei beendete Tasks werden beim Spawnen ausgeduennt (siehe spawn).
+    private final java.util.List<TaskValue> spawned = new java.util.ArrayList<>();
+    private int pruneAt = 64;
+
+    // Snapshot des Session-Scopes (siehe takeSnapshot): Anzahl Bindings und
+    // alle erreichbaren Zellen mit ihren Werten
+    private int snapshotSize = -1;
+    private Cell[] snapshotCells;
+    private Object[] snapshotValues;
+
+    // Schritte bis zum naechsten Safepoint-Check (siehe poll); ohne Budget praktisch unendlich
+    private long fuel = Long.MAX_VALUE;
+    private ExecutionBudget budget;
+
+    // Angelegte Objekte und Aufruftiefe (immer aktiv, Grenzen aus dem Budget)
+    private final AllocationStats alloc;
+
+    // Aufzeichnung fuer den Profiler (null = aus, dann nur ein Vergleich pro Aufruf)
+    private Profiler profiler;
+    private Profiler.Recorder prof;
+
+    // Geteilte Zaehler (JMX), null = aus
+    private InterpreterMetrics metrics;
+
+    // Veroeffentlichter Zustand fuer den SamplingProfiler (null = aus)
+    private SamplingProfiler sampler;
+    private ShadowStack shadow;
+
+
+    ExecutionContext(CompiledProgram program, OutputSink out) {
+        this(program, out, new SymbolMap<>());
+    }
+
+    // Mit vorhandenem Session-Scope (z.B. aus einem Image)
+    ExecutionContext(CompiledProgram program, OutputSink out, SymbolMap<Binding> sessionRoot) {
+        this(program, out, sessionRoot, new AllocationStats());
+    }
+
+    // Task-Kontext: Speicher zaehlt zusammen mit dem Erzeuger (siehe spawn)
+    private ExecutionContext(CompiledProgram program, OutputSink out, SymbolMap<Binding> sessionRoot, AllocationStats alloc) {
+        this.program = program;
+        this.out = out;
+        this.sessionRoot = sessionRoot;
+        this.alloc = alloc;
+
+        // Session-Scope ist der unterste Scope
+        scopes.push(sessionRoot);
+    }
+
+    // --------- Public API ---------
+
+    public CompiledProgram program() {
+        return program;
+    }
+
+    // Neue Programmversion (REPL-Deklarationen); Session-Scope bleibt erhalten
+    void useProgram(CompiledProgram program) {
+        this.program = program;
+    }
+
+    // Session-Scope (fuer Images)
+    SymbolMap<Binding> session() {
+        if (!spawned.isEmpty()) awaitSpawned();
+        return sessionRoot;
+    }
+
+    /** Leitet die Ausgabe um (z.B. pro Request eines gepoolten Kontexts). */
+    public void setOutput(OutputSink out) {
+        this.out = (metrics == null) ? out : metrics.counting(out);
+    }
+
+    public OutputSink output() {
+        return out;
+    }
+
+    /** Setzt die Quelle fuer read_* und eof(); von hier gestartete Tasks erben sie. */
+    public void setInput(InputSource in) {
+        this.in = in;
+    }
+
+    public InputSource input() {
+        return in;
+    }
+
+    /**
+     * Setzt das Budget fuer alle folgenden Ausfuehrungen (null = unbegrenzt).
+     * Von hier gestartete Tasks erben es.
+     */
+    public void setBudget(ExecutionBudget budget) {
+        this.budget = budget;
+        this.fuel = (budget == null) ? Long.MAX_VALUE : 1;
+        alloc.maxBytes = (budget == null || budget.maxBytes == 0) ? Long.MAX_VALUE : budget.maxBytes;
+        alloc.maxFrames = (budget == null || budget.maxFrames == 0) ? Integer.MAX_VALUE : budget.maxFrames;
+    }
+
+    public ExecutionBudget budget() {
+        return budget;
+    }
+
+    /**
+     * Schaltet das Profiling ein (null = aus). Jeder Kontext zeichnet getrennt auf,
+     * von hier gestartete Tasks erben den Profiler.
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+        this.prof = (profiler == null) ? null : profiler.newRecorder();
+    }
+
+    public Profiler profiler() {
+        return profiler;
+    }
+
+    /**
+     * Meldet den Kontext beim SamplingProfiler an (null = abmelden). Der Interpreter
+     * veroeffentlicht dann aktuelles Statement und Aufrufstack; von hier gestartete
+     * Tasks werden ebenfalls angemeldet.
+     */
+    public void setSampler(SamplingProfiler sampler) {
+        if (this.sampler != null) this.sampler.unregister(shadow);
+        this.sampler = sampler;
+        this.shadow = (sampler == null) ? null : sampler.register();
+    }
+
+    public SamplingProfiler sampler() {
+        return sampler;
+    }
+
+    /**
+     * Zaehlt Statements, Aufrufe, Objekte, Ausgabe usw. in metrics (null = aus).
+     * Mehrere Kontexte duerfen sich eine Instanz teilen; von hier gestartete Tasks erben sie.
+     */
+    public void setMetrics(InterpreterMetrics metrics) {
+        this.metrics = metrics;
+        OutputSink raw = InterpreterMetrics.unwrap(out);
+        this.out = (metrics == null) ? raw : metrics.counting(raw);
+    }
+
+    public InterpreterMetrics metrics() {
+        return metrics;
+    }
+
+    /** Speicher-Buchhaltung dieses Kontexts. */
+    public AllocationStats allocations() {
+        return alloc;
+    }
+
+    /**
+     * Fuehrt ein Top-Level-Statement im Session-Scope aus.
+     */
+    public Object execStatement(ast.Statement s) {
+        try {
+            return exec(s);
+        } finally {
+            if (shadow != null) shadow.at(null);
+        }
+    }
+
+    /**
+     * Fuehrt main() aus, falls vorhanden. Wenn keine main() existiert -> null.
+     * main() laeuft im Session-Scope und der Scope bleibt offen.
+     */
+    public Object runMain() {
+        ast.FunctionDecl main = program.main();
+        if (main == null) return null;
+
+        jfr.CallEvent callEvent = enterCall(main);
+        InterpreterMetrics m = metrics;
+        long start = (m != null) ? System.nanoTime() : 0;
+        try {
+            return execBlockInCurrentScope(main.body.get());
+        } catch (interp.ReturnValue rv) {
+            return rv.value;
+        } catch (ExecutionAbortedException ex) {
+            throw ex.unwind(main.name);
+        } finally {
+            exitCall(callEvent);
+            releaseFuel();
+            try {
+                awaitSpawned();
+            } finally {
+                if (m != null) m.recordRun(System.nanoTime() - start);
+            }
+        }
+    }
+
+
+    /**
+     * Ruft eine Funktion (MiniCpp oder nativ) mit Java-Werten auf, wie ein Aufruf
+     * aus dem Session-Scope. Die Ueberladung wird anhand der Laufzeittypen der Argumente
+     * gewaehlt (Integer, Boolean, Character, String, Objekte); Referenzparameter sind
+     * hier nicht moeglich. Von der Funktion gestartete Tasks werden abgewartet.
+     */
+    public Object call(String name, Object... args) {
+        Symbol sym = Symbol.of(name);
+        Object target = resolveByValues(sym, args);
+        try {
+            if (target instanceof NativeFunction nf) return callNative(nf, args.clone());
+
+            ast.FunctionDecl f = (ast.FunctionDecl) target;
+            poll(f);
+            enterFrame(f);
+            jfr.CallEvent callEvent = enterCall(f);
+            boolean prevHide = hideSessionForCalls;
+            hideSessionForCalls = true;
+            pushScope(new SymbolMap<>());
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    ast.Param p = f.params.get(i);
+                    Object v = (args[i] instanceof interp.InstanceValue iv) ? copy(iv) : args[i];
+                    define(p.name, new ValueBinding(p.type, new Cell(v)));
+                }
+                exec(f.body.get());
+                return null;
+            } catch (interp.ReturnValue rv) {
+                return rv.value;
+            } catch (ExecutionAbortedException ex) {
+                throw ex.unwind(f.name);
+            } finally {
+                alloc.frames--;
+                exitCall(callEvent);
+                scopes.pop();
+                hideSessionForCalls = prevHide;
+            }
+        } finally {
+            if (scopes.size() == 1) awaitSpawned();
+        }
+    }
+
+    // Ueberladung fuer call(): Arity + Laufzeittypen, genau ein Treffer
+    private Object resolveByValues(Symbol name, Object[] args) {
+        java.util.List<Object> matches = new java.util.ArrayList<>();
+        java.util.List<ast.FunctionDecl> overloads = program.functions(name);
+        if (overloads != null) {
+            for (ast.FunctionDecl f : overloads) {
+                if (f.params.size() != args.length) continue;
+                boolean ok = true;
+                for (int i = 0; i < args.length && ok; i++) {
+                    ok = valueFits(f.params.get(i).type, args[i]);
+                }
+                if (ok) matches.add(f);
+            }
+        }
+        java.util.List<NativeFunction> natives = program.natives(name);
+        if (natives != null) {
+            for (NativeFunction nf : natives) {
+                if (nf.paramTypes.size() != args.length) continue;
+                boolean ok = true;
+                for (int i = 0; i < args.length && ok; i++) ok = valueFits(nf.paramTypes.get(i), args[i]);
+                if (ok) matches.add(nf);
+            }
+        }
+
+        if (matches.isEmpty()) {
+            if (overloads == null && natives == null) throw new RuntimeException("Undefined function: " + name);
+            throw new RuntimeException("No matching overload for " + name + " with given argument types");
+        }
+        if (matches.size() > 1) {
+            throw new RuntimeException("Ambiguous overload for " + name + " with given argument types");
+        }
+        return matches.get(0);
+    }
+
+    // Passt ein Laufzeitwert zu einem (by-value) Parametertyp?
+    private boolean valueFits(ast.TypeNode t, Object v) {
+        if (t instanceof ast.RefTypeNode) return false;
+        if (t instanceof ast.ClassTypeNode ct) {
+            return v instanceof interp.InstanceValue iv && program.isSubclass(iv.dynamicClass, ct.name);
+        }
+        return Types.sameType(t, typeOfValue(v));
+    }
+
+    private static String javaType(Object v) {
+        return (v == null) ? "null" : v.getClass().getName();
+    }
+
+    // --------- Globale Variablen (Session-Scope), z.B. fuer javax.script ---------
+
+    /**
+     * Einbettungs-Modus (javax.script): eine Top-Level-Deklaration ersetzt eine gleichnamige
+     * Session-Variable, statt einen Fehler zu melden (dasselbe Skript darf mehrfach laufen),
+     * und Ausdrucks-Statements werden nicht ausgegeben (ihr Wert ist das Ergebnis).
+     * Die REPL bleibt bei den strengen Regeln.
+     */
+    public void setEmbedded(boolean embedded) {
+        this.embedded = embedded;
+    }
+
+    /** Namen aller Session-Variablen in Definitionsreihenfolge. */
+    public java.util.List<String> globalNames() {
+        java.util.List<String> names = new java.util.ArrayList<>(sessionRoot.size());
+        for (int i = 0; i < sessionRoot.size(); i++) names.add(sessionRoot.keyAt(i).name);
+        return names;
+    }
+
+    public boolean hasGlobal(String name) {
+        return sessionRoot.containsKey(Symbol.of(name));
+    }
+
+    /** Wert einer Session-Variablen oder null, falls es sie nicht gibt. */
+    public Object getGlobal(String name) {
+        Binding b = sessionRoot.get(Symbol.of(name));
+        return (b != null) ? b.cell().get() : null;
+    }
+
+    /**
+     * Setzt eine Session-Variable. Gibt es sie schon, muss der Wert zu ihrem Typ passen;
+     * sonst wird sie mit dem Typ des Werts angelegt (int, bool, char, string oder Klasse).
+     * Objekte werden wie bei einer Zuweisung kopiert.
+     */
+    public void setGlobal(String name, Object value) {
+        Symbol sym = Symbol.of(name);
+        if (value instanceof interp.InstanceValue iv) value = copy(iv);
+
+        Binding b = sessionRoot.get(sym);
+        if (b != null) {
+            ast.TypeNode t = (b.type() instanceof ast.RefTypeNode rt) ? rt.base : b.type();
+            if (!valueFits(t, value)) {
+                throw new RuntimeException("Type mismatch for variable " + name + ": " + javaType(value));
+            }
+            b.cell().set(value);
+            return;
+        }
+
+        ast.TypeNode t = (value instanceof interp.InstanceValue iv)
+                ? new ast.ClassTypeNode(iv.dynamicClass)
+                : typeOfValue(value);
+        if (t == null) throw new RuntimeException("Unsupported value for variable " + name + ": " + javaType(value));
+        sessionRoot.put(sym, new ValueBinding(t, new Cell(value)));
+    }
+
+    // --------- Snapshot / Reset (InterpreterPool) ---------
+
+    /**
+     * Merkt sich den aktuellen Session-Scope: welche Bindings es gibt und welchen Wert
+     * jede von dort erreichbare Zelle hat (auch Felder von Objekten).
+     */
+    void takeSnapshot() {
+        java.util.Set<Object> seen = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        java.util.List<Cell> cells = new java.util.ArrayList<>();
+        for (int i = 0; i < sessionRoot.size(); i++) {
+            collectCells(sessionRoot.valueAt(i).cell(), seen, cells);
+        }
+
+        snapshotSize = sessionRoot.size();
+        snapshotCells = cells.toArray(new Cell[0]);
+        snapshotValues = new Object[snapshotCells.length];
+        for (int i = 0; i < snapshotCells.length; i++) snapshotValues[i] = snapshotCells[i].get();
+    }
+
+    private static void collectCells(Cell c, java.util.Set<Object> seen, java.util.List<Cell> out) {
+        if (!seen.add(c)) return;
+        out.add(c);
+        if (c.get() instanceof interp.InstanceValue iv && seen.add(iv)) {
+            for (int i = 0; i < iv.fieldCells.size(); i++) collectCells(iv.fieldCells.valueAt(i), seen, out);
+        }
+    }
+
+    /**
+     * Setzt den Kontext auf den Snapshot zurueck: spaeter definierte Session-Variablen
+     * verschwinden, alle erfassten Zellen bekommen ihren alten Wert. Da Zellen und
+     * Objekte dieselben bleiben, bleiben Referenzen (Aliasing) erhalten.
+     */
+    void resetToSnapshot() {
+        if (snapshotSize < 0) throw new IllegalStateException("No snapshot taken");
+
+        try {
+            awaitSpawned();
+        } catch (RuntimeException ex) {
+            // Fehler eines nicht abgeholten Tasks gehoeren zum vorherigen Aufruf
+        }
+
+        while (scopes.size() > 1) scopes.pop();
+        currentReceiver = null;
+        hideSessionForCalls = false;
+
+        sessionRoot.truncate(snapshotSize);
+        for (int i = 0; i < snapshotCells.length; i++) snapshotCells[i].set(snapshotValues[i]);
+        alloc.reset();
+    }
+
+    // --------- Scope helpers (NEU) ---------
+
+    private void define(Symbol name, Binding binding) {
+        if (embedded && scopes.peek() == sessionRoot) {
+            sessionRoot.put(name, binding);
+            return;
+        }
+        if (scopes.peek().containsKey(name)) {
+            throw new RuntimeException("Redefinition in same scope: " + name);
+        }
+        scopes.peek().put(name, binding);
+    }
+
+    private Binding lookupBinding(Symbol name) {
+        for (SymbolMap<Binding> scope : scopes) {
+            // Wenn wir in einem Call sind: Session-Scope NICHT durchsuchen
+            if (hideSessionForCalls && scope == sessionRoot) break;
+
+            Binding b = scope.get(name);
+            if (b != null) return b;
+        }
+
+        // Wenn wir gerade in einer Methode sind: unqualifizierte Namen duerfen Felder sein
+        if (currentReceiver != null) {
+            Cell c = currentReceiver.fieldCells.get(name);
+            if (c != null) {
+                ClassInfo ci = program.findClass(currentReceiver.dynamicClass);
+                ast.TypeNode ft = (ci != null) ? ci.fields.get(name) : null;
+                if (ft == null) ft = new ast.IntTypeNode(); // Fallback
+                return new RefBinding(ft, c);
+            }
+        }
+
+        throw new RuntimeException("Undefined variable: " + name);
+    }
+
+    private Object lookupValue(Symbol name) {
+        return lookupBinding(name).cell().get();
+    }
+
+    private void assign(Symbol name, Object value) {
+        lookupBinding(name).cell().set(value);
+    }
+
+    // --------- LValue helper ---------
+
+    private Cell evalLValue(Expr e) {
+        if (e == null) {
+            throw new RuntimeException("BUG: evalLValue got null Expr (ASTBuilder created null)");
+        }
+        if (e instanceof VarExpr v) {
+            return lookupBinding(v.name).cell();
+        }
+        if (e instanceof ast.FieldAccessExpr fa) {
+            Object ov = eval(fa.obj);
+            if (!(ov instanceof interp.InstanceValue inst)) {
+                throw new RuntimeException("Field access on non-object");
+            }
+            Cell c = inst.fieldCells.get(fa.field);
+            if (c == null) throw new RuntimeException("Unknown field: " + fa.field);
+            return c;
+        }
+        throw new RuntimeException("Not an lvalue: " + e.getClass().getSimpleName());
+    }
+
+    private boolean isCallThroughRef(ast.Expr recv) {
+        if (recv instanceof ast.VarExpr v) {
+            return lookupBinding(v.name).type() instanceof ast.RefTypeNode;
+        }
+        return false;
+    }
+
+    private interp.InstanceValue sliceTo(Symbol base, interp.InstanceValue inst) {
+        if (metrics != null) metrics.copied.increment();
+        jfr.CopyEvent ev = jfr.CopyEvent.PROBE.isEnabled() ? new jfr.CopyEvent() : null;
+        if (ev != null) ev.begin();
+
+        var fieldTypes = program.collectAllFields(base);
+        var cells = new SymbolMap<Cell>(fieldTypes.size());
+
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            Symbol fname = fieldTypes.keyAt(i);
+            ast.TypeNode ftype = fieldTypes.valueAt(i);
+            Cell src = inst.fieldCells.get(fname);
+            Object v = (src != null) ? src.get() : defaultValue(ftype);
+            cells.put(fname, new Cell(v));
+        }
+        interp.InstanceValue res = allocated(new interp.InstanceValue(base, cells));
+
+        if (ev != null) {
+            ev.end();
+            if (ev.shouldCommit()) {
+                ev.className = inst.dynamicClass.name;
+                ev.targetClass = base.name;
+                ev.kind = "slice";
+                ev.commit();
+            }
+        }
+        return res;
+    }
+
+    private Object execBlockInCurrentScope(ast.BlockStmt b) {
+        Object last = null;
+        for (ast.Statement s : b.statements) {
+            last = exec(s);
+        }
+        return last;
+    }
+
+    /**
+     * Aufgeloestes Ziel einer Aufrufstelle fuer eine Programmversion (siehe callSite).
+     * argTypes: bei Ueberladungen die Argumenttypen der Aufloesung, falls sie von
+     * Laufzeit-Bindungen abhaengen (sonst null); weichen sie ab, wird neu aufgeloest.
+     * checkValues: Ziel ohne bekannte Typen aller Argumente gewaehlt, Werte beim Aufruf pruefen.
+     */
+    private record CallSite(CompiledProgram program, Object target, ast.TypeNode[] argTypes, boolean checkValues) {}
+
+    private Object callTarget(ast.FunctionCallExpr fc) {
+        return callSite(fc).target;
+    }
+
+    /**
+     * Ziel eines Aufrufs f(args): FunctionDecl, NativeFunction oder ClassInfo (Konstruktor).
+     * Wird pro Aufrufstelle und Programmversion einmal aufgeloest und am Knoten gemerkt;
+     * Kontexte mit einer anderen Version loesen neu auf (und ersetzen den Eintrag).
+     * Bei Ueberladungen mit Variablen als Argumenten gilt der Eintrag nur, solange
+     * die Argumenttypen gleich bleiben (dieselbe Stelle, z.B. in einem CompiledScript,
+     * kann mit anders typisierten Bindungen laufen).
+     */
+    private CallSite callSite(ast.FunctionCallExpr fc) {
+        if (fc.callSite instanceof CallSite cs && cs.program == program
+                && (cs.argTypes == null || sameArgTypes(fc, cs.argTypes))) {
+            if (metrics != null) metrics.siteHits.increment();
+            return cs;
+        }
+        if (metrics != null) metrics.siteMisses.increment();
+
+        // nur beim ersten Aufruf pro Stelle, daher immer gemessen
+        long start = (prof != null) ? System.nanoTime() : 0;
+        jfr.ResolutionMissEvent ev = jfr.ResolutionMissEvent.PROBE.isEnabled() ? new jfr.ResolutionMissEvent() : null;
+        if (ev != null) ev.begin();
+
+        CallSite site;
+        if (!program.hasFunction(fc.name) && program.findClass(fc.name) != null) {
+            site = new CallSite(program, program.classInfo(fc.name), null, false);
+        } else {
+            site = resolveCall(fc);
+        }
+        fc.callSite = site;
+        Object target = site.target;
+
+        if (prof != null) prof.resolved(fc, start);
+        if (ev != null) {
+            ev.end();
+            if (ev.shouldCommit()) {
+                ev.callee = fc.name.name;
+                ev.arguments = fc.args.size();
+                ev.target = (target instanceof ClassInfo) ? fc.name + "::" + fc.name : Profiler.name(target);
+                ev.commit();
+            }
+        }
+        return site;
+    }
+
+    private boolean sameArgTypes(ast.FunctionCallExpr fc, ast.TypeNode[] argTypes) {
+        for (int i = 0; i < argTypes.length; i++) {
+            ast.TypeNode t = inferType(fc.args.get(i));
+            if (t == null || argTypes[i] == null || !Types.sameType(t, argTypes[i])) return false;
+        }
+        return true;
+    }
+
+    // Typ haengt nicht von Bindungen ab (Literale, arithmetische/logische Ausdruecke)
+    private static boolean fixedType(ast.Expr e) {
+        if (e instanceof IntLiteral || e instanceof ast.BoolLiteral
+                || e instanceof ast.CharLiteral || e instanceof ast.StringLiteral) return true;
+        return e instanceof ast.BinaryExpr be && !be.op.equals("=");
+    }
+
+    /**
+     * Ueberladungsaufloesung fuer einen Funktionsaufruf ueber MiniCpp- und native
+     * Funktionen: Arity, Argumenttypen, lvalue-Pruefung fuer Referenzparameter.
+     * Genau ein Treffer, sonst Fehler. Bei nur einem Kandidaten darf ein Argumenttyp
+     * unbekannt sein; die Werte werden dann beim Aufruf geprueft (checkValues).
+     */
+    private CallSite resolveCall(ast.FunctionCallExpr fc) {
+        java.util.List<ast.FunctionDecl> overloads = program.functions(fc.name);
+        java.util.List<NativeFunction> natives = program.natives(fc.name);
+        if ((overloads == null || overloads.isEmpty()) && natives == null) {
+            throw new RuntimeException("Undefined function: " + fc.name);
+        }
+
+        // Kandidaten gleicher Arity mit ihren Parametertypen
+        java.util.List<Object> candidates = new java.util.ArrayList<>();
+        java.util.List<java.util.List<ast.TypeNode>> candidateParams = new java.util.ArrayList<>();
+        if (overloads != null) {
+            for (ast.FunctionDecl cand : overloads) {
+                if (cand.params.size() != fc.args.size()) continue;
+                java.util.List<ast.TypeNode> pts = new java.util.ArrayList<>(cand.params.size());
+                for (ast.Param p : cand.params) pts.add(p.type);
+                candidates.add(cand);
+                candidateParams.add(pts);
+            }
+        }
+        if (natives != null) {
+            for (NativeFunction nf : natives) {
+                if (nf.paramTypes.size() != fc.args.size()) continue;
+                candidates.add(nf);
+                candidateParams.add(nf.paramTypes);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            throw new RuntimeException("No matching overload for " + fc.name +
+                    " with " + fc.args.size() + " args");
+        }
+
+        // Argument-Typen bestimmen
+        java.util.List<ast.TypeNode> argTypes = new java.util.ArrayList<>();
+        for (ast.Expr arg : fc.args) {
+            ast.TypeNode t = inferType(arg);
+            if (t == null && candidates.size() > 1) {
+                throw new RuntimeException("Cannot infer type of argument in call to " + fc.name);
+            }
+            argTypes.add(t);
+        }
+
+        // Kandidaten nach Param-Typen filtern
+        java.util.List<Object> typedMatches = new java.util.ArrayList<>();
+        for (int c = 0; c < candidates.size(); c++) {
+            java.util.List<ast.TypeNode> params = candidateParams.get(c);
+            boolean ok = true;
+            for (int i = 0; i < params.size(); i++) {
+                ast.TypeNode paramType = params.get(i);
+                ast.TypeNode argType = argTypes.get(i);
+
+                if (paramType instanceof RefTypeNode rt) {
+
+                    // 1) Basistyp muss passen (int& akzeptiert int)
+                    if (argType != null && !Types.sameType(rt.base, argType)) {
+                        ok = false;
+                        break;
+                    }
+
+                    // 2) Argument MUSS lvalue sein
+                    try {
+                        evalLValue(fc.args.get(i));
+                    } catch (RuntimeException ex) {
+                        ok = false;
+                        break;
+                    }
+                } else {
+
+                    // normaler by-value Parameter
+                    if (argType != null && !Types.sameType(paramType, argType)) {
+                        ok = false;
+                        break;
+                    }
+                }
+            }
+
+            if (ok) typedMatches.add(candidates.get(c));
+        }
+
+        if (typedMatches.isEmpty()) {
+            throw new RuntimeException("No matching overload for " + fc.name + " with given argument types");
+        }
+        if (typedMatches.size() > 1) {
+            throw new RuntimeException("Ambiguous overload for " + fc.name + " with given argument types");
+        }
+
+        ast.TypeNode[] recheck = null;
+        if (candidates.size() > 1) {
+            for (ast.Expr arg : fc.args) {
+                if (!fixedType(arg)) {
+                    recheck = argTypes.toArray(new ast.TypeNode[0]);
+                    break;
+                }
+            }
+        }
+        return new CallSite(program, typedMatches.get(0), recheck, argTypes.contains(null));
+    }
+
+    // Argumentwerte gegen die Parametertypen pruefen (Ziel ohne bekannte Argumenttypen gewaehlt)
+    private void checkArgValues(Symbol name, java.util.List<ast.TypeNode> paramTypes, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            ast.TypeNode t = paramTypes.get(i);
+            if (t instanceof RefTypeNode rt) t = rt.base;
+            if (!valueFits(t, values[i])) {
+                throw new RuntimeException("No matching overload for " + name + " with given argument types");
+            }
+        }
+    }
+
+    /**
+     * spawn f(args): Argumente hier auswerten und tief kopieren, den Aufruf dann
+     * in einem neuen Kontext als Task starten. Referenzparameter wuerden eine Cell
+     * zwischen zwei Threads teilen und sind deshalb verboten.
+     */
+    private TaskValue spawn(ast.SpawnExpr se) {
+        CallSite site = callSite(se.call);
+        if (!(site.target instanceof ast.FunctionDecl f)) {
+            throw new RuntimeException("spawn " + se.call.name + ": not a MiniCpp function");
+        }
+
+        Object[] args = new Object[f.params.size()];
+        for (int i = 0; i < args.length; i++) {
+            ast.Param p = f.params.get(i);
+            if (p.type instanceof ast.RefTypeNode) {
+                throw new RuntimeException("spawn " + f.name + ": reference parameter '" + p.name
+                        + "' would share state between tasks");
+            }
+            Object v = eval(se.call.args.get(i));
+            if (site.checkValues) checkArgValues(f.name, java.util.List.of(p.type), new Object[] { v });
+            args[i] = (v instanceof interp.InstanceValue iv) ? copy(iv) : v;
+        }
+
+        ExecutionContext child = new ExecutionContext(program, out, new SymbolMap<>(), alloc.forTask());
+        child.setBudget(budget);
+        child.setInput(in);
+        if (profiler != null) child.setProfiler(profiler);
+        if (metrics != null) child.setMetrics(metrics);
+        if (sampler != null) child.setSampler(sampler);
+        TaskValue t = TaskValue.start(() -> child.callInTask(f, args));
+        if (spawned.size() >= pruneAt) {
+            // spawn+join in einer Schleife: nur noch offene Tasks behalten (amortisiert O(1))
+            spawned.removeIf(x -> !x.pending());
+            pruneAt = Math.max(64, spawned.size() * 2);
+        }
+        spawned.add(t);
+        return t;
+    }
+
+    // Laeuft im Task: Funktionsaufruf ohne Session, danach eigene Tasks abwarten
+    private Object callInTask(ast.FunctionDecl f, Object[] args) {
+        poll(f);
+        enterFrame(f);
+        jfr.CallEvent callEvent = enterCall(f);
+        hideSessionForCalls = true;
+        pushScope(new SymbolMap<>());
+        try {
+            for (int i = 0; i < args.length; i++) {
+                ast.Param p = f.params.get(i);
+                define(p.name, new ValueBinding(p.type, new Cell(args[i])));
+            }
+            exec(f.body.get());
+            return null;
+        } catch (interp.ReturnValue rv) {
+            return rv.value;
+        } catch (ExecutionAbortedException ex) {
+            throw ex.unwind(f.name);
+        } finally {
+            alloc.frames--;
+            exitCall(callEvent);
+            releaseFuel();
+            try {
+                awaitSpawned();
+            } finally {
+                if (sampler != null) setSampler(null);
+                if (profiler != null) profiler.finish(prof);
+            }
+        }
+    }
+
+    /**
+     * Ruft die Funktion eines vorbereiteten Rahmens mit den aktuell in frame.args
+     * stehenden Werten auf. Anders als ein normaler Aufruf wird der Parameter-Scope
+     * nicht neu angelegt, nur seine Zellen neu belegt; der Body laeuft wie sonst
+     * in einem eigenen Block-Scope darunter.
+     */
+    Object invoke(CallFrame frame) {
+        poll(frame.function);
+        enterFrame(frame.function);
+        jfr.CallEvent callEvent = enterCall(frame.function);
+        boolean prevHide = hideSessionForCalls;
+        hideSessionForCalls = true;
+
+        for (int i = 0; i < frame.params.length; i++) frame.params[i].set(frame.args[i].get());
+        pushScope(frame.scope);
+        try {
+            exec(frame.function.body.get());
+            return null;
+        } catch (interp.ReturnValue rv) {
+            return rv.value;
+        } catch (ExecutionAbortedException ex) {
+            throw ex.unwind(frame.function.name);
+        } finally {
+            alloc.frames--;
+            exitCall(callEvent);
+            scopes.pop();
+            frame.scope.truncate(frame.params.length);
+            hideSessionForCalls = prevHide;
+        }
+    }
+
+    private Object callNative(NativeFunction nf, Object[] args) {
+        if (prof == null && shadow == null && metrics == null && !jfr.CallEvent.PROBE.isEnabled()) {
+            return nf.call(this, args);
+        }
+        jfr.CallEvent callEvent = enterCall(nf);
+        try {
+            return nf.call(this, args);
+        } finally {
+            exitCall(callEvent);
+        }
+    }
+
+    private void pushScope(SymbolMap<Binding> scope) {
+        if (metrics != null) metrics.scopes.increment();
+        scopes.push(scope);
+    }
+
+    /**
+     * Aufruf fuer Profiler, Sampler und JFR sichtbar machen (alle meist aus).
+     * Liefert das laufende JFR-Event (oder null) fuer exitCall.
+     */
+    private jfr.CallEvent enterCall(Object callee) {
+        if (metrics != null) metrics.call(callee);
+        if (prof != null) prof.enter(callee);
+        if (shadow != null) shadow.push(callee);
+        if (!jfr.CallEvent.PROBE.isEnabled()) return null;
+        jfr.CallEvent ev = new jfr.CallEvent();
+        ev.target = callee;
+        ev.begin();
+        return ev;
+    }
+
+    private void exitCall(jfr.CallEvent ev) {
+        if (prof != null) prof.exit();
+        if (shadow != null) shadow.pop();
+        if (ev != null) {
+            ev.end();
+            // Name nur fuer Aufrufe ueber der Schwelle bilden
+            if (ev.shouldCommit()) {
+                ev.function = Profiler.name(ev.target);
+                ev.kind = (ev.target instanceof MethodInfo) ? "method"
+                        : (ev.target instanceof CtorInfo) ? "constructor"
+                        : (ev.target instanceof NativeFunction) ? "native" : "function";
+                ev.commit();
+            }
+        }
+    }
+
+    // Wartet auf alle noch laufenden Tasks dieses Kontexts
+    private void awaitSpawned() {
+        RuntimeException first = null;
+        for (TaskValue t : spawned) {
+            try {
+                t.join();
+            } catch (RuntimeException ex) {
+                if (first == null) first = ex;
+            }
+        }
+        spawned.clear();
+        pruneAt = 64;
+        if (first != null) throw first;
+    }
+
+    /**
+     * Wertet die Argumente eines Aufrufs aus, solange noch der Scope des Aufrufers
+     * aktiv ist: by-reference als Alias auf die lvalue-Zelle, by-value als Kopie.
+     */
+    private Binding[] bindArgs(java.util.List<ast.Param> params, java.util.List<ast.Expr> args) {
+        Binding[] res = new Binding[params.size()];
+        for (int i = 0; i < res.length; i++) {
+            ast.Param p = params.get(i);
+            ast.Expr argExpr = args.get(i);
+
+            if (p.type instanceof ast.RefTypeNode) {
+                res[i] = new RefBinding(p.type, evalLValue(argExpr));
+            } else {
+                res[i] = new ValueBinding(p.type, new Cell(eval(argExpr)));
+            }
+        }
+        return res;
+    }
+
+    private void callCtor(Symbol className, java.util.List<Object> args, interp.InstanceValue receiver) {
+        ClassInfo ci = program.classInfo(className);
+
+        // passenden ctor suchen: exakt Arity + Typen
+        CtorInfo target = null;
+        outer:
+        for (CtorInfo cand : ci.ctors) {
+            if (cand.params.size() != args.size()) continue;
+
+            for (int i = 0; i < cand.params.size(); i++) {
+                ast.TypeNode pt = cand.params.get(i).type;
+                ast.TypeNode at = typeOfValue(args.get(i));
+                if (at == null || !Types.sameType(pt, at)) continue outer;
+            }
+            target = cand;
+            break;
+        }
+
+        if (target == null) {
+            throw new RuntimeException("No matching constructor for " + className + " with " + args.size() + " args");
+        }
+
+        // Basisklassen-Default-Konstruktor zuerst
+        if (ci.baseName != null) {
+            callCtor(ci.baseName, java.util.List.of(), receiver);
+        }
+
+        // ctor ausfuehren: wie Methoden-Call: currentReceiver setzen, Session ausblenden
+        poll(target);
+        enterFrame(target);
+        jfr.CallEvent callEvent = enterCall(target);
+        interp.InstanceValue prevRecv = currentReceiver;
+        boolean prevHide = hideSessionForCalls;
+        currentReceiver = receiver;
+        hideSessionForCalls = true;
+
+        pushScope(new SymbolMap<>());
+        try {
+            // Parameter binden by Value
+            for (int i = 0; i < target.params.size(); i++) {
+                ast.Param p = target.params.get(i);
+                define(p.name, new ValueBinding(p.type, new Cell(args.get(i))));
+            }
+
+            exec(target.body.get());
+
+        } catch (ExecutionAbortedException ex) {
+            throw ex.unwind(className);
+        } finally {
+            alloc.frames--;
+            exitCall(callEvent);
+            scopes.pop();
+            hideSessionForCalls = prevHide;
+            currentReceiver = prevRecv;
+        }
+    }
+
+    // --------- Budget / Safepoints ---------
+
+    // Safepoint an Schleifen-Ruecksprung und Aufruf: im Normalfall nur Dekrement + Vergleich
+    private void poll(Object at) {
+        if (--fuel <= 0) refuel(at);
+    }
+
+    private void refuel(Object at) {
+        if (budget == null) {
+            fuel = Long.MAX_VALUE;
+            return;
+        }
+        try {
+            // Der aktuelle Schritt zaehlt schon zum neuen Kontingent
+            fuel = budget.refill();
+        } catch (ExecutionAbortedException ex) {
+            throw ex.at(describe(at));
+        }
+    }
+
+    // Restliches Kontingent an das Budget zurueckgeben, z.B. bevor auf Tasks gewartet wird;
+    // der naechste Safepoint holt sich dann ein neues
+    private void releaseFuel() {
+        if (budget == null || fuel <= 1) return;
+        budget.giveBack(fuel - 1);
+        fuel = 1;
+    }
+
+    // Aufruf beginnt; der Aufrufer zaehlt im finally wieder herunter
+    private void enterFrame(Object at) {
+        if (++alloc.frames > alloc.peakFrames() && !alloc.newPeak()) {
+            alloc.frames--;
+            throw new ExecutionAbortedException(ExecutionAbortedException.Reason.FRAMES,
+                    "call depth limit of " + alloc.maxFrames + " exceeded").at(describe(at));
+        }
+    }
+
+    private interp.InstanceValue allocated(interp.InstanceValue iv) {
+        if (metrics != null) metrics.allocated.increment();
+        alloc.record(iv);
+        if (alloc.overLimit()) memoryExceeded(iv.dynamicClass);
+        return iv;
+    }
+
+    // Tiefe Kopie; jedes kopierte Objekt zaehlt als neu angelegt
+    private interp.InstanceValue copy(interp.InstanceValue iv) {
+        if (metrics != null) metrics.copied.increment();
+        jfr.CopyEvent ev = jfr.CopyEvent.PROBE.isEnabled() ? new jfr.CopyEvent() : null;
+        if (ev != null) ev.begin();
+
+        interp.InstanceValue c = iv.deepCopy(alloc);
+        if (alloc.overLimit()) memoryExceeded(iv.dynamicClass);
+
+        if (ev != null) {
+            ev.end();
+            if (ev.shouldCommit()) {
+                ev.className = iv.dynamicClass.name;
+                ev.targetClass = iv.dynamicClass.name;
+                ev.kind = "deepCopy";
+                ev.commit();
+            }
+        }
+        return c;
+    }
+
+    private void memoryExceeded(Symbol className) {
+        throw new ExecutionAbortedException(ExecutionAbortedException.Reason.MEMORY,
+                "memory limit of " + alloc.maxBytes + " bytes exceeded (" + alloc.summary(3) + ")")
+                .at("allocation of " + className);
+    }
+
+    private static String describe(Object at) {
+        if (at instanceof WhileStmt) return "while loop";
+        if (at instanceof ast.FunctionCallExpr fc) return "call to " + fc.name;
+        if (at instanceof ast.MethodCallExpr mc) return "call to method " + mc.method;
+        if (at instanceof ast.FunctionDecl f) return "call to " + f.name;
+        if (at instanceof CtorInfo c) return "constructor " + c.className;
+        return at.getClass().getSimpleName();
+    }
+
+    // --------- Execution ---------
+
+    private Object exec(ASTNode node) {
+        if (node == null) {
+            throw new RuntimeException("BUG: exec() got null AST node");
+        }
+
+        // BlockStmt: neuer Scope
+        if (node instanceof BlockStmt b) {
+            pushScope(new SymbolMap<>());
+            try {
+                Object last = null;
+                for (Statement s : b.statements) {
+                    last = exec(s);
+                }
+                return last;
+            } finally {
+                scopes.pop();
+            }
+        }
+
+        if (shadow != null) shadow.at(node);
+        if (metrics != null) metrics.statements.increment();
+
+        // VarDeclStmt
+        if (node instanceof VarDeclStmt v) {
+
+            // Referenz: T& r = <lvalue>;
+            if (v.type instanceof RefTypeNode) {
+                if (v.init == null) {
+                    throw new RuntimeException("Reference must be initialized: " + v.name);
+                }
+
+                // muss lvalue sein
+                Cell target = evalLValue(v.init);
+
+                // Alias
+                define(v.name, new RefBinding(v.type, target));
+                return null;
+            }
+
+            // Klassentyp: T x;  -> Default-Konstruktor / Default-Init
+            if (v.type instanceof ast.ClassTypeNode ct && v.init == null) {
+
+                // InstanceValue mit Feldern anlegen
+                interp.InstanceValue inst = newInstance(ct.name);
+
+                // ct.name ggf. anpassen
+                define(v.name, new ValueBinding(v.type, new Cell(inst)));
+                return null;
+            }
+
+            // normale Variable: T x = expr;
+            Object value = (v.init != null) ? eval(v.init) : 0;
+
+            if (value instanceof interp.InstanceValue instVal
+                    && !(v.type instanceof RefTypeNode)) {
+                value = copy(instVal);
+            }
+
+            define(v.name, new ValueBinding(v.type, new Cell(value)));
+
+            return null;
+        }
+
+
+        if (node instanceof ExprStmt es) {
+            Object result = eval(es.expr);
+
+            if (!embedded
+                    && !(es.expr instanceof BinaryExpr be && "=".equals(be.op))
+                    && !(es.expr instanceof FunctionCallExpr)
+                    && result != null) {
+                out.println(result);
+            }
+            return result;
+        }
+
+        if (node instanceof IfStmt is) {
+            boolean c = toBool(eval(is.cond));
+            if (c) {
+                return exec(is.thenStmt);
+            } else if (is.elseStmt != null) {
+                return exec(is.elseStmt);
+            }
+            return null;
+        }
+
+        if (node instanceof WhileStmt ws) {
+            ShadowStack sh = shadow;
+            WhileStmt outer = (sh != null) ? sh.enterLoop(ws) : null;
+            try {
+                Object last = null;
+                while (toBool(eval(ws.cond))) {
+                    poll(ws);
+                    last = exec(ws.body);
+                }
+                return last;
+            } finally {
+                if (sh != null) sh.exitLoop(outer);
+            }
+        }
+
+        if (node instanceof ast.ReturnStmt rs) {
+            Object v = (rs.expr != null) ? eval(rs.expr) : null;
+            if (metrics != null) metrics.returns.increment();
+            throw new interp.ReturnValue(v);
+        }
+
+
+
+        throw new RuntimeException("Unknown AST node in exec: " + node.getClass().getSimpleName());
+    }
+
+    // --------- Expression evaluation ---------
+
+    private Object eval(Expr e) {
+        if (e instanceof IntLiteral il) return il.value;
+        if (e instanceof ast.BoolLiteral bl) return bl.value;
+        if (e instanceof ast.CharLiteral cl) return cl.value;
+        if (e instanceof ast.StringLiteral sl) return sl.value;
+
+        if (e instanceof ast.FunctionCallExpr fc) {
+
+            CallSite site = callSite(fc);
+            Object target = site.target;
+
+            // ---------- NATIVE (Builtins, Java-Funktionen) ----------
+            if (target instanceof NativeFunction nf) {
+                Object[] args = new Object[fc.args.size()];
+                for (int i = 0; i < args.length; i++) args[i] = eval(fc.args.get(i));
+                if (site.checkValues) checkArgValues(fc.name, nf.paramTypes, args);
+                return callNative(nf, args);
+            }
+
+            // ---------- CTOR CALL: A(args) ----------
+            if (target instanceof ClassInfo) {
+
+                // new instance (mit Feldern inkl. Basisklassen)
+                interp.InstanceValue inst = newInstance(fc.name);
+
+                java.util.List<Object> args = new java.util.ArrayList<>();
+                for (ast.Expr a : fc.args) args.add(eval(a));
+
+                callCtor(fc.name, args, inst);
+
+                // liefert Objektwert (wird bei "A a = A(7);" kopiert)
+                return inst;
+            }
+
+            ast.FunctionDecl f = (ast.FunctionDecl) target;
+
+            // Argumente im Scope des Aufrufers auswerten (genau einmal)
+            Binding[] bound = bindArgs(f.params, fc.args);
+            if (site.checkValues) {
+                Object[] values = new Object[bound.length];
+                java.util.List<ast.TypeNode> types = new java.util.ArrayList<>(bound.length);
+                for (int i = 0; i < bound.length; i++) {
+                    values[i] = bound[i].cell().get();
+                    types.add(f.params.get(i).type);
+                }
+                checkArgValues(fc.name, types, values);
+            }
+            poll(fc);
+            enterFrame(fc);
+            jfr.CallEvent callEvent = enterCall(f);
+
+            boolean prevHide = hideSessionForCalls;
+            hideSessionForCalls = true;
+
+            // Neuer Scope fuer den Funktionsaufruf
+            pushScope(new SymbolMap<>());
+            try {
+
+                // Parameter binden: a=..., b=...
+                for (int i = 0; i < bound.length; i++) {
+                    define(f.params.get(i).name, bound[i]);
+                }
+
+                // Body ausfuehren + return abfangen
+                try {
+                    exec(f.body.get());
+                    return null;
+                } catch (interp.ReturnValue rv) {
+                    return rv.value;
+                }
+
+            } catch (ExecutionAbortedException ex) {
+                throw ex.unwind(f.name);
+            } finally {
+                alloc.frames--;
+                exitCall(callEvent);
+                scopes.pop();
+                hideSessionForCalls = prevHide;
+            }
+        }
+
+        if (e instanceof ast.SpawnExpr se) {
+            return spawn(se);
+        }
+
+        if (e instanceof VarExpr ve) {
+            return lookupValue(ve.name);
+        }
+
+        if (e instanceof ast.FieldAccessExpr fa) {
+            return evalLValue(fa).get();
+        }
+
+        if (e instanceof ast.MethodCallExpr mc) {
+
+            // 1) Receiver auswerten
+            Object rv = eval(mc.obj);
+
+            // Task: t.join() liefert das Ergebnis
+            if (rv instanceof TaskValue task) {
+                if (mc.method != JOIN || !mc.args.isEmpty()) {
+                    throw new RuntimeException("Unknown task method: " + mc.method);
+                }
+                // Objekt-Ergebnis kopieren (mehrere Joiner teilen sich keine Zellen), zaehlt hier mit
+                Object v = task.join();
+                return (v instanceof interp.InstanceValue iv) ? copy(iv) : v;
+            }
+
+            if (!(rv instanceof interp.InstanceValue inst)) {
+                throw new RuntimeException("Method call on non-object");
+            }
+
+            ast.TypeNode staticT = inferType(mc.obj);
+            if (!(staticT instanceof ast.ClassTypeNode st)) {
+                throw new RuntimeException("Receiver has no class type");
+            }
+            Symbol staticClass = st.name;
+
+
+            // Kosten der Schritte 2-5 (hier ohne Cache bei jedem Aufruf)
+            long resolveStart = (prof != null) ? prof.resolveStart() : 0;
+
+            // 2) Overloads in Klassenhierarchie suchen (inkl. Basisklassen)
+            java.util.List<MethodInfo> overloads = program.getMethodOverloadsInHierarchy(staticClass, mc.method);
+            if (overloads.isEmpty()) {
+                throw new RuntimeException("Undefined method: " + inst.dynamicClass + "." + mc.method);
+            }
+
+            // 3) Kandidaten nach Arity filtern
+            java.util.List<MethodInfo> candidates = new java.util.ArrayList<>();
+            for (MethodInfo cand : overloads) {
+                if (cand.params.size() == mc.args.size()) candidates.add(cand);
+            }
+            if (candidates.isEmpty()) {
+                throw new RuntimeException("No matching overload for " + mc.method +
+                        " with " + mc.args.size() + " args");
+            }
+
+            // 4) Argumenttypen bestimmen (wie bei Funktionen)
+            java.util.List<ast.TypeNode> argTypes = new java.util.ArrayList<>();
+            for (ast.Expr arg : mc.args) {
+                ast.TypeNode t = inferType(arg);
+                if (t == null) throw new RuntimeException("Cannot infer type of argument in call to " + mc.method);
+                argTypes.add(t);
+            }
+
+            // 5) Exakt matchen inkl. & (gleiches Schema wie bei FunctionCall)
+            MethodInfo target = null;
+            outer:
+            for (MethodInfo cand : candidates) {
+                for (int i = 0; i < cand.params.size(); i++) {
+                    ast.TypeNode paramType = cand.params.get(i).type;
+                    ast.TypeNode argType = argTypes.get(i);
+
+                    if (paramType instanceof ast.RefTypeNode rt) {
+                        if (!Types.sameType(rt.base, argType)) continue outer;
+                        try { evalLValue(mc.args.get(i)); } catch (RuntimeException ex) { continue outer; }
+                    } else {
+                        if (!Types.sameType(paramType, argType)) continue outer;
+                    }
+                }
+                target = cand;
+                break;
+            }
+
+            if (target == null) {
+                throw new RuntimeException("No matching overload for " + mc.method + " with given argument types");
+            }
+            // virtual dispatch wie C++: nur wenn statische Methode virtual ist UND Call ueber Referenz passiert
+            if (target.isVirtual && isCallThroughRef(mc.obj)) {
+                target = program.resolveOverride(inst.dynamicClass, target.name, target.params);
+            }
+            if (prof != null) prof.resolved(mc, resolveStart);
+
+            // Argumente im Scope des Aufrufers auswerten (genau einmal)
+            Binding[] bound = bindArgs(target.params, mc.args);
+            poll(mc);
+            enterFrame(mc);
+            jfr.CallEvent callEvent = enterCall(target);
+
+            // 6) Call ausfuehren: Receiver setzen + Scope
+            interp.InstanceValue prevRecv = currentReceiver;
+            currentReceiver = inst;
+
+            //  REPL-Regel: Session in Calls nicht sichtbar machen
+            boolean prevHide = hideSessionForCalls;
+            hideSessionForCalls = true;
+
+            pushScope(new SymbolMap<>());
+            try {
+
+                // Parameter binden (by-value / by-ref)
+                for (int i = 0; i < bound.length; i++) {
+                    define(target.params.get(i).name, bound[i]);
+                }
+
+                try {
+                    exec(target.body.get());
+                    return null;
+                } catch (interp.ReturnValue rv2) {
+                    return rv2.value;
+                }
+
+            } catch (ExecutionAbortedException ex) {
+                throw ex.unwind(inst.dynamicClass + "::" + mc.method);
+            } finally {
+                alloc.frames--;
+                exitCall(callEvent);
+                scopes.pop();
+
+                // Session zuruecksetzen
+                hideSessionForCalls = prevHide;
+
+                // Receiver zuruecksetzen
+                currentReceiver = prevRecv;
+            }
+        }
+
+
+        if (e instanceof BinaryExpr be) {
+            if ("&&".equals(be.op)) {
+                boolean lb = toBool(eval(be.left));
+
+                // short-circuit: rechts NICHT auswerten
+                if (!lb) return false;
+                return toBool(eval(be.right));
+            }
+
+            if ("||".equals(be.op)) {
+                boolean lb = toBool(eval(be.left));
+
+                // short-circuit: rechts NICHT auswerten
+                if (lb) return true;
+                return toBool(eval(be.right));
+            }
+
+            // Zuweisung: rechte Seite genau einmal auswerten (kann Seiteneffekte haben)
+            if ("=".equals(be.op)) {
+                Cell left = evalLValue(be.left);
+                Object right = eval(be.right);
+
+                // Slicing: Base b; b = d;  (b ist ClassType Base, right ist InstanceValue von Subklasse)
+                if (be.left instanceof ast.VarExpr lv) {
+                    ast.TypeNode lt = lookupBinding(lv.name).type();
+
+                    if (lt instanceof ast.ClassTypeNode lct && right instanceof interp.InstanceValue instR) {
+
+                        // RHS darf Subklasse sein -> slice auf LHS-Typ
+                        if (instR.dynamicClass != lct.name && program.isSubclass(instR.dynamicClass, lct.name)) {
+                            right = sliceTo(lct.name, instR);
+                        }
+                    }
+                }
+
+                left.set(right);
+                return right;
+            }
+
+            Object l = eval(be.left);
+            Object r = eval(be.right);
+
+            return switch (be.op) {
+                case "+" -> toInt(l) + toInt(r);
+                case "-" -> toInt(l) - toInt(r);
+                case "*" -> toInt(l) * toInt(r);
+
+                case "/" -> {
+                    int valR = toInt(r);
+                    if (valR == 0) throw new RuntimeException("Division by zero");
+                    yield toInt(l) / valR;
+                }
+
+                case "%" -> {
+                    int valR = toInt(r);
+                    if (valR == 0) throw new RuntimeException("Modulo by zero");
+                    yield toInt(l) % valR;
+                }
+
+
+
+
+                case "==" -> {
+                    if (l instanceof Integer li && r instanceof Integer ri) {
+                        yield li.intValue() == ri.intValue();
+                    }
+                    if (l instanceof Boolean lb && r instanceof Boolean rb) {
+                        yield lb.booleanValue() == rb.booleanValue();
+                    }
+                    // C++ Semantik: Mixed Types
+                    int li = (l instanceof Boolean b) ? (b ? 1 : 0) : toInt(l);
+                    int ri = (r instanceof Boolean b) ? (b ? 1 : 0) : toInt(r);
+                    yield li == ri;
+                }
+                case "!=" -> {
+
+                    if (l instanceof Integer li && r instanceof Integer ri) {
+                        yield li.intValue() != ri.intValue();
+                    }
+                    if (l instanceof Boolean lb && r instanceof Boolean rb) {
+                        yield lb.booleanValue() != rb.booleanValue();
+                    }
+                    int li = (l instanceof Boolean b) ? (b ? 1 : 0) : toInt(l);
+                    int ri = (r instanceof Boolean b) ? (b ? 1 : 0) : toInt(r);
+                    yield li != ri;
+                }
+                case "<"  -> toInt(l) <  toInt(r);
+                case "<=" -> toInt(l) <= toInt(r);
+                case ">"  -> toInt(l) >  toInt(r);
+                case ">=" -> toInt(l) >= toInt(r);
+
+
+                default -> throw new RuntimeException("Unknown operator: " + be.op);
+            };
+        }
+
+        throw new RuntimeException("Unknown Expr node: " + e.getClass().getSimpleName());
+    }
+
+    private boolean toBool(Object v) {
+        if (v instanceof Boolean b) return b;
+        if (v instanceof Integer i) return i != 0;
+        throw new RuntimeException("Condition is not bool/int (yet): " + v);
+    }
+
+    private int toInt(Object v) {
+        if (v instanceof Integer i) return i;
+        if (v instanceof Character c) return (int) c; // 'a' -> 97
+        if (v instanceof Boolean b) return b ? 1 : 0; // true -> 1
+        throw new RuntimeException("Cannot convert to int: " + v);
+    }
+
+    private ast.TypeNode typeOfValue(Object v) {
+        if (v instanceof Integer) return new ast.IntTypeNode();
+        if (v instanceof Boolean) return new ast.BoolTypeNode();
+        if (v instanceof Character) return new ast.CharTypeNode();
+        if (v instanceof String) return new ast.StringTypeNode();
+        return null; // Klassen/Refs später
+    }
+
+    private ast.TypeNode inferType(ast.Expr e) {
+        // Literale
+        if (e instanceof ast.IntLiteral) return new ast.IntTypeNode();
+        if (e instanceof ast.BoolLiteral) return new ast.BoolTypeNode();
+        if (e instanceof ast.CharLiteral) return new ast.CharTypeNode();
+        if (e instanceof ast.StringLiteral) return new ast.StringTypeNode();
+
+        // Variable
+        if (e instanceof ast.VarExpr ve) {
+            Binding b = lookupBinding(ve.name);
+            ast.TypeNode t = b.type();
+
+            // Beim Verwenden einer Referenz zählt der Basistyp
+            if (t instanceof ast.RefTypeNode rt) return rt.base;
+
+            return t;
+        }
+
+        // Binaere Ausdruecke (vereinfachte Regeln)
+        if (e instanceof ast.BinaryExpr be) {
+            return switch (be.op) {
+                case "+", "-", "*", "/", "%" -> new ast.IntTypeNode();
+                case "==", "!=", "<", "<=", ">", ">=", "&&", "||" -> new ast.BoolTypeNode();
+                case "=" -> inferType(be.left); // Zuweisung: Typ der linken Seite
+                default -> null;
+            };
+        }
+
+        // t.join(): Ergebnistyp des Tasks
+        if (e instanceof ast.MethodCallExpr mc && mc.method == JOIN && inferType(mc.obj) instanceof ast.TaskTypeNode tt) {
+            return tt.result;
+        }
+
+        // Funktionsaufrufe: Rueckgabetyp des aufgeloesten Ziels
+        if (e instanceof ast.FunctionCallExpr fc) {
+            Object target = callTarget(fc);
+            if (target instanceof NativeFunction nf) return nf.returnType;
+            if (target instanceof ast.FunctionDecl f) return f.returnType;
+            if (target instanceof ClassInfo) return new ast.ClassTypeNode(fc.name);
+        }
+
+        return null;
+    }
+
+    private Object defaultValue(ast.TypeNode t) {
+        if (t instanceof ast.IntTypeNode) return 0;
+        if (t instanceof ast.BoolTypeNode) return false;
+        if (t instanceof ast.CharTypeNode) return '\0';
+        if (t instanceof ast.StringTypeNode) return "";
+        if (t instanceof ast.ClassTypeNode ct) return newInstance(ct.name);
+        throw new RuntimeException("No default value for type: " + t.getClass().getSimpleName());
+    }
+
+    private interp.InstanceValue newInstance(Symbol className) {
+        // Felder inkl. Basisklassen (wirft bei unbekannter Klasse)
+        var allFields = program.collectAllFields(className);
+        SymbolMap<Cell> fieldCells = new SymbolMap<>(allFields.size());
+        for (int i = 0; i < allFields.size(); i++) {
+            fieldCells.put(allFields.keyAt(i), new Cell(defaultValue(allFields.valueAt(i))));
+        }
+        if (jfr.InstantiationEvent.PROBE.isEnabled()) {
+            jfr.InstantiationEvent ev = new jfr.InstantiationEvent();
+            if (ev.shouldCommit()) {
+                ev.className = className.name;
+                ev.fields = fieldCells.size();
+                ev.commit();
+            }
+        }
+        return allocated(new interp.InstanceValue(className, fieldCells));
+    }
+}
@@ -0,0 +1,44 @@
+package interp;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Quelle fuer die Eingabe-Builtins read_int, read_char, read_string, read_line und eof.
+ * read_int/read_char/read_string ueberspringen fuehrenden Leerraum (wie cin >> x),
+ * read_line liefert den Rest der aktuellen Zeile ohne Zeilenende.
+ * Am Ende der Eingabe werfen die read_* einen Fehler; eof() prueft vorher, ob noch
+ * etwas anderes als Leerraum kommt, ohne etwas zu verbrauchen.
+ *
+ * Tasks lesen aus der Quelle ihres Erzeugers; Implementierungen muessen threadsicher sein.
+ *
+ */
+public interface InputSource {
+
+    int readInt();
+
+    char readChar();
+
+    String readString();
+
+    String readLine();
+
+    /** true, wenn nur noch Leerraum (oder nichts) folgt. */
+    boolean eof();
+
+    /** Gepufferte Standardeingabe. */
+    static InputSource stdin() {
+        return BufferedInput.stdin();
+    }
+
+    /** Liest aus einem Reader (Zeichen werden als UTF-8 gepuffert). */
+    static InputSource of(java.io.Reader reader) {
+        return new BufferedInput(new ReaderChannel(reader));
+    }
+
+    /** Liest aus einem festen Text (Einbettung, Server-Requests). */
+    static InputSource of(String text) {
+        return new BufferedInput(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+    }
+}
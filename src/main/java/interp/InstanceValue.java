@@ -1,6 +1,6 @@
 package interp;
 
-import java.util.*;
+import ast.Symbol;
 
 /**
  * Objekt (Instanz einer Klasse) zur Laufzeit.
@@ -8,24 +8,39 @@ import java.util.*;
  * und die Werte der Felder.
  *
  */
-public final class InstanceValue {
+public final class InstanceValue implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // Der dynamische Typ des Objekts (Name der Klasse, von der es instanziiert wurde)
-    public final String dynamicClass;
+    public final Symbol dynamicClass;
 
     // Die Felder des Objekts. Map: Feldname -> Speicherzelle.
     // Nutzung von Cell ermoeglicht, dass Felder mutable sind.
-    public final LinkedHashMap<String, Cell> fieldCells;
+    public final SymbolMap<Cell> fieldCells;
 
-    public InstanceValue(String dynamicClass, LinkedHashMap<String, Cell> fieldCells) {
+    public InstanceValue(Symbol dynamicClass, SymbolMap<Cell> fieldCells) {
         this.dynamicClass = dynamicClass;
         this.fieldCells = fieldCells;
     }
 
     // Erstellt eine tiefe Kopie ("Pass-by-Value" von Objekten in C++)
+    // Objektwertige Felder werden mitkopiert, die Kopie teilt keine Cell mit dem Original.
     public InstanceValue deepCopy() {
-        var copy = new LinkedHashMap<String, Cell>();
-        for (var e : fieldCells.entrySet()) copy.put(e.getKey(), new Cell(e.getValue().get()));
-        return new InstanceValue(dynamicClass, copy);
+        return deepCopy(null);
+    }
+
+    // Wie deepCopy(); jedes neu angelegte Objekt wird in stats gezaehlt (falls != null)
+    InstanceValue deepCopy(AllocationStats stats) {
+        // gleiche Feld-Reihenfolge -> Struktur kopieren, nur Zellen neu anlegen
+        SymbolMap<Cell> copy = fieldCells.copy();
+        for (int i = 0; i < copy.size(); i++) {
+            Object v = fieldCells.valueAt(i).get();
+            if (v instanceof InstanceValue iv) v = iv.deepCopy(stats);
+            copy.setValueAt(i, new Cell(v));
+        }
+        InstanceValue res = new InstanceValue(dynamicClass, copy);
+        if (stats != null) stats.record(res);
+        return res;
     }
 }
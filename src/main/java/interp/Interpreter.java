@@ -2,44 +2,51 @@ package interp;
 
 import ast.*;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Der Interpreter fuehrt den AST aus.
- * Er verwaltet:
- * 1. Den Call-Stack und Scopes (fuer Variablen).
- * 2. Die Symboltabellen fuer Funktionen und Klassen.
- * 3. Die Ausfuehrung von Statements und Auswertung von Expressions.
+ * Er verbindet:
+ * 1. Das geladene Programm (CompiledProgram: Funktionen und Klassen, unveraenderlich).
+ * 2. Einen Ausfuehrungskontext (ExecutionContext: Scopes, Session, Receiver).
+ *
+ * Fuer Datei- und REPL-Betrieb gibt es genau einen Kontext; neue Deklarationen
+ * erzeugen eine neue Programmversion, der Session-Scope bleibt erhalten.
+ * Wer dasselbe Programm parallel ausfuehren will, holt sich mit program().newContext()
+ * pro Thread einen eigenen Kontext.
  *
  */
 public class Interpreter {
 
-    // Scope-Stack: Eine Liste von Maps. Das oberste Element ist der aktuelle Scope.
-    // Map: Variablenname -> Binding (Verbindung zu Typ und Speicherzelle)
-    private final Deque<Map<String, Binding>> scopes = new ArrayDeque<>();
-
-    // Globaler Speicher fuer Funktionsdefinitionen (Name -> Liste von Ueberladungen)
-    private final Map<String, java.util.List<ast.FunctionDecl>> functions = new HashMap<>();
+    // Aktuelle Programmversion
+    private CompiledProgram program;
 
-    // Globaler Speicher für Klassendefinitionen (Klassenname -> ClassInfo)
-    private final Map<String, ClassInfo> classes = new HashMap<>();
+    // Kontext der Session (Datei + REPL)
+    private final ExecutionContext context;
 
-    private interp.InstanceValue currentReceiver = null;
 
-    // Der "Sitzungs-Scope": Bleibt zwischen REPL-Eingaben erhalten.
-    private final Map<String, Binding> sessionRoot = new HashMap<>();
-
-    // Waehrend Funktions-/Methodenaufrufen: Session nicht sichtbar
-    private boolean hideSessionForCalls = false;
+    public Interpreter() {
+        this.program = CompiledProgram.EMPTY;
+        this.context = new ExecutionContext(program, OutputSink.stdout());
+    }
 
+    /**
+     * Neue Session auf einem bereits geladenen Programm: die Top-Level-Statements
+     * laufen im eigenen Session-Scope, Ausgaben gehen nach out. Das Programm wird
+     * geteilt; eigene Deklarationen erzeugen eine Version nur fuer diese Session.
+     */
+    public Interpreter(CompiledProgram program, OutputSink out) {
+        this(program, out, InputSource.stdin());
+    }
 
-    public Interpreter() {
+    /** Wie Interpreter(program, out); read_* liest (auch in den Top-Level-Statements) aus in. */
+    public Interpreter(CompiledProgram program, OutputSink out, InputSource in) {
+        this.program = program;
+        this.context = program.newContext(out, null, in);
+    }
 
-        // Session-Scope ist der unterste Scope
-        scopes.push(sessionRoot);
+    // Wiederhergestellt aus einem Image (siehe InterpreterImage)
+    Interpreter(CompiledProgram program, SymbolMap<Binding> session, OutputSink out) {
+        this.program = program;
+        this.context = new ExecutionContext(program, out, session);
     }
 
     // --------- Public API ---------
@@ -47,28 +54,42 @@ public class Interpreter {
     public Object run(ASTNode node) {
 
         // Programm Ausfuehren
-        exec(node);
+        execTopLevel(node);
 
-        java.util.List<ast.FunctionDecl> mains = functions.get("main");
-        if (mains == null || mains.isEmpty()) {
+        if (program.main() == null) {
             throw new RuntimeException("No main function");
         }
-        if (mains.size() != 1) {
-            throw new RuntimeException("Ambiguous main()");
-        }
-        ast.FunctionDecl main = mains.get(0);
 
+        // KEIN neuer Scope -> Variablen bleiben in Session
+        return context.runMain();
+    }
 
-        // Ausfuehren mit return Value cache
-        try {
+    /** Die aktuelle (unveraenderliche) Programmversion. */
+    public CompiledProgram program() {
+        return program;
+    }
 
-            // KEIN neuer Scope -> Variablen bleiben in Session
-            execBlockInCurrentScope(main.body);
-            return null;
+    /** Der Kontext der Session. */
+    public ExecutionContext context() {
+        return context;
+    }
 
-        } catch (interp.ReturnValue rv) {
-            return rv.value;
-        }
+    /**
+     * Wechselt auf eine Programmversion, die aus der aktuellen entstanden ist
+     * (z.B. ein vorab geparstes und registriertes Skript). Der Session-Scope bleibt.
+     */
+    public void useProgram(CompiledProgram next) {
+        next.declarationsSince(program); // wirft, falls next nicht von hier abstammt
+        update(next);
+    }
+
+    /**
+     * Stellt eine Java-Funktion unter ihrem Namen fuer Skripte bereit
+     * (neue Programmversion, wie eine Deklaration in der REPL). Eine MiniCpp-Funktion
+     * mit denselben Parametertypen verdeckt sie (siehe CompiledProgram).
+     */
+    public void registerNative(NativeFunction f) {
+        update(program.withNative(f));
     }
 
     // --------- REPL / Program API ---------
@@ -78,7 +99,19 @@ public class Interpreter {
      * Registriert erst alle Klassen/Funktionen und fuehrt dann Top-Level Statements aus.
      */
     public void loadProgram(ast.Program p) {
-        exec(p);
+        load(p);
+    }
+
+    private Object load(ast.Program p) {
+        // Pass 1: Klassen und Funktionen registrieren
+        update(program.extend(p));
+
+        // Pass 2: restliche Statements (falls vorhanden)
+        Object last = null;
+        for (ASTNode decl : p.declarations) {
+            if (decl instanceof ast.Statement s) last = context.execStatement(s);
+        }
+        return last;
     }
 
     /**
@@ -90,893 +123,46 @@ public class Interpreter {
         Object last = null;
 
         for (ast.ASTNode n : p.declarations) {
-            if (n instanceof ast.FunctionDecl || n instanceof ast.ClassDecl) {
-
-                // Regestrierung
-                exec(n);
-
-            } else if (n instanceof ast.Statement s) {
-
-                // Ausfuehrung im Session-Scope
-                last = exec(s);
-
-            } else {
-
-                // else-case: Expression in Declaration
-                last = exec(n);
-            }
+            Object r = execTopLevel(n);
+            if (n instanceof ast.Statement) last = r;
         }
         return last;
     }
 
     /**
-     * Fuehrt main() aus, falls vorhanden. Wenn keine main() existiert -> null.
-     * main() laeuft im Session-Scope und der Scope bleibt offen.
+     * Registriert bzw. fuehrt ein einzelnes Top-Level-Element aus (REPL-Regeln).
+     * Wird auch beim Streaming grosser Dateien pro Element aufgerufen.
      */
-    public Object runMainIfPresent() {
-        java.util.List<ast.FunctionDecl> mains = functions.get("main");
-        if (mains == null || mains.isEmpty()) return null;
-        if (mains.size() != 1) throw new RuntimeException("Ambiguous main()");
-
-        ast.FunctionDecl main = mains.get(0);
-
-        try {
-            return execBlockInCurrentScope(main.body);
-        } catch (interp.ReturnValue rv) {
-            return rv.value;
-        }
-    }
-
-
-    // --------- Scope helpers (NEU) ---------
-
-    private void define(String name, Binding binding) {
-        if (scopes.peek().containsKey(name)) {
-            throw new RuntimeException("Redefinition in same scope: " + name);
-        }
-        scopes.peek().put(name, binding);
-    }
-
-    private Binding lookupBinding(String name) {
-        for (Map<String, Binding> scope : scopes) {
-            // Wenn wir in einem Call sind: Session-Scope NICHT durchsuchen
-            if (hideSessionForCalls && scope == sessionRoot) break;
-
-            Binding b = scope.get(name);
-            if (b != null) return b;
-        }
-
-        // Wenn wir gerade in einer Methode sind: unqualifizierte Namen duerfen Felder sein
-        if (currentReceiver != null) {
-            Cell c = currentReceiver.fieldCells.get(name);
-            if (c != null) {
-                ClassInfo ci = classes.get(currentReceiver.dynamicClass);
-                ast.TypeNode ft = (ci != null) ? ci.fields.get(name) : null;
-                if (ft == null) ft = new ast.IntTypeNode(); // Fallback
-                return new RefBinding(ft, c);
-            }
-        }
-
-        throw new RuntimeException("Undefined variable: " + name);
-    }
-
-    private Object lookupValue(String name) {
-        return lookupBinding(name).cell().get();
-    }
-
-    private void assign(String name, Object value) {
-        lookupBinding(name).cell().set(value);
-    }
-
-    // --------- LValue helper ---------
-
-    private Cell evalLValue(Expr e) {
-        if (e == null) {
-            throw new RuntimeException("BUG: evalLValue got null Expr (ASTBuilder created null)");
-        }
-        if (e instanceof VarExpr v) {
-            return lookupBinding(v.name).cell();
-        }
-        if (e instanceof ast.FieldAccessExpr fa) {
-            Object ov = eval(fa.obj);
-            if (!(ov instanceof interp.InstanceValue inst)) {
-                throw new RuntimeException("Field access on non-object");
-            }
-            Cell c = inst.fieldCells.get(fa.field);
-            if (c == null) throw new RuntimeException("Unknown field: " + fa.field);
-            return c;
-        }
-        throw new RuntimeException("Not an lvalue: " + e.getClass().getSimpleName());
-    }
-
-    private boolean isCallThroughRef(ast.Expr recv) {
-        if (recv instanceof ast.VarExpr v) {
-            return lookupBinding(v.name).type() instanceof ast.RefTypeNode;
-        }
-        return false;
-    }
-
-    private boolean isSubclass(String sub, String base) {
-        if (sub.equals(base)) return true;
-        ClassInfo ci = classes.get(sub);
-        if (ci == null || ci.baseName == null) return false;
-        return isSubclass(ci.baseName, base);
-    }
-
-    private java.util.LinkedHashMap<String, ast.TypeNode> collectAllFields(String className) {
-        ClassInfo ci = classInfo(className);
-        var res = new java.util.LinkedHashMap<String, ast.TypeNode>();
-        if (ci.baseName != null) res.putAll(collectAllFields(ci.baseName));
-        res.putAll(ci.fields);
-        return res;
-    }
-
-    private interp.InstanceValue sliceTo(String base, interp.InstanceValue inst) {
-        var fieldTypes = collectAllFields(base);
-        var cells = new java.util.LinkedHashMap<String, Cell>();
-
-        for (var e : fieldTypes.entrySet()) {
-            String fname = e.getKey();
-            ast.TypeNode ftype = e.getValue();
-            Cell src = inst.fieldCells.get(fname);
-            Object v = (src != null) ? src.get() : defaultValue(ftype);
-            cells.put(fname, new Cell(v));
-        }
-        return new interp.InstanceValue(base, cells);
-    }
-
-    private Object execBlockInCurrentScope(ast.BlockStmt b) {
-        Object last = null;
-        for (ast.Statement s : b.statements) {
-            last = exec(s);
-        }
-        return last;
-    }
-
-    private void callCtor(String className, java.util.List<Object> args, interp.InstanceValue receiver) {
-        ClassInfo ci = classInfo(className);
-
-        // passenden ctor suchen: exakt Arity + Typen
-        CtorInfo target = null;
-        outer:
-        for (CtorInfo cand : ci.ctors) {
-            if (cand.params.size() != args.size()) continue;
-
-            for (int i = 0; i < cand.params.size(); i++) {
-                ast.TypeNode pt = cand.params.get(i).type;
-                ast.TypeNode at = typeOfValue(args.get(i));
-                if (at == null || !sameType(pt, at)) continue outer;
-            }
-            target = cand;
-            break;
-        }
-
-        if (target == null) {
-            throw new RuntimeException("No matching constructor for " + className + " with " + args.size() + " args");
-        }
-
-        // Basisklassen-Default-Konstruktor zuerst
-        if (ci.baseName != null) {
-            callCtor(ci.baseName, java.util.List.of(), receiver);
-        }
-
-        // ctor ausfuehren: wie Methoden-Call: currentReceiver setzen, Session ausblenden
-        interp.InstanceValue prevRecv = currentReceiver;
-        boolean prevHide = hideSessionForCalls;
-        currentReceiver = receiver;
-        hideSessionForCalls = true;
-
-        scopes.push(new java.util.HashMap<>());
-        try {
-            // Parameter binden by Value
-            for (int i = 0; i < target.params.size(); i++) {
-                ast.Param p = target.params.get(i);
-                define(p.name, new ValueBinding(p.type, new Cell(args.get(i))));
-            }
-
-            exec(target.body);
-
-        } finally {
-            scopes.pop();
-            hideSessionForCalls = prevHide;
-            currentReceiver = prevRecv;
-        }
-    }
-
-    // --------- Execution ---------
-
-    private Object exec(ASTNode node) {
-        if (node == null) {
-            throw new RuntimeException("BUG: exec() got null AST node");
-        }
-
-        if (node instanceof Program p) {
-            // Pass 1: Klassen und Funktionen registrieren
-            for (ASTNode decl : p.declarations) {
-                if (decl instanceof ast.ClassDecl cd) exec(cd);       // ruft registerClass
-                if (decl instanceof ast.FunctionDecl fd) exec(fd);    // registriert functions
-            }
-
-            // Pass 2: restliche Statements (falls vorhanden)
-            Object last = null;
-            for (ASTNode decl : p.declarations) {
-                if (decl instanceof ast.Statement s) last = exec(s);
-            }
-            return last;
-        }
-
-
-        if (node instanceof ast.ClassDecl c) {
-            if (classes.containsKey(c.name)) {
-                throw new RuntimeException("Class redefined: " + c.name);
-            }
-            registerClass(c);
-            return null;
-        }
-
-        if (node instanceof FunctionDecl f) {
-            functions.computeIfAbsent(f.name, k -> new java.util.ArrayList<>()).add(f);
-            return null;
-        }
-
-
-        // BlockStmt: neuer Scope
-        if (node instanceof BlockStmt b) {
-            scopes.push(new HashMap<>());
-            try {
-                Object last = null;
-                for (Statement s : b.statements) {
-                    last = exec(s);
-                }
-                return last;
-            } finally {
-                scopes.pop();
-            }
-        }
-
-        // VarDeclStmt
-        if (node instanceof VarDeclStmt v) {
-
-            // Referenz: T& r = <lvalue>;
-            if (v.type instanceof RefTypeNode) {
-                if (v.init == null) {
-                    throw new RuntimeException("Reference must be initialized: " + v.name);
-                }
-
-                // muss lvalue sein
-                Cell target = evalLValue(v.init);
-
-                // Alias
-                define(v.name, new RefBinding(v.type, target));
-                return null;
-            }
-
-            // Klassentyp: T x;  -> Default-Konstruktor / Default-Init
-            if (v.type instanceof ast.ClassTypeNode ct && v.init == null) {
-
-                // InstanceValue mit Feldern anlegen
-                interp.InstanceValue inst = newInstance(ct.name);
-
-                // ct.name ggf. anpassen
-                define(v.name, new ValueBinding(v.type, new Cell(inst)));
-                return null;
-            }
-
-            // normale Variable: T x = expr;
-            Object value = (v.init != null) ? eval(v.init) : 0;
-
-            if (value instanceof interp.InstanceValue instVal
-                    && !(v.type instanceof RefTypeNode)) {
-                value = instVal.deepCopy();
-            }
-
-            define(v.name, new ValueBinding(v.type, new Cell(value)));
-
-            return null;
-        }
-
-
-        if (node instanceof ExprStmt es) {
-            Object result = eval(es.expr);
-
-            if (!(es.expr instanceof BinaryExpr be && "=".equals(be.op))
-                    && !(es.expr instanceof FunctionCallExpr)
-                    && result != null) {
-                System.out.println(result);
-            }
-            return result;
-        }
+    public Object execTopLevel(ast.ASTNode n) {
+        if (n instanceof ast.FunctionDecl || n instanceof ast.ClassDecl) {
 
-        if (node instanceof IfStmt is) {
-            boolean c = toBool(eval(is.cond));
-            if (c) {
-                return exec(is.thenStmt);
-            } else if (is.elseStmt != null) {
-                return exec(is.elseStmt);
-            }
+            // Regestrierung (neue Programmversion)
+            update(program.withDeclaration(n));
             return null;
-        }
-
-        if (node instanceof WhileStmt ws) {
-            Object last = null;
-            while (toBool(eval(ws.cond))) {
-                last = exec(ws.body);
-            }
-            return last;
-        }
-
-        if (node instanceof ast.ReturnStmt rs) {
-            Object v = (rs.expr != null) ? eval(rs.expr) : null;
-            throw new interp.ReturnValue(v);
-        }
-
-
-
-        throw new RuntimeException("Unknown AST node in exec: " + node.getClass().getSimpleName());
-    }
-
-    // --------- Expression evaluation ---------
-
-    private Object eval(Expr e) {
-        if (e instanceof IntLiteral il) return il.value;
-        if (e instanceof ast.BoolLiteral bl) return bl.value;
-        if (e instanceof ast.CharLiteral cl) return cl.value;
-        if (e instanceof ast.StringLiteral sl) return sl.value;
-
-        if (e instanceof ast.FunctionCallExpr fc) {
-
-            // ---------- BUILTINS ----------
-            if (fc.name.equals("print_int")) {
-                Object v = eval(fc.args.get(0));
-                System.out.println((Integer) v);
-                return null;
-            }
-            if (fc.name.equals("print_bool")) {
-                Object v = eval(fc.args.get(0));
-                // ALT: System.out.println((Boolean) v ? "true" : "false");
-                // NEU (C++ Style):
-                System.out.println((Boolean) v ? "1" : "0");
-                return null;
-            }
-            if (fc.name.equals("print_char")) {
-                Object v = eval(fc.args.get(0));
-                System.out.println((Character) v);
-                return null;
-            }
-            if (fc.name.equals("print_string")) {
-                Object v = eval(fc.args.get(0));
-                System.out.println((String) v);
-                return null;
-            }
-
-            // ---------- CTOR CALL: A(args) ----------
-            if (!functions.containsKey(fc.name) && classes.containsKey(fc.name)) {
-
-                // new instance (mit Feldern inkl. Basisklassen)
-                interp.InstanceValue inst = newInstance(fc.name);
-
-                java.util.List<Object> args = new java.util.ArrayList<>();
-                for (ast.Expr a : fc.args) args.add(eval(a));
-
-                callCtor(fc.name, args, inst);
-
-                // liefert Objektwert (wird bei "A a = A(7);" kopiert)
-                return inst;
-            }
-
-            java.util.List<ast.FunctionDecl> overloads = functions.get(fc.name);
-            if (overloads == null || overloads.isEmpty()) {
-                throw new RuntimeException("Undefined function: " + fc.name);
-            }
-
-            java.util.List<ast.FunctionDecl> candidates = new java.util.ArrayList<>();
-            for (ast.FunctionDecl cand : overloads) {
-                if (cand.params.size() == fc.args.size()) {
-                    candidates.add(cand);
-                }
-            }
-
-            if (candidates.isEmpty()) {
-                throw new RuntimeException("No matching overload for " + fc.name +
-                        " with " + fc.args.size() + " args");
-            }
-
-            // Argument-Typen bestimmen
-            java.util.List<ast.TypeNode> argTypes = new java.util.ArrayList<>();
-            for (ast.Expr arg : fc.args) {
-                ast.TypeNode t = inferType(arg);
-                if (t == null) {
-                    throw new RuntimeException("Cannot infer type of argument in call to " + fc.name);
-                }
-                argTypes.add(t);
-            }
-
-            // Kandidaten nach Param-Typen filtern
-            java.util.List<ast.FunctionDecl> typedMatches = new java.util.ArrayList<>();
-            for (ast.FunctionDecl cand : candidates) {
-                boolean ok = true;
-                for (int i = 0; i < cand.params.size(); i++) {
-                    ast.TypeNode paramType = cand.params.get(i).type;
-                    ast.TypeNode argType = argTypes.get(i);
-
-                    if (paramType instanceof RefTypeNode rt) {
-
-                        // 1) Basistyp muss passen (int& akzeptiert int)
-                        if (!sameType(rt.base, argType)) {
-                            ok = false;
-                            break;
-                        }
-
-                        // 2) Argument MUSS lvalue sein
-                        try {
-                            evalLValue(fc.args.get(i));
-                        } catch (RuntimeException ex) {
-                            ok = false;
-                            break;
-                        }
-                    } else {
-
-                        // normaler by-value Parameter
-                        if (!sameType(paramType, argType)) {
-                            ok = false;
-                            break;
-                        }
-                    }
-                }
-
-                if (ok) typedMatches.add(cand);
-            }
-
-            if (typedMatches.isEmpty()) {
-                throw new RuntimeException("No matching overload for " + fc.name + " with given argument types");
-            }
-            if (typedMatches.size() > 1) {
-                throw new RuntimeException("Ambiguous overload for " + fc.name + " with given argument types");
-            }
-
-            ast.FunctionDecl f = typedMatches.get(0);
-
-            // Argumente auswerten
-            java.util.List<Object> values = new java.util.ArrayList<>();
-            for (ast.Expr arg : fc.args) {
-                values.add(eval(arg));
-            }
-
-            boolean prevHide = hideSessionForCalls;
-            hideSessionForCalls = true;
-
-            // Neuer Scope fuer den Funktionsaufruf
-            scopes.push(new java.util.HashMap<>());
-            try {
-
-                // Parameter binden: a=..., b=...
-                for (int i = 0; i < f.params.size(); i++) {
-                    Param p = f.params.get(i);
-                    Expr argExpr = fc.args.get(i);
-
-                    if (p.type instanceof RefTypeNode) {
-
-                        // by-reference: Argument muss lvalue sein
-                        Cell argCell = evalLValue(argExpr);
-                        define(p.name, new RefBinding(p.type, argCell));
-                    } else {
-
-                        // by-value: Kopie
-                        Object v = eval(argExpr);
-                        define(p.name, new ValueBinding(p.type, new Cell(v)));
-                    }
-                }
-
-                // Body ausfuehren + return abfangen
-                try {
-                    exec(f.body);
-                    return null;
-                } catch (interp.ReturnValue rv) {
-                    return rv.value;
-                }
-
-            } finally {
-                scopes.pop();
-                hideSessionForCalls = prevHide;
-            }
-        }
 
-        if (e instanceof VarExpr ve) {
-            return lookupValue(ve.name);
-        }
-
-        if (e instanceof ast.FieldAccessExpr fa) {
-            return evalLValue(fa).get();
-        }
+        } else if (n instanceof ast.Statement s) {
 
-        if (e instanceof ast.MethodCallExpr mc) {
-
-            // 1) Receiver auswerten
-            Object rv = eval(mc.obj);
-            if (!(rv instanceof interp.InstanceValue inst)) {
-                throw new RuntimeException("Method call on non-object");
-            }
-
-            ast.TypeNode staticT = inferType(mc.obj);
-            if (!(staticT instanceof ast.ClassTypeNode st)) {
-                throw new RuntimeException("Receiver has no class type");
-            }
-            String staticClass = st.name;
-
-
-            // 2) Overloads in Klassenhierarchie suchen (inkl. Basisklassen)
-            java.util.List<MethodInfo> overloads = getMethodOverloadsInHierarchy(staticClass, mc.method);
-            if (overloads.isEmpty()) {
-                throw new RuntimeException("Undefined method: " + inst.dynamicClass + "." + mc.method);
-            }
-
-            // 3) Kandidaten nach Arity filtern
-            java.util.List<MethodInfo> candidates = new java.util.ArrayList<>();
-            for (MethodInfo cand : overloads) {
-                if (cand.params.size() == mc.args.size()) candidates.add(cand);
-            }
-            if (candidates.isEmpty()) {
-                throw new RuntimeException("No matching overload for " + mc.method +
-                        " with " + mc.args.size() + " args");
-            }
-
-            // 4) Argumenttypen bestimmen (wie bei Funktionen)
-            java.util.List<ast.TypeNode> argTypes = new java.util.ArrayList<>();
-            for (ast.Expr arg : mc.args) {
-                ast.TypeNode t = inferType(arg);
-                if (t == null) throw new RuntimeException("Cannot infer type of argument in call to " + mc.method);
-                argTypes.add(t);
-            }
-
-            // 5) Exakt matchen inkl. & (gleiches Schema wie bei FunctionCall)
-            MethodInfo target = null;
-            outer:
-            for (MethodInfo cand : candidates) {
-                for (int i = 0; i < cand.params.size(); i++) {
-                    ast.TypeNode paramType = cand.params.get(i).type;
-                    ast.TypeNode argType = argTypes.get(i);
-
-                    if (paramType instanceof ast.RefTypeNode rt) {
-                        if (!sameType(rt.base, argType)) continue outer;
-                        try { evalLValue(mc.args.get(i)); } catch (RuntimeException ex) { continue outer; }
-                    } else {
-                        if (!sameType(paramType, argType)) continue outer;
-                    }
-                }
-                target = cand;
-                break;
-            }
-
-            if (target == null) {
-                throw new RuntimeException("No matching overload for " + mc.method + " with given argument types");
-            }
-            // virtual dispatch wie C++: nur wenn statische Methode virtual ist UND Call ueber Referenz passiert
-            if (target.isVirtual && isCallThroughRef(mc.obj)) {
-                target = resolveOverride(inst.dynamicClass, target.name, target.params);
-            }
-
-            // 6) Call ausfuehren: Receiver setzen + Scope
-            interp.InstanceValue prevRecv = currentReceiver;
-            currentReceiver = inst;
-
-            //  REPL-Regel: Session in Calls nicht sichtbar machen
-            boolean prevHide = hideSessionForCalls;
-            hideSessionForCalls = true;
-
-            scopes.push(new java.util.HashMap<>());
-            try {
-
-                // Parameter binden (by-value / by-ref)
-                for (int i = 0; i < target.params.size(); i++) {
-                    ast.Param p = target.params.get(i);
-                    ast.Expr argExpr = mc.args.get(i);
-
-                    if (p.type instanceof ast.RefTypeNode) {
-                        Cell argCell = evalLValue(argExpr);
-                        define(p.name, new RefBinding(p.type, argCell));
-                    } else {
-                        Object v = eval(argExpr);
-                        define(p.name, new ValueBinding(p.type, new Cell(v)));
-                    }
-                }
-
-                try {
-                    exec(target.body);
-                    return null;
-                } catch (interp.ReturnValue rv2) {
-                    return rv2.value;
-                }
-
-            } finally {
-                scopes.pop();
-
-                // Session zuruecksetzen
-                hideSessionForCalls = prevHide;
-
-                // Receiver zuruecksetzen
-                currentReceiver = prevRecv;
-            }
-        }
+            // Ausfuehrung im Session-Scope
+            return context.execStatement(s);
 
+        } else if (n instanceof ast.Program p) {
+            return load(p);
 
-        if (e instanceof BinaryExpr be) {
-            if ("&&".equals(be.op)) {
-                boolean lb = toBool(eval(be.left));
-
-                // short-circuit: rechts NICHT auswerten
-                if (!lb) return false;
-                return toBool(eval(be.right));
-            }
-
-            if ("||".equals(be.op)) {
-                boolean lb = toBool(eval(be.left));
-
-                // short-circuit: rechts NICHT auswerten
-                if (lb) return true;
-                return toBool(eval(be.right));
-            }
-
-            Object l = eval(be.left);
-            Object r = eval(be.right);
-
-            return switch (be.op) {
-                case "+" -> toInt(l) + toInt(r);
-                case "-" -> toInt(l) - toInt(r);
-                case "*" -> toInt(l) * toInt(r);
-
-                case "/" -> {
-                    int valR = toInt(r);
-                    if (valR == 0) throw new RuntimeException("Division by zero");
-                    yield toInt(l) / valR;
-                }
-
-                case "%" -> {
-                    int valR = toInt(r);
-                    if (valR == 0) throw new RuntimeException("Modulo by zero");
-                    yield toInt(l) % valR;
-                }
-
-                case "=" -> {
-                    Cell left = evalLValue(be.left);
-                    Object right = eval(be.right);
-
-                    // Slicing: Base b; b = d;  (b ist ClassType Base, right ist InstanceValue von Subklasse)
-                    if (be.left instanceof ast.VarExpr lv) {
-                        ast.TypeNode lt = lookupBinding(lv.name).type();
-
-                        if (lt instanceof ast.ClassTypeNode lct && right instanceof interp.InstanceValue instR) {
-
-                            // RHS darf Subklasse sein -> slice auf LHS-Typ
-                            if (!instR.dynamicClass.equals(lct.name) && isSubclass(instR.dynamicClass, lct.name)) {
-                                right = sliceTo(lct.name, instR);
-                            }
-                        }
-                    }
-
-                    left.set(right);
-                    yield right;
-                }
-
-
-
-                case "==" -> {
-                    if (l instanceof Integer li && r instanceof Integer ri) {
-                        yield li.intValue() == ri.intValue();
-                    }
-                    if (l instanceof Boolean lb && r instanceof Boolean rb) {
-                        yield lb.booleanValue() == rb.booleanValue();
-                    }
-                    // C++ Semantik: Mixed Types
-                    int li = (l instanceof Boolean b) ? (b ? 1 : 0) : (Integer) l;
-                    int ri = (r instanceof Boolean b) ? (b ? 1 : 0) : (Integer) r;
-                    yield li == ri;
-                }
-                case "!=" -> {
-
-                    if (l instanceof Integer li && r instanceof Integer ri) {
-                        yield li.intValue() != ri.intValue();
-                    }
-                    if (l instanceof Boolean lb && r instanceof Boolean rb) {
-                        yield lb.booleanValue() != rb.booleanValue();
-                    }
-                    int li = (l instanceof Boolean b) ? (b ? 1 : 0) : toInt(l);
-                    int ri = (r instanceof Boolean b) ? (b ? 1 : 0) : toInt(r);
-                    yield li != ri;
-                }
-                case "<"  -> toInt(l) <  toInt(r);
-                case "<=" -> toInt(l) <= toInt(r);
-                case ">"  -> toInt(l) >  toInt(r);
-                case ">=" -> toInt(l) >= toInt(r);
-
-
-                default -> throw new RuntimeException("Unknown operator: " + be.op);
-            };
+        } else {
+            throw new RuntimeException("Unknown AST node in exec: " + n.getClass().getSimpleName());
         }
-
-        throw new RuntimeException("Unknown Expr node: " + e.getClass().getSimpleName());
-    }
-
-    private boolean toBool(Object v) {
-        if (v instanceof Boolean b) return b;
-        if (v instanceof Integer i) return i != 0;
-        throw new RuntimeException("Condition is not bool/int (yet): " + v);
-    }
-
-    private int toInt(Object v) {
-        if (v instanceof Integer i) return i;
-        if (v instanceof Character c) return (int) c; // 'a' -> 97
-        if (v instanceof Boolean b) return b ? 1 : 0; // true -> 1
-        throw new RuntimeException("Cannot convert to int: " + v);
     }
 
-    private boolean sameType(ast.TypeNode a, ast.TypeNode b) {
-        if (a == null || b == null) return false;
-
-        // Exakter Klassenvergleich (int != bool != char != string)
-        if (a.getClass() != b.getClass()) return false;
-
-        // Klassentypen: Name muss gleich sein
-        if (a instanceof ast.ClassTypeNode ca && b instanceof ast.ClassTypeNode cb) {
-            return ca.name.equals(cb.name);
-        }
-
-        // Referenzen: Basis-Typ muss gleich sein
-        if (a instanceof ast.RefTypeNode ra && b instanceof ast.RefTypeNode rb) {
-            return sameType(ra.base, rb.base);
-        }
-
-        return true;
-    }
-
-    private ast.TypeNode typeOfValue(Object v) {
-        if (v instanceof Integer) return new ast.IntTypeNode();
-        if (v instanceof Boolean) return new ast.BoolTypeNode();
-        if (v instanceof Character) return new ast.CharTypeNode();
-        if (v instanceof String) return new ast.StringTypeNode();
-        return null; // Klassen/Refs später
-    }
-
-    private ast.TypeNode inferType(ast.Expr e) {
-        // Literale
-        if (e instanceof ast.IntLiteral) return new ast.IntTypeNode();
-        if (e instanceof ast.BoolLiteral) return new ast.BoolTypeNode();
-        if (e instanceof ast.CharLiteral) return new ast.CharTypeNode();
-        if (e instanceof ast.StringLiteral) return new ast.StringTypeNode();
-
-        // Variable
-        if (e instanceof ast.VarExpr ve) {
-            Binding b = lookupBinding(ve.name);
-            ast.TypeNode t = b.type();
-
-            // Beim Verwenden einer Referenz zählt der Basistyp
-            if (t instanceof ast.RefTypeNode rt) return rt.base;
-
-            return t;
-        }
-
-        // Binaere Ausdruecke (vereinfachte Regeln)
-        if (e instanceof ast.BinaryExpr be) {
-            return switch (be.op) {
-                case "+", "-", "*", "/", "%" -> new ast.IntTypeNode();
-                case "==", "!=", "<", "<=", ">", ">=", "&&", "||" -> new ast.BoolTypeNode();
-                case "=" -> inferType(be.left); // Zuweisung: Typ der linken Seite
-                default -> null;
-            };
-        }
-
-        // Funktionsaufrufe: Rueckgabetyp (spaeter sauber, jetzt nicht noetig)
-        return null;
-    }
-
-    private void registerClass(ast.ClassDecl c) {
-        if (classes.containsKey(c.name)) {
-            throw new RuntimeException("Class redefined: " + c.name);
-        }
-
-        // ClassInfo anlegen
-        ClassInfo ci = new ClassInfo(c.name, c.baseName); // falls baseName bei dir anders heisst, anpassen
-
-        // Members einsammeln: bei dir sind das vermutlich VarDeclStmt und FunctionDecl
-        for (ast.ASTNode m : c.members) {
-            if (m instanceof ast.VarDeclStmt v) {
-                if (ci.fields.containsKey(v.name))
-                    throw new RuntimeException("Duplicate field: " + v.name);
-                ci.fields.put(v.name, v.type);
-
-            } else if (m instanceof ast.FunctionDecl f) {
-                MethodInfo mi = new MethodInfo(
-                        f.name,
-                        null,
-                        f.params,
-                        f.body,
-                        f.isVirtual,
-                        c.name
-                );
-                ci.methods
-                        .computeIfAbsent(f.name, k -> new java.util.ArrayList<>())
-                        .add(mi);
-
-            } else if (m instanceof ast.ConstructorDecl cd) {
-                ci.ctors.add(new CtorInfo(cd.className, cd.params, cd.body));
-
-            } else {
-                throw new RuntimeException("Unknown class member: "
-                        + m.getClass().getSimpleName());
-            }
-        }
-
-        if (ci.ctors.isEmpty()) {
-            ci.ctors.add(
-                    new CtorInfo(
-                            c.name,
-                            java.util.List.of(),
-                            new ast.BlockStmt()
-                    )
-            );
-        }
-        classes.put(c.name, ci);
-    }
-
-    private Object defaultValue(ast.TypeNode t) {
-        if (t instanceof ast.IntTypeNode) return 0;
-        if (t instanceof ast.BoolTypeNode) return false;
-        if (t instanceof ast.CharTypeNode) return '\0';
-        if (t instanceof ast.StringTypeNode) return "";
-        if (t instanceof ast.ClassTypeNode ct) return newInstance(ct.name);
-        throw new RuntimeException("No default value for type: " + t.getClass().getSimpleName());
-    }
-
-    private interp.InstanceValue newInstance(String className) {
-        ClassInfo ci = classes.get(className);
-        if (ci == null) throw new RuntimeException("Unknown class: " + className);
-
-        java.util.LinkedHashMap<String, Cell> fieldCells = new java.util.LinkedHashMap<>();
-
-        // Felder ohne Vererbung
-        var allFields = collectAllFields(className);
-        for (var e : allFields.entrySet()) {
-            fieldCells.put(e.getKey(), new Cell(defaultValue(e.getValue())));
-        }
-        return new interp.InstanceValue(className, fieldCells);
-    }
-
-    private java.util.List<MethodInfo> getMethodOverloadsInHierarchy(String className, String methodName) {
-        ClassInfo ci = classInfo(className);
-
-        java.util.List<MethodInfo> here = ci.methods.get(methodName);
-        if (here != null && !here.isEmpty()) return here;
-
-        if (ci.baseName != null) return getMethodOverloadsInHierarchy(ci.baseName, methodName);
-        return java.util.List.of();
-    }
-
-
-    private ClassInfo classInfo(String name) {
-        ClassInfo ci = classes.get(name);
-        if (ci == null) throw new RuntimeException("Unknown class: " + name);
-        return ci;
-    }
-
-    private boolean sameParamTypes(java.util.List<ast.Param> a, java.util.List<ast.Param> b) {
-        if (a.size() != b.size()) return false;
-        for (int i = 0; i < a.size(); i++) {
-            if (!sameType(a.get(i).type, b.get(i).type)) return false;
-        }
-        return true;
+    /**
+     * Fuehrt main() aus, falls vorhanden. Wenn keine main() existiert -> null.
+     * main() laeuft im Session-Scope und der Scope bleibt offen.
+     */
+    public Object runMainIfPresent() {
+        return context.runMain();
     }
 
-    private MethodInfo resolveOverride(String dynClass, String name, java.util.List<ast.Param> params) {
-        ClassInfo ci = classInfo(dynClass);
-
-        java.util.List<MethodInfo> overloads = ci.methods.get(name);
-        if (overloads != null) {
-            for (MethodInfo m : overloads) {
-                if (sameParamTypes(m.params, params)) return m;
-            }
-        }
-
-        if (ci.baseName != null) return resolveOverride(ci.baseName, name, params);
-
-        throw new RuntimeException("BUG: override resolution failed for " + name);
+    private void update(CompiledProgram next) {
+        program = next;
+        context.useProgram(next);
     }
 }
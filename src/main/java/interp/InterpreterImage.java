@@ -0,0 +1,121 @@
+package interp;
+
+import ast.ASTNode;
+import frontend.ModuleCache;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Image eines geladenen Interpreters: Programm (Funktionen, Klassen inkl.
+ * ClassInfo/MethodInfo/CtorInfo) und Session-Scope mit allen Werten.
+ * Beim Wiederherstellen entfallen Parsen und die Top-Level-Statements.
+ *
+ * Format: Magic + Formatversion, danach ein GZIP-komprimierter Java-Serialisierungsstrom.
+ * Der Strom erhaelt Objektidentitaet: Referenzen, die sich eine Cell teilen, und
+ * Objektgraphen (InstanceValue) sind nach dem Laden wieder genauso verknuepft.
+ * Bodies im Lazy-Modus werden beim Speichern aufgebaut.
+ *
+ * Session-Images (saveSession/loadSession) enthalten statt des ganzen Programms nur
+ * die Deklarationen, die eine Session zu einem geteilten Basisprogramm hinzugefuegt
+ * hat; beim Laden wird wieder auf dieselbe Basis aufgesetzt.
+ *
+ * Gelesen werden wie im ModuleCache nur Dateien des aktuellen Benutzers, und der
+ * Strom darf nur AST-, Interpreter- und java.util/java.lang-Klassen enthalten.
+ *
+ */
+public final class InterpreterImage {
+
+    private static final int MAGIC = 0x4D435049;         // "MCPI"
+    private static final int MAGIC_SESSION = 0x4D435053; // "MCPS"
+
+    // Bei inkompatiblen Aenderungen an AST oder Laufzeitklassen erhoehen
+    private static final int FORMAT = 3;
+
+    // Wie ModuleCache, zusaetzlich Laufzeitklassen (Bindungen, Zellen, Objekte); Werte koennen tief verschachtelt sein
+    private static final ObjectInputFilter FILTER = ModuleCache.filter("maxdepth=100000;interp.*");
+
+    private InterpreterImage() {}
+
+    /**
+     * Schreibt das Image atomar (temporaere Datei + move).
+     * Laufende Tasks werden vorher abgewartet.
+     */
+    public static void save(Interpreter interpreter, Path file) throws IOException {
+        write(file, MAGIC, interpreter.program(), interpreter.context().session());
+    }
+
+    /** Stellt einen Interpreter aus einem Image wieder her. */
+    @SuppressWarnings("unchecked")
+    public static Interpreter load(Path file) throws IOException {
+        Object[] parts = read(file, MAGIC, 2);
+        return new Interpreter((CompiledProgram) parts[0], (SymbolMap<Binding>) parts[1], OutputSink.stdout());
+    }
+
+    /**
+     * Speichert eine Session, deren Programm aus base entstanden ist:
+     * nur die eigenen Deklarationen und der Session-Scope.
+     */
+    public static void saveSession(Interpreter session, CompiledProgram base, Path file) throws IOException {
+        List<ASTNode> own = session.program().declarationsSince(base);
+        write(file, MAGIC_SESSION, own, session.context().session());
+    }
+
+    /** Stellt eine mit saveSession gespeicherte Session auf base wieder her. */
+    @SuppressWarnings("unchecked")
+    public static Interpreter loadSession(CompiledProgram base, Path file, OutputSink out) throws IOException {
+        Object[] parts = read(file, MAGIC_SESSION, 2);
+        CompiledProgram program = base.withDeclarations((List<ASTNode>) parts[0]);
+        return new Interpreter(program, (SymbolMap<Binding>) parts[1], out);
+    }
+
+    // --------- intern ---------
+
+    private static void write(Path file, int magic, Object... parts) throws IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), ".image", ".tmp");
+        try {
+            try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                data.writeInt(magic);
+                data.writeInt(FORMAT);
+
+                GZIPOutputStream gz = new GZIPOutputStream(data, 1 << 16);
+                ObjectOutputStream out = new ObjectOutputStream(gz);
+                for (Object p : parts) out.writeObject(p);
+                out.flush();
+                gz.finish();
+            } catch (NotSerializableException ex) {
+                throw new IOException("Value cannot be stored in an image: " + ex.getMessage(), ex);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Object[] read(Path file, int magic, int count) throws IOException {
+        if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) || !ModuleCache.ownedByCurrentUser(file)) {
+            throw new IOException("Not an image file of the current user: " + file);
+        }
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (data.readInt() != magic) throw new IOException("Not an interpreter image: " + file);
+            int format = data.readInt();
+            if (format != FORMAT) throw new IOException("Unsupported image format " + format + ": " + file);
+
+            ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(data, 1 << 16));
+            in.setObjectInputFilter(FILTER);
+            Object[] parts = new Object[count];
+            for (int i = 0; i < count; i++) parts[i] = in.readObject();
+            return parts;
+
+        } catch (InvalidClassException | ClassNotFoundException | ClassCastException ex) {
+            // InvalidClassException: auch vom Filter abgelehnt
+            throw new IOException("Corrupt interpreter image: " + file, ex);
+        }
+    }
+}
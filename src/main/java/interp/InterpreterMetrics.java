@@ -0,0 +1,199 @@
+package interp;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Laufende Zaehler eines Interpreters bzw. Programms, als MBean abrufbar
+ * (siehe InterpreterMetricsMXBean).
+ *
+ * Einschalten mit ExecutionContext.setMetrics(metrics); von dort gestartete Tasks
+ * zaehlen mit. Mehrere Kontexte (Server, Pool, Tasks) teilen sich eine Instanz:
+ * alle Zaehler sind LongAdder, gleichzeitige Kontexte kollidieren daher kaum.
+ * Ohne Metriken kostet jede Zaehlstelle nur einen null-Vergleich.
+ *
+ * Parse-Zeiten meldet, wer parst (recordParse), die Laufzeit von main() zaehlt
+ * der Kontext selbst.
+ *
+ */
+public final class InterpreterMetrics implements InterpreterMetricsMXBean {
+
+    public static final String DOMAIN = "minicpp";
+
+    final LongAdder statements = new LongAdder();
+    final LongAdder functionCalls = new LongAdder();
+    final LongAdder methodCalls = new LongAdder();
+    final LongAdder ctorCalls = new LongAdder();
+    final LongAdder nativeCalls = new LongAdder();
+    final LongAdder siteHits = new LongAdder();
+    final LongAdder siteMisses = new LongAdder();
+    final LongAdder scopes = new LongAdder();
+    final LongAdder allocated = new LongAdder();
+    final LongAdder copied = new LongAdder();
+    final LongAdder returns = new LongAdder();
+    final LongAdder outputBytes = new LongAdder();
+
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final LatencyHistogram run = new LatencyHistogram();
+
+    private ObjectName registeredAs;
+
+    /**
+     * Registriert die Metriken beim Plattform-MBeanServer unter
+     * minicpp:type=Interpreter,name=<name>.
+     */
+    public synchronized ObjectName register(String name) {
+        if (registeredAs != null) throw new IllegalStateException("Already registered as " + registeredAs);
+        try {
+            ObjectName on = new ObjectName(DOMAIN + ":type=Interpreter,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+            registeredAs = on;
+            return on;
+        } catch (InstanceAlreadyExistsException ex) {
+            throw new IllegalStateException("MBean name already in use: " + name, ex);
+        } catch (JMException ex) {
+            throw new RuntimeException("Cannot register metrics: " + ex.getMessage(), ex);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (registeredAs == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredAs);
+        } catch (JMException ex) {
+            // schon entfernt
+        }
+        registeredAs = null;
+    }
+
+    /** Dauer einer Parse-Phase (Quelltext -> AST). */
+    public void recordParse(long nanos) {
+        parse.record(nanos);
+    }
+
+    void recordRun(long nanos) {
+        run.record(nanos);
+    }
+
+    // Aufruf nach Art des Ziels zaehlen (siehe ExecutionContext.enterCall)
+    void call(Object callee) {
+        if (callee instanceof MethodInfo) methodCalls.increment();
+        else if (callee instanceof CtorInfo) ctorCalls.increment();
+        else if (callee instanceof NativeFunction) nativeCalls.increment();
+        else functionCalls.increment();
+    }
+
+    /** Zaehlt die geschriebenen Bytes (UTF-8, inkl. Zeilenende) und reicht weiter. */
+    OutputSink counting(OutputSink out) {
+        if (out instanceof CountingSink cs && cs.metrics == this) return out;
+        return new CountingSink(unwrap(out), this);
+    }
+
+    static OutputSink unwrap(OutputSink out) {
+        return (out instanceof CountingSink cs) ? cs.target : out;
+    }
+
+    private static final class CountingSink implements OutputSink {
+        final OutputSink target;
+        final InterpreterMetrics metrics;
+
+        CountingSink(OutputSink target, InterpreterMetrics metrics) {
+            this.target = target;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void println(int v) {
+            target.println(v);
+            metrics.outputBytes.add(digits(v) + 1);
+        }
+
+        @Override
+        public void println(char c) {
+            target.println(c);
+            metrics.outputBytes.add((c < 0x80 ? 1 : c < 0x800 ? 2 : 3) + 1);
+        }
+
+        @Override
+        public void println(String s) {
+            target.println(s);
+            metrics.outputBytes.add(utf8Length(s) + 1);
+        }
+
+        @Override
+        public void flush() {
+            target.flush();
+        }
+
+        private static int digits(int v) {
+            if (v == Integer.MIN_VALUE) return 11;
+            int n = (v < 0) ? 2 : 1;
+            v = Math.abs(v);
+            while (v >= 10) {
+                v /= 10;
+                n++;
+            }
+            return n;
+        }
+
+        private static int utf8Length(String s) {
+            int n = s.length();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c >= 0x800 && !Character.isSurrogate(c)) n += 2;
+                else if (c >= 0x80) n += 1;   // 2-Byte-Zeichen bzw. halbes Surrogat-Paar (4 Bytes)
+            }
+            return n;
+        }
+    }
+
+    // --------- MXBean ---------
+
+    @Override public long getStatementsExecuted() { return statements.sum(); }
+    @Override public long getFunctionCalls() { return functionCalls.sum(); }
+    @Override public long getMethodCalls() { return methodCalls.sum(); }
+    @Override public long getConstructorCalls() { return ctorCalls.sum(); }
+    @Override public long getNativeCalls() { return nativeCalls.sum(); }
+    @Override public long getCallSiteHits() { return siteHits.sum(); }
+    @Override public long getCallSiteMisses() { return siteMisses.sum(); }
+
+    @Override
+    public double getCallSiteHitRate() {
+        long hits = siteHits.sum();
+        long total = hits + siteMisses.sum();
+        return (total == 0) ? 0.0 : (double) hits / total;
+    }
+
+    @Override public long getScopesPushed() { return scopes.sum(); }
+    @Override public long getObjectsAllocated() { return allocated.sum(); }
+    @Override public long getObjectsCopied() { return copied.sum(); }
+    @Override public long getReturnThrows() { return returns.sum(); }
+    @Override public long getOutputBytes() { return outputBytes.sum(); }
+
+    @Override public long getParseCount() { return parse.count(); }
+    @Override public double getParseMeanMillis() { return parse.meanMillis(); }
+    @Override public double getParseP99Millis() { return parse.percentileMillis(99); }
+    @Override public double getParseMaxMillis() { return parse.maxMillis(); }
+
+    @Override public long getRunCount() { return run.count(); }
+    @Override public double getRunMeanMillis() { return run.meanMillis(); }
+    @Override public double getRunP50Millis() { return run.percentileMillis(50); }
+    @Override public double getRunP99Millis() { return run.percentileMillis(99); }
+    @Override public double getRunMaxMillis() { return run.maxMillis(); }
+    @Override public long[] getRunHistogram() { return run.buckets(); }
+
+    @Override
+    public void reset() {
+        for (LongAdder a : new LongAdder[]{statements, functionCalls, methodCalls, ctorCalls, nativeCalls,
+                siteHits, siteMisses, scopes, allocated, copied, returns, outputBytes}) {
+            a.reset();
+        }
+        parse.reset();
+        run.reset();
+    }
+}
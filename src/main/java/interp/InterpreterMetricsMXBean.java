@@ -0,0 +1,63 @@
+package interp;
+
+/**
+ * JMX-Sicht auf InterpreterMetrics (Objektname minicpp:type=Interpreter,name=...).
+ * Alle Zaehler laufen seit dem Anlegen bzw. dem letzten reset().
+ *
+ */
+public interface InterpreterMetricsMXBean {
+
+    long getStatementsExecuted();
+
+    long getFunctionCalls();
+
+    long getMethodCalls();
+
+    long getConstructorCalls();
+
+    long getNativeCalls();
+
+    /**
+     * Funktionsaufrufstellen mit gueltigem Ziel im Cache bzw. mit neuer Aufloesung.
+     * Methodenaufrufe haben keinen Cache und zaehlen hier nicht.
+     */
+    long getCallSiteHits();
+
+    long getCallSiteMisses();
+
+    /** Anteil der Cache-Treffer (0..1), 0 ohne Aufrufe. */
+    double getCallSiteHitRate();
+
+    long getScopesPushed();
+
+    long getObjectsAllocated();
+
+    long getObjectsCopied();
+
+    long getReturnThrows();
+
+    long getOutputBytes();
+
+    long getParseCount();
+
+    double getParseMeanMillis();
+
+    double getParseP99Millis();
+
+    double getParseMaxMillis();
+
+    long getRunCount();
+
+    double getRunMeanMillis();
+
+    double getRunP50Millis();
+
+    double getRunP99Millis();
+
+    double getRunMaxMillis();
+
+    /** Laufzeiten von main() pro Bucket (Bucket i: bis 2^i Mikrosekunden). */
+    long[] getRunHistogram();
+
+    void reset();
+}
@@ -0,0 +1,118 @@
+package interp;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool fertig geladener Ausfuehrungskontexte fuer ein Programm.
+ * Ein Kontext wird einmal erzeugt (Top-Level-Statements ausgefuehrt) und danach
+ * per Snapshot des Session-Scopes zurueckgesetzt statt neu aufgebaut.
+ *
+ * borrow()/release() sind lock-frei (ConcurrentLinkedQueue + Zaehler) und
+ * blockieren nie: ist kein Kontext frei, wird ein neuer angelegt.
+ * Die Anzahl behaltener freier Kontexte richtet sich nach der beobachteten
+ * Spitzenlast (gleichzeitig ausgeliehene Kontexte), die langsam wieder abklingt.
+ *
+ */
+public final class InterpreterPool {
+
+    // Nach so vielen release()-Aufrufen klingt die Spitzenlast ab
+    private static final int DECAY_INTERVAL = 1024;
+
+    private static final OutputSink DISCARD = OutputSink.discard();
+    private static final InputSource NO_INPUT = InputSource.of("");
+
+    private final CompiledProgram program;
+    private final int minIdle;
+
+    private final ConcurrentLinkedQueue<ExecutionContext> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger releases = new AtomicInteger();
+
+    public InterpreterPool(CompiledProgram program) {
+        this(program, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param minIdle so viele Kontexte werden sofort angelegt und immer behalten
+     */
+    public InterpreterPool(CompiledProgram program, int minIdle) {
+        this.program = program;
+        this.minIdle = minIdle;
+        for (int i = 0; i < minIdle; i++) {
+            idle.offer(create());
+            idleCount.incrementAndGet();
+        }
+    }
+
+    public CompiledProgram program() {
+        return program;
+    }
+
+    /**
+     * Waermt JIT und Kontexte an: fuehrt main() iterations-mal aus (Ausgabe verworfen)
+     * und setzt danach zurueck.
+     */
+    public void warmup(int iterations) {
+        if (program.main() == null) return;
+        for (int i = 0; i < iterations; i++) {
+            ExecutionContext ctx = borrow();
+            try {
+                ctx.setOutput(DISCARD);
+                ctx.runMain();
+            } catch (RuntimeException ex) {
+                // Warmup-Fehler ignorieren; der echte Aufruf meldet sie
+            } finally {
+                release(ctx);
+            }
+        }
+    }
+
+    /**
+     * Leiht einen Kontext im Zustand direkt nach dem Laden aus.
+     * Muss mit release() zurueckgegeben werden.
+     */
+    public ExecutionContext borrow() {
+        ExecutionContext ctx = idle.poll();
+        if (ctx != null) idleCount.decrementAndGet();
+        else ctx = create();
+
+        int n = inUse.incrementAndGet();
+        peak.accumulateAndGet(n, Math::max);
+        return ctx;
+    }
+
+    /** Gibt einen Kontext zurueck; er wird auf den Snapshot zurueckgesetzt. */
+    public void release(ExecutionContext ctx) {
+        int n = inUse.decrementAndGet();
+        if (releases.incrementAndGet() % DECAY_INTERVAL == 0) {
+            peak.getAndUpdate(p -> Math.max(n, p - (p >> 2)));
+        }
+
+        // Ueber dem Ziel -> verwerfen (GC raeumt auf)
+        if (idleCount.get() >= Math.max(minIdle, peak.get())) return;
+
+        ctx.resetToSnapshot();
+        ctx.setOutput(OutputSink.stdout());
+        ctx.setInput(InputSource.stdin());
+        ctx.setBudget(null);
+        idle.offer(ctx);
+        idleCount.incrementAndGet();
+    }
+
+    /** Anzahl freier Kontexte. */
+    public int idle() {
+        return idleCount.get();
+    }
+
+    private ExecutionContext create() {
+        // Ein- und Ausgaben der Top-Level-Statements gehoeren zu keinem Aufruf
+        ExecutionContext ctx = program.newContext(DISCARD, null, NO_INPUT);
+        ctx.setOutput(OutputSink.stdout());
+        ctx.setInput(InputSource.stdin());
+        ctx.takeSnapshot();
+        return ctx;
+    }
+}
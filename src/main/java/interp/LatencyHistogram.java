@@ -0,0 +1,78 @@
+package interp;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramm fuer Dauern mit Zweierpotenz-Buckets (Bucket i: bis 2^i Mikrosekunden,
+ * der letzte nimmt alles Laengere auf). Alle Zaehler sind gestreift (LongAdder),
+ * gleichzeitige Aufnahmen aus mehreren Threads kollidieren daher kaum.
+ * Perzentile sind auf die Bucket-Obergrenze genau (Faktor 2).
+ *
+ */
+public final class LatencyHistogram {
+
+    // 2^0 .. 2^31 us (~36 min)
+    static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos) / 1000;
+        int b = (micros <= 1) ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        buckets[Math.min(b, BUCKETS - 1)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public double meanMillis() {
+        long n = count.sum();
+        return (n == 0) ? 0.0 : totalNanos.sum() / 1e6 / n;
+    }
+
+    public double maxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /** Obergrenze des Buckets, in dem das Perzentil p (0..100) liegt, in Millisekunden. */
+    public double percentileMillis(double p) {
+        long[] counts = buckets();
+        long n = 0;
+        for (long c : counts) n += c;
+        if (n == 0) return 0.0;
+
+        long rank = (long) Math.ceil(p / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) return Math.min((1L << i) / 1000.0, maxMillis());
+        }
+        return maxMillis();
+    }
+
+    /** Anzahl pro Bucket (Bucket i: bis 2^i Mikrosekunden). */
+    public long[] buckets() {
+        long[] res = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) res[i] = buckets[i].sum();
+        return res;
+    }
+
+    public void reset() {
+        for (LongAdder b : buckets) b.reset();
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
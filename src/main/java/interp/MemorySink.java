@@ -0,0 +1,41 @@
+package interp;
+
+/**
+ * Sammelt die Ausgabe im Speicher, z.B. fuer eingebettete Interpreter,
+ * Server-Requests und Batch-Laeufe.
+ *
+ */
+public final class MemorySink implements OutputSink {
+
+    private final StringBuilder text = new StringBuilder();
+
+    @Override
+    public synchronized void println(int v) {
+        text.append(v).append('\n');
+    }
+
+    @Override
+    public synchronized void println(char c) {
+        text.append(c).append('\n');
+    }
+
+    @Override
+    public synchronized void println(String s) {
+        text.append(s).append('\n');
+    }
+
+    @Override
+    public void flush() {
+        // nichts gepuffert
+    }
+
+    /** Bisher geschriebener Text. */
+    public synchronized String text() {
+        return text.toString();
+    }
+
+    /** Verwirft den bisherigen Text. */
+    public synchronized void clear() {
+        text.setLength(0);
+    }
+}
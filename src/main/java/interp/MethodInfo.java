@@ -8,17 +8,20 @@ import java.util.*;
  * Enthaelt Informationen, die fuer Overload-Resolution und Virtual-Dispatch noetig sind.
  *
  */
-public final class MethodInfo {
-    public final String name;
+public final class MethodInfo implements java.io.Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public final Symbol name;
     public final TypeNode returnType;
     public final List<Param> params;
-    public final BlockStmt body;
+    public final LazyBlock body;
     public final boolean isVirtual;
 
     // KLassenname des Definitionsortes
-    public final String definedIn;
+    public final Symbol definedIn;
 
-    public MethodInfo(String name, TypeNode returnType, List<Param> params, BlockStmt body, boolean isVirtual, String definedIn) {
+    public MethodInfo(Symbol name, TypeNode returnType, List<Param> params, LazyBlock body, boolean isVirtual, Symbol definedIn) {
         this.name = name; this.returnType = returnType; this.params = params; this.body = body;
         this.isVirtual = isVirtual; this.definedIn = definedIn;
     }
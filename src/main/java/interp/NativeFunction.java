@@ -0,0 +1,152 @@
+package interp;
+
+import ast.Symbol;
+import ast.TypeNode;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * In Java implementierte Funktion, die Skripte wie eine MiniCpp-Funktion aufrufen.
+ * Die Builtins (print_*, read_*, eof) sind ebenfalls NativeFunctions, siehe Builtins.
+ *
+ * Die Signatur wird bei der Registrierung festgelegt und nimmt an der
+ * Ueberladungsaufloesung teil (zusammen mit gleichnamigen MiniCpp-Funktionen).
+ * Erlaubte Typen: int, bool, char, string (Java: int, boolean, char, String),
+ * als Rueckgabe zusaetzlich void. Parameter sind immer by-value.
+ *
+ * Registrieren: Interpreter.registerNative() bzw. CompiledProgram.withNative().
+ *
+ */
+public final class NativeFunction {
+
+    // Rumpf; bekommt den aufrufenden Kontext und die ausgewerteten Argumente
+    @FunctionalInterface
+    interface Body {
+        Object call(ExecutionContext ctx, Object[] args) throws Throwable;
+    }
+
+    public final Symbol name;
+
+    /** Rueckgabetyp (void als ClassTypeNode "void", wie bei FunctionDecl). */
+    public final TypeNode returnType;
+
+    public final List<TypeNode> paramTypes;
+
+    private final Body body;
+
+    NativeFunction(Symbol name, TypeNode returnType, List<TypeNode> paramTypes, Body body) {
+        this.name = name;
+        this.returnType = returnType;
+        this.paramTypes = List.copyOf(paramTypes);
+        this.body = body;
+    }
+
+    /** int name(int, int) */
+    public static NativeFunction of(String name, IntBinaryOperator op) {
+        return new NativeFunction(Symbol.of(name), new ast.IntTypeNode(),
+                List.of(new ast.IntTypeNode(), new ast.IntTypeNode()),
+                (ctx, a) -> op.applyAsInt((Integer) a[0], (Integer) a[1]));
+    }
+
+    /** int name(int) */
+    public static NativeFunction of(String name, IntUnaryOperator op) {
+        return new NativeFunction(Symbol.of(name), new ast.IntTypeNode(),
+                List.of(new ast.IntTypeNode()),
+                (ctx, a) -> op.applyAsInt((Integer) a[0]));
+    }
+
+    /**
+     * Beliebige Java-Methode; die Signatur ergibt sich aus handle.type().
+     * Beispiel: lookup.findStatic(Math.class, "floorMod", methodType(int.class, int.class, int.class)).
+     * Das Handle wird einmal auf (Object[])Object angepasst, ein Aufruf ist danach
+     * ein invokeExact ohne Reflection.
+     */
+    public static NativeFunction of(String name, MethodHandle handle) {
+        // Varargs-Methoden mit fester Arity (letzter Parameter ist dann ein Array -> abgelehnt)
+        handle = handle.asFixedArity();
+        MethodType mt = handle.type();
+
+        List<TypeNode> params = new ArrayList<>(mt.parameterCount());
+        for (Class<?> c : mt.parameterArray()) params.add(typeOf(name, c, false));
+        TypeNode ret = typeOf(name, mt.returnType(), true);
+
+        MethodHandle spread = handle
+                .asSpreader(Object[].class, mt.parameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return new NativeFunction(Symbol.of(name), ret, params, (ctx, a) -> (Object) spread.invokeExact(a));
+    }
+
+    /** Wie of(name, handle) fuer eine statische Methode der Klasse. */
+    public static NativeFunction of(String name, Class<?> owner, String method, Class<?> returnType, Class<?>... paramTypes) {
+        try {
+            MethodHandle mh = MethodHandles.publicLookup()
+                    .findStatic(owner, method, MethodType.methodType(returnType, paramTypes));
+            return of(name, mh);
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalArgumentException("Cannot bind " + owner.getName() + "." + method + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /** Ruft die Funktion auf; prueft die Argumente gegen die Signatur. */
+    Object call(ExecutionContext ctx, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!accepts(paramTypes.get(i), args[i])) {
+                throw new RuntimeException(name + ": argument " + (i + 1) + " must be " + describe(paramTypes.get(i)));
+            }
+        }
+        try {
+            return body.call(ctx, args);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException(name + ": " + ex, ex);
+        }
+    }
+
+    /** z.B. "int gcd(int, int)" */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(describe(returnType)).append(' ').append(name).append('(');
+        for (int i = 0; i < paramTypes.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(describe(paramTypes.get(i)));
+        }
+        return sb.append(')').toString();
+    }
+
+    // --------- intern ---------
+
+    private static TypeNode typeOf(String name, Class<?> c, boolean isReturn) {
+        if (c == int.class) return new ast.IntTypeNode();
+        if (c == boolean.class) return new ast.BoolTypeNode();
+        if (c == char.class) return new ast.CharTypeNode();
+        if (c == String.class) return new ast.StringTypeNode();
+        if (c == void.class && isReturn) return new ast.ClassTypeNode(Symbol.of("void"));
+        throw new IllegalArgumentException("Unsupported type in native function " + name + ": " + c.getName());
+    }
+
+    private static boolean accepts(TypeNode t, Object v) {
+        if (t instanceof ast.IntTypeNode) return v instanceof Integer;
+        if (t instanceof ast.BoolTypeNode) return v instanceof Boolean;
+        if (t instanceof ast.CharTypeNode) return v instanceof Character;
+        if (t instanceof ast.StringTypeNode) return v instanceof String;
+        return false;
+    }
+
+    static String describe(TypeNode t) {
+        if (t instanceof ast.IntTypeNode) return "int";
+        if (t instanceof ast.BoolTypeNode) return "bool";
+        if (t instanceof ast.CharTypeNode) return "char";
+        if (t instanceof ast.StringTypeNode) return "string";
+        if (t instanceof ast.ClassTypeNode ct) return ct.name.name;
+        if (t instanceof ast.RefTypeNode rt) return describe(rt.base) + "&";
+        if (t instanceof ast.TaskTypeNode tt) return "task<" + describe(tt.result) + ">";
+        return t.getClass().getSimpleName();
+    }
+}
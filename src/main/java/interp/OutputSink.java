@@ -0,0 +1,55 @@
+package interp;
+
+import java.io.PrintStream;
+
+/**
+ * Ziel fuer print_* und das Echo von Ausdrucks-Statements.
+ * Jede Ausgabe ist eine Zeile; print_bool schreibt 1/0 ueber println(int).
+ *
+ * Implementierungen:
+ *   BufferedSink  byte-gepuffert, Zahlen und Zeichen ohne Zwischen-Strings (Standard, stdout())
+ *   MemorySink    sammelt die Ausgabe im Speicher (Einbettung, Server, Batch)
+ *   of(...)       Adapter auf einen vorhandenen PrintStream
+ *
+ * Tasks schreiben in die Senke ihres Erzeugers; Implementierungen muessen daher
+ * threadsicher sein (eine Zeile wird nie mit einer anderen vermischt).
+ *
+ */
+public interface OutputSink {
+
+    void println(int v);
+
+    void println(char c);
+
+    void println(String s);
+
+    /** Schreibt gepufferte Ausgaben durch. */
+    void flush();
+
+    /** Echo eines beliebigen Werts (wie PrintStream.println(Object)). */
+    default void println(Object v) {
+        if (v instanceof Integer i) println(i.intValue());
+        else if (v instanceof Character c) println(c.charValue());
+        else println(String.valueOf(v));
+    }
+
+    /** Gepufferte Standardausgabe; wird spaetestens beim Beenden der JVM geschrieben. */
+    static OutputSink stdout() {
+        return BufferedSink.stdout();
+    }
+
+    /** Verwirft alle Ausgaben. */
+    static OutputSink discard() {
+        return BufferedSink.DISCARD;
+    }
+
+    /** Schreibt in einen vorhandenen PrintStream (flush() leert ihn). */
+    static OutputSink of(PrintStream out) {
+        return new OutputSink() {
+            @Override public void println(int v) { out.println(v); }
+            @Override public void println(char c) { out.println(c); }
+            @Override public void println(String s) { out.println(s); }
+            @Override public void flush() { out.flush(); }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package interp;
+
+import ast.Symbol;
+
+/**
+ * Unveraenderliche Tabelle int -> Wert (Radix-Trie mit 32 Eintraegen pro Knoten).
+ * with() kopiert nur den Pfad zum geaenderten Eintrag (hoechstens 7 Knoten),
+ * alle anderen Knoten teilt sich die neue Version mit der alten. So kostet eine
+ * weitere Deklaration in CompiledProgram nicht mehr eine Kopie aller Tabellen.
+ *
+ * Schluessel sind dichte, kleine Zahlen: Symbol-IDs (Funktions- und Klassentabellen)
+ * oder Positionen (Deklarationen in Registrierungsreihenfolge). Die Tabelle haelt
+ * nur die ID; der Wert muss sein Symbol erreichbar halten (FunctionDecl.name,
+ * ClassInfo.name), sonst koennte die ID an ein anderes Symbol gehen (siehe Symbol).
+ * null als Wert gibt es nicht, get() liefert null fuer "nicht vorhanden".
+ *
+ */
+final class PersistentTable<V> {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentTable<?> EMPTY = new PersistentTable<>(null, 0, 0);
+
+    // Wurzelknoten (null = leer); auf Ebene shift == 0 liegen die Werte
+    private final Object[] root;
+    private final int shift;
+    private final int size;
+
+    private PersistentTable(Object[] root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentTable<V> empty() {
+        return (PersistentTable<V>) EMPTY;
+    }
+
+    /** Anzahl der Eintraege. */
+    int size() {
+        return size;
+    }
+
+    V get(Symbol key) {
+        return get(key.id);
+    }
+
+    boolean containsKey(Symbol key) {
+        return get(key.id) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        Object[] node = root;
+        if (node == null || key < 0 || (key >>> shift) > MASK) return null;
+        for (int s = shift; s > 0; s -= BITS) {
+            node = (Object[]) node[(key >>> s) & MASK];
+            if (node == null) return null;
+        }
+        return (V) node[key & MASK];
+    }
+
+    PersistentTable<V> with(Symbol key, V value) {
+        return with(key.id, value);
+    }
+
+    /** Neue Version, in der key auf value zeigt; diese Version bleibt unveraendert. */
+    PersistentTable<V> with(int key, V value) {
+        if (key < 0) throw new IllegalArgumentException("negative key: " + key);
+        if (value == null) throw new NullPointerException("value");
+
+        Object[] r = (root != null) ? root : new Object[WIDTH];
+        int s = (root != null) ? shift : 0;
+        // Wurzel nach oben erweitern, bis key hineinpasst
+        while ((key >>> s) > MASK) {
+            Object[] up = new Object[WIDTH];
+            up[0] = r;
+            r = up;
+            s += BITS;
+        }
+        boolean added = get(key) == null;
+        return new PersistentTable<>(put(r, s, key, value), s, added ? size + 1 : size);
+    }
+
+    /** Neue Version mit value an Position size() (Liste als Tabelle). */
+    PersistentTable<V> append(V value) {
+        return with(size, value);
+    }
+
+    private static Object[] put(Object[] node, int shift, int key, Object value) {
+        Object[] copy = node.clone();
+        int i = (key >>> shift) & MASK;
+        if (shift == 0) {
+            copy[i] = value;
+        } else {
+            Object[] child = (Object[]) node[i];
+            copy[i] = put((child != null) ? child : new Object[WIDTH], shift - BITS, key, value);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,318 @@
+package interp;
+
+import ast.Param;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instrumentierender Profiler: Aufrufe, Self- und Gesamtzeit pro Funktion, Methode,
+ * Konstruktor und nativer Funktion, ausserdem die Kosten der Ueberladungsaufloesung
+ * pro Aufrufstelle.
+ *
+ * Einschalten mit ExecutionContext.setProfiler(profiler). Jeder Kontext (und jeder
+ * von dort gestartete Task) zeichnet in einen eigenen Recorder auf, ohne
+ * Synchronisation: pro Aufruf zwei System.nanoTime() und ein Schritt im Aufrufbaum.
+ * Ohne Profiler kostet jeder Aufruf nur einen null-Vergleich.
+ * Ist ein Task fertig, wird sein Recorder in einen gemeinsamen Recorder fuer alle
+ * beendeten Tasks eingerechnet und abgemeldet (viele kurze Tasks halten so keine
+ * eigenen Aufrufbaeume).
+ *
+ * Ausgabe (nach der Ausfuehrung abrufen):
+ * - report(): Tabelle nach Self-Zeit sortiert, danach die teuersten Aufloesungen
+ * - writeCollapsed(): ein Stack pro Zeile ("main;fib;fib 12345", Self-Zeit in ns),
+ *   Eingabeformat von flamegraph.pl und kompatiblen Werkzeugen
+ *
+ * Die Gesamtzeit einer rekursiven Funktion zaehlt nur den aeussersten Aufruf.
+ *
+ */
+public final class Profiler {
+
+    // Alle Recorder (einer pro Kontext bzw. laufendem Task)
+    private final List<Recorder> recorders = new ArrayList<>();
+
+    // Messungen beendeter Tasks (nur unter synchronized(this) veraendert)
+    private final Recorder finished = new Recorder();
+
+    /** Neuer Recorder fuer einen Kontext. */
+    synchronized Recorder newRecorder() {
+        Recorder r = new Recorder();
+        recorders.add(r);
+        return r;
+    }
+
+    /** Task ist fertig: seine Messungen in finished einrechnen und den Recorder abmelden. */
+    synchronized void finish(Recorder r) {
+        if (!recorders.remove(r)) return;
+        if (r.root.children != null) {
+            for (Node n : r.root.children.values()) merge(n, finished.root.child(n.key));
+        }
+        for (Map.Entry<Object, Site> e : r.sites.entrySet()) {
+            Site s = finished.sites.computeIfAbsent(e.getKey(), k -> new Site(e.getValue().label));
+            s.count += e.getValue().count;
+            s.timed += e.getValue().timed;
+            s.nanos += e.getValue().nanos;
+        }
+    }
+
+    private static void merge(Node from, Node into) {
+        into.calls += from.calls;
+        into.total += from.total;
+        if (from.children == null) return;
+        for (Node c : from.children.values()) merge(c, into.child(c.key));
+    }
+
+    private synchronized List<Recorder> recorders() {
+        List<Recorder> res = new ArrayList<>(recorders);
+        res.add(finished);
+        return res;
+    }
+
+    /** Verwirft alle bisherigen Messungen (Recorder bleiben angemeldet). */
+    public synchronized void reset() {
+        for (Recorder r : recorders()) r.reset();
+    }
+
+    // --------- Aufzeichnung (pro Kontext, ein Thread) ---------
+
+    // Knoten im Aufrufbaum: ein Pfad von Aufrufen
+    static final class Node {
+        final Object key;
+        final Node parent;
+        Map<Object, Node> children;
+        Node last;     // zuletzt betretenes Kind (Schleifen, Rekursion)
+        long calls;
+        long total;
+        long start;    // Beginn des laufenden Aufrufs (ein Pfad ist nie doppelt aktiv)
+
+        Node(Object key, Node parent) {
+            this.key = key;
+            this.parent = parent;
+        }
+
+        Node child(Object k) {
+            Node n = last;
+            if (n != null && n.key == k) return n;
+            if (children == null) children = new IdentityHashMap<>(4);
+            n = children.get(k);
+            if (n == null) {
+                n = new Node(k, this);
+                children.put(k, n);
+            }
+            return last = n;
+        }
+    }
+
+    // Kosten der Aufloesung an einer Aufrufstelle: gezaehlt wird jede, gemessen
+    // nur jede SAMPLE_RATE-te (hochgerechnet im Bericht)
+    static final class Site {
+        final String label;
+        long count;
+        long timed;
+        long nanos;
+
+        long estimatedNanos() {
+            return timed == 0 ? 0 : nanos * count / timed;
+        }
+
+        Site(String label) {
+            this.label = label;
+        }
+    }
+
+    // Jede wievielte Aufloesung gemessen wird; Methodenaufrufe loesen bei jedem Aufruf auf
+    private static final int SAMPLE_RATE = 16;
+
+    static final class Recorder {
+        private Node root = new Node(null, null);
+        private Node current = root;
+        private Map<Object, Site> sites = new IdentityHashMap<>();
+        private Object lastSite;
+        private Site last;
+        private int untilSample;
+
+        void enter(Object callee) {
+            current = current.child(callee);
+            current.calls++;
+            current.start = System.nanoTime();
+        }
+
+        void exit() {
+            // Profiler erst waehrend eines Aufrufs eingeschaltet
+            if (current == root) return;
+            current.total += System.nanoTime() - current.start;
+            current = current.parent;
+        }
+
+        /** Beginn einer Aufloesung: Startzeit, oder 0 wenn diese nicht gemessen wird. */
+        long resolveStart() {
+            if (--untilSample > 0) return 0;
+            untilSample = SAMPLE_RATE;
+            return System.nanoTime();
+        }
+
+        /** Ende einer Aufloesung an einer Aufrufstelle (FunctionCallExpr/MethodCallExpr). */
+        void resolved(Object site, long start) {
+            Site s = last;
+            if (lastSite != site) {
+                s = sites.get(site);
+                if (s == null) {
+                    s = new Site(site(site) + " in " + (current.key == null ? "<top>" : name(current.key)));
+                    sites.put(site, s);
+                }
+                lastSite = site;
+                last = s;
+            }
+            s.count++;
+            if (start != 0) {
+                s.timed++;
+                s.nanos += System.nanoTime() - start;
+            }
+        }
+
+        void reset() {
+            root = new Node(null, null);
+            current = root;
+            sites = new IdentityHashMap<>();
+            lastSite = null;
+            last = null;
+        }
+    }
+
+    // --------- Auswertung ---------
+
+    private static final class Stats {
+        final String name;
+        long calls, self, total;
+
+        Stats(String name) {
+            this.name = name;
+        }
+    }
+
+    /** Textbericht: pro Funktion Aufrufe, Self- und Gesamtzeit, nach Self-Zeit sortiert. */
+    public synchronized String report() {
+        Map<Object, Stats> perKey = new IdentityHashMap<>();
+        Map<Object, Integer> active = new IdentityHashMap<>();
+        long all = 0;
+        for (Recorder r : recorders()) {
+            if (r.root.children == null) continue;
+            for (Node n : r.root.children.values()) {
+                collect(n, perKey, active);
+                all += n.total;
+            }
+        }
+
+        List<Stats> rows = new ArrayList<>(perKey.values());
+        rows.sort((a, b) -> Long.compare(b.self, a.self));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%12s %11s %7s %11s  %s%n", "calls", "self ms", "self%", "total ms", "function"));
+        for (Stats s : rows) {
+            sb.append(String.format("%12d %11.3f %6.1f%% %11.3f  %s%n",
+                    s.calls, s.self / 1e6, all == 0 ? 0.0 : 100.0 * s.self / all, s.total / 1e6, s.name));
+        }
+
+        // Aufrufstellen ueber alle Recorder zusammenfassen
+        Map<Object, Site> merged = new IdentityHashMap<>();
+        for (Recorder r : recorders()) {
+            for (Map.Entry<Object, Site> e : r.sites.entrySet()) {
+                Site s = merged.computeIfAbsent(e.getKey(), k -> new Site(e.getValue().label));
+                s.count += e.getValue().count;
+                s.timed += e.getValue().timed;
+                s.nanos += e.getValue().nanos;
+            }
+        }
+        List<Site> sites = new ArrayList<>(merged.values());
+        if (!sites.isEmpty()) {
+            sites.sort((a, b) -> Long.compare(b.estimatedNanos(), a.estimatedNanos()));
+            sb.append(String.format("%noverload resolution per call site (sampled):%n%12s %11s  %s%n", "resolutions", "est. ms", "site"));
+            for (Site s : sites.subList(0, Math.min(20, sites.size()))) {
+                sb.append(String.format("%12d %11.3f  %s%n", s.count, s.estimatedNanos() / 1e6, s.label));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void collect(Node n, Map<Object, Stats> perKey, Map<Object, Integer> active) {
+        Stats s = perKey.computeIfAbsent(n.key, k -> new Stats(name(k)));
+        s.calls += n.calls;
+        s.self += selfTime(n);
+
+        // Rekursion: Gesamtzeit nur fuer den aeussersten Aufruf auf dem Pfad
+        int onPath = active.getOrDefault(n.key, 0);
+        if (onPath == 0) s.total += n.total;
+        active.put(n.key, onPath + 1);
+        if (n.children != null) {
+            for (Node c : n.children.values()) collect(c, perKey, active);
+        }
+        if (onPath == 0) active.remove(n.key);
+        else active.put(n.key, onPath);
+    }
+
+    /** Collapsed Stacks fuer Flame Graphs: "a;b;c <self ns>" pro Pfad. */
+    public synchronized void writeCollapsed(Appendable out) throws IOException {
+        // gleiche Pfade aus mehreren Recordern (Tasks, Aufrufe) zusammenfassen
+        Map<String, Long> stacks = new LinkedHashMap<>();
+        for (Recorder r : recorders()) {
+            if (r.root.children == null) continue;
+            for (Node n : r.root.children.values()) collectStacks(n, new StringBuilder(), stacks);
+        }
+        for (Map.Entry<String, Long> e : stacks.entrySet()) {
+            out.append(e.getKey()).append(' ').append(Long.toString(e.getValue())).append('\n');
+        }
+    }
+
+    private static void collectStacks(Node n, StringBuilder path, Map<String, Long> stacks) {
+        int len = path.length();
+        if (len > 0) path.append(';');
+        // ';' und ' ' trennen im Format Frames bzw. den Wert
+        path.append(name(n.key).replace(";", "").replace(" ", ""));
+
+        long self = selfTime(n);
+        if (self > 0) stacks.merge(path.toString(), self, Long::sum);
+        if (n.children != null) {
+            for (Node c : n.children.values()) collectStacks(c, path, stacks);
+        }
+        path.setLength(len);
+    }
+
+    private static long selfTime(Node n) {
+        long self = n.total;
+        if (n.children != null) {
+            for (Node c : n.children.values()) self -= c.total;
+        }
+        return Math.max(0, self);
+    }
+
+    private static String site(Object site) {
+        if (site instanceof ast.FunctionCallExpr fc) return "call " + fc.name + "(...)";
+        if (site instanceof ast.MethodCallExpr mc) return "call ." + mc.method + "(...)";
+        return String.valueOf(site);
+    }
+
+    // z.B. "fib(int)", "Point::move(int, int)", "Point::Point()", "print_int(int)"
+    static String name(Object key) {
+        if (key instanceof ast.FunctionDecl f) return f.name + params(f.params);
+        if (key instanceof MethodInfo m) return m.definedIn + "::" + m.name + params(m.params);
+        if (key instanceof CtorInfo c) return c.className + "::" + c.className + params(c.params);
+        if (key instanceof NativeFunction nf) {
+            String s = nf.toString();
+            return s.substring(s.indexOf(' ') + 1);
+        }
+        return String.valueOf(key);
+    }
+
+    private static String params(List<Param> ps) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < ps.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(NativeFunction.describe(ps.get(i).type));
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,65 @@
+package interp;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kanal ueber einem Reader: liefert die gelesenen Zeichen als UTF-8-Bytes,
+ * damit BufferedInput auch hinter einem Reader (z.B. javax.script) arbeiten kann.
+ *
+ */
+final class ReaderChannel implements ReadableByteChannel {
+
+    private final Reader reader;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CharBuffer chars = CharBuffer.allocate(8192).flip();
+    private boolean endOfInput;
+    private boolean flushed;
+    private boolean open = true;
+
+    ReaderChannel(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (flushed) return -1;
+        int start = dst.position();
+        while (dst.hasRemaining()) {
+            CoderResult r = encoder.encode(chars, dst, endOfInput);
+            if (r.isOverflow()) break;
+            if (r.isError()) r.throwException();
+
+            // Zeichen verbraucht: nachlesen bzw. am Ende abschliessen
+            if (endOfInput) {
+                encoder.flush(dst);
+                flushed = true;
+                break;
+            }
+            if (dst.position() > start) break;   // nicht blockieren, solange Bytes da sind
+            chars.compact();
+            int n = reader.read(chars);
+            chars.flip();
+            if (n < 0) endOfInput = true;
+        }
+        int n = dst.position() - start;
+        return (n == 0 && flushed) ? -1 : n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        reader.close();
+    }
+}
@@ -8,11 +8,14 @@ package interp;
  *
  */
 public class ReturnValue extends RuntimeException {
+    private static final long serialVersionUID = 1L;
 
     // Der Rueckgabewert
     public final Object value;
 
     public ReturnValue(Object value) {
+        // reiner Kontrollfluss: kein Stacktrace (teuer bei tiefem Interpreter-Stack)
+        super(null, null, false, false);
         this.value = value;
     }
 }
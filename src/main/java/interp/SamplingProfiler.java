@@ -0,0 +1,185 @@
+package interp;
+
+import ast.ASTNode;
+import ast.WhileStmt;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stichproben-Profiler: ein Hintergrund-Thread liest in festen Abstaenden den vom
+ * Interpreter veroeffentlichten Zustand (ShadowStack) aller angemeldeten Kontexte und
+ * zaehlt heisse Statements, Schleifen und Aufrufpfade.
+ *
+ * Anders als der instrumentierende Profiler misst der Interpreter selbst nichts: pro
+ * Statement ein Store, pro Aufruf ein Push/Pop auf den Schattenstack. Gezaehlt wird
+ * Wanduhrzeit, auch ein Kontext, der in join() wartet, liefert also Samples.
+ *
+ * Verwendung: ExecutionContext.setSampler(sampler), dann start(); nach stop()
+ * report() bzw. writeCollapsed() (Anzahl Samples pro Pfad, fuer flamegraph.pl).
+ *
+ */
+public final class SamplingProfiler {
+
+    private final long intervalNanos;
+
+    // Angemeldete Kontexte (inkl. Tasks)
+    private final Set<ShadowStack> stacks = ConcurrentHashMap.newKeySet();
+
+    // Ergebnisse (nur vom Sampler-Thread geschrieben, unter this)
+    private final Map<ASTNode, Hit> statements = new IdentityHashMap<>();
+    private final Map<WhileStmt, Hit> loops = new IdentityHashMap<>();
+    private final Map<String, Long> paths = new HashMap<>();
+    private long samples;
+
+    private Thread thread;
+    private volatile boolean running;
+
+    /** @param intervalMicros Abstand zwischen zwei Samples (Mikrosekunden) */
+    public SamplingProfiler(long intervalMicros) {
+        if (intervalMicros <= 0) throw new IllegalArgumentException("intervalMicros > 0");
+        this.intervalNanos = TimeUnit.MICROSECONDS.toNanos(intervalMicros);
+    }
+
+    ShadowStack register() {
+        ShadowStack s = new ShadowStack();
+        stacks.add(s);
+        return s;
+    }
+
+    void unregister(ShadowStack s) {
+        stacks.remove(s);
+    }
+
+    /** Startet den Sampler-Thread. */
+    public synchronized void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(this::sampleLoop, "sampling-profiler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Haelt den Sampler an; danach sind die Ergebnisse vollstaendig. */
+    public void stop() {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+            thread = null;
+            running = false;
+        }
+        if (t == null) return;
+        LockSupport.unpark(t);
+        try {
+            t.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized long samples() {
+        return samples;
+    }
+
+    private void sampleLoop() {
+        long next = System.nanoTime();
+        while (running) {
+            for (ShadowStack s : stacks) {
+                ShadowStack.Sample sample = s.sample();
+                if (sample != null) record(sample);
+            }
+            next += intervalNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            else next = System.nanoTime();   // Rueckstand nicht nachholen
+        }
+    }
+
+    private synchronized void record(ShadowStack.Sample s) {
+        samples++;
+        Object[] frames = s.frames();
+        String function = frames.length == 0 ? "<top>" : Profiler.name(frames[frames.length - 1]);
+
+        statements.computeIfAbsent(s.node(), n -> new Hit(describe(n) + " in " + function)).count++;
+        if (s.loop() != null) {
+            loops.computeIfAbsent(s.loop(), n -> new Hit(describe(n) + " in " + function)).count++;
+        }
+
+        StringBuilder path = new StringBuilder();
+        for (Object f : frames) {
+            if (path.length() > 0) path.append(';');
+            path.append(Profiler.name(f).replace(";", "").replace(" ", ""));
+        }
+        if (path.length() == 0) path.append("<top>");
+        paths.merge(path.toString(), 1L, Long::sum);
+    }
+
+    // --------- Auswertung ---------
+
+    private static final class Hit {
+        final String label;
+        long count;
+
+        Hit(String label) {
+            this.label = label;
+        }
+    }
+
+    /** Textbericht: heisseste Statements, Schleifen und Aufrufpfade (je max. 20). */
+    public synchronized String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d samples every %d us%n", samples, TimeUnit.NANOSECONDS.toMicros(intervalNanos)));
+        table(sb, "hot statements", statements.values());
+        table(sb, "hot loops", loops.values());
+
+        List<Map.Entry<String, Long>> p = new ArrayList<>(paths.entrySet());
+        p.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        sb.append(String.format("%nhot call paths:%n"));
+        for (Map.Entry<String, Long> e : p.subList(0, Math.min(20, p.size()))) {
+            sb.append(String.format("%10d %6.1f%%  %s%n", e.getValue(), percent(e.getValue()), e.getKey()));
+        }
+        return sb.toString();
+    }
+
+    private void table(StringBuilder sb, String title, java.util.Collection<Hit> hits) {
+        List<Hit> rows = new ArrayList<>(hits);
+        rows.sort((a, b) -> Long.compare(b.count, a.count));
+        sb.append(String.format("%n%s:%n", title));
+        for (Hit h : rows.subList(0, Math.min(20, rows.size()))) {
+            sb.append(String.format("%10d %6.1f%%  %s%n", h.count, percent(h.count), h.label));
+        }
+    }
+
+    private double percent(long n) {
+        return samples == 0 ? 0.0 : 100.0 * n / samples;
+    }
+
+    /** Collapsed Stacks: "a;b;c <Samples>" pro Aufrufpfad. */
+    public synchronized void writeCollapsed(Appendable out) throws IOException {
+        for (Map.Entry<String, Long> e : paths.entrySet()) {
+            out.append(e.getKey()).append(' ').append(Long.toString(e.getValue())).append('\n');
+        }
+    }
+
+    /** Verwirft alle bisherigen Samples. */
+    public synchronized void reset() {
+        statements.clear();
+        loops.clear();
+        paths.clear();
+        samples = 0;
+    }
+
+    // z.B. "line 4:9 ExprStmt"
+    private static String describe(ASTNode n) {
+        String kind = n.getClass().getSimpleName();
+        return n.hasPosition() ? "line " + n.position() + " " + kind : kind;
+    }
+}
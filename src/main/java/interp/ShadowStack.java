@@ -0,0 +1,108 @@
+package interp;
+
+import ast.ASTNode;
+import ast.WhileStmt;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Vom Interpreter veroeffentlichter Ausfuehrungszustand eines Kontexts fuer den
+ * SamplingProfiler: aktuelles Statement, innerste Schleife und ein Schatten-Aufrufstack
+ * (FunctionDecl, MethodInfo, CtorInfo, NativeFunction).
+ *
+ * Geschrieben wird nur vom Thread des Kontexts, ohne Locks: node und depth mit
+ * Release-Semantik (auf x86 ein normaler Store), der Sampler liest mit Acquire.
+ * Ein Sample kann dabei einen Zwischenstand sehen (z.B. einen gerade verlassenen
+ * Aufruf); fuer eine Stichprobe ist das unerheblich.
+ *
+ */
+final class ShadowStack {
+
+    private static final VarHandle NODE;
+    private static final VarHandle DEPTH;
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            NODE = l.findVarHandle(ShadowStack.class, "node", ASTNode.class);
+            DEPTH = l.findVarHandle(ShadowStack.class, "depth", int.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    // Pro Aufrufebene: Ziel sowie Statement und Schleife des Aufrufers (zum Wiederherstellen)
+    private Object[] callees = new Object[64];
+    private ASTNode[] resumeNodes = new ASTNode[64];
+    private WhileStmt[] resumeLoops = new WhileStmt[64];
+
+    private int depth;
+    private ASTNode node;
+    private WhileStmt loop;
+
+    // --------- Interpreter-Thread ---------
+
+    void push(Object callee) {
+        int d = depth;
+        if (d == callees.length) grow();
+        callees[d] = callee;
+        resumeNodes[d] = node;
+        resumeLoops[d] = loop;
+        loop = null;
+        DEPTH.setRelease(this, d + 1);
+    }
+
+    void pop() {
+        int d = depth - 1;
+        if (d < 0) return;
+        NODE.setRelease(this, resumeNodes[d]);
+        loop = resumeLoops[d];
+        callees[d] = null;
+        resumeNodes[d] = null;
+        resumeLoops[d] = null;
+        DEPTH.setRelease(this, d);
+    }
+
+    void at(ASTNode n) {
+        NODE.setRelease(this, n);
+    }
+
+    /** Betritt eine Schleife; liefert die vorherige fuer exitLoop. */
+    WhileStmt enterLoop(WhileStmt ws) {
+        WhileStmt prev = loop;
+        loop = ws;
+        return prev;
+    }
+
+    void exitLoop(WhileStmt prev) {
+        loop = prev;
+    }
+
+    private void grow() {
+        int n = callees.length * 2;
+        callees = Arrays.copyOf(callees, n);
+        resumeNodes = Arrays.copyOf(resumeNodes, n);
+        resumeLoops = Arrays.copyOf(resumeLoops, n);
+    }
+
+    // --------- Sampler-Thread ---------
+
+    /** Momentaufnahme; null, wenn gerade nichts ausgefuehrt wird. */
+    Sample sample() {
+        int d = (int) DEPTH.getAcquire(this);
+        ASTNode n = (ASTNode) NODE.getAcquire(this);
+        if (n == null) return null;
+        Object[] cs = callees;
+        d = Math.min(d, cs.length);
+        Object[] frames = new Object[d];
+        for (int i = 0; i < d; i++) {
+            frames[i] = cs[i];
+            if (frames[i] == null) return null;   // Stack aendert sich gerade
+        }
+        return new Sample(frames, n, loop);
+    }
+
+    record Sample(Object[] frames, ASTNode node, WhileStmt loop) {}
+}
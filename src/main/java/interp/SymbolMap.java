@@ -0,0 +1,221 @@
+package interp;
+
+import ast.Symbol;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Kompakte Map von Symbol-ID auf einen Wert.
+ * Die Eintraege liegen dicht in Einfuegereihenfolge in parallelen Arrays
+ * (primitive int-Keys, kein Boxing, keine Entry-Objekte).
+ * Kleine Maps (Scopes, Objektfelder) werden linear durchsucht, ab
+ * LINEAR_LIMIT Eintraegen gibt es zusaetzlich eine Open-Addressing-Tabelle
+ * mit linearem Sondieren.
+ * Entfernen gibt es nur vom Ende her (truncate), fuer wiederverwendete Aufrufrahmen.
+ * Serialisiert werden nur Symbole und Werte; die IDs werden beim Lesen neu vergeben.
+ *
+ */
+public final class SymbolMap<V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int LINEAR_LIMIT = 8;
+
+    // Eintraege in Einfuegereihenfolge
+    private transient int[] ids;
+    private transient Symbol[] keys;
+    private transient Object[] values;
+    private transient int size;
+
+    // Hash-Index: Slot -> Eintragsindex + 1 (0 = frei). null, solange linear gesucht wird.
+    private transient int[] table;
+
+    public SymbolMap() {
+        this(4);
+    }
+
+    public SymbolMap(int expectedSize) {
+        allocate(expectedSize);
+    }
+
+    private void allocate(int expectedSize) {
+        int cap = Math.max(2, expectedSize);
+        ids = new int[cap];
+        keys = new Symbol[cap];
+        values = new Object[cap];
+        if (cap > LINEAR_LIMIT) table = new int[tableSizeFor(cap)];
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public boolean containsKey(Symbol key) {
+        return indexOf(key.id) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Symbol key) {
+        int i = indexOf(key.id);
+        return (i < 0) ? null : (V) values[i];
+    }
+
+    /**
+     * Setzt den Wert fuer key. Ein bereits vorhandener Key behaelt seine Position.
+     * Liefert den alten Wert (oder null).
+     */
+    @SuppressWarnings("unchecked")
+    public V put(Symbol key, V value) {
+        int i = indexOf(key.id);
+        if (i >= 0) {
+            V old = (V) values[i];
+            values[i] = value;
+            return old;
+        }
+        append(key, value);
+        return null;
+    }
+
+    public V computeIfAbsent(Symbol key, Function<Symbol, ? extends V> factory) {
+        V v = get(key);
+        if (v == null) {
+            v = factory.apply(key);
+            append(key, v);
+        }
+        return v;
+    }
+
+    public void putAll(SymbolMap<? extends V> other) {
+        for (int i = 0; i < other.size; i++) {
+            put(other.keys[i], other.valueAt(i));
+        }
+    }
+
+    // Zugriff ueber Position (Einfuegereihenfolge), 0 <= i < size()
+    public Symbol keyAt(int i) { return keys[i]; }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(int i) { return (V) values[i]; }
+
+    void setValueAt(int i, V value) { values[i] = value; }
+
+    /**
+     * Entfernt alle Eintraege ab Position newSize (die zuletzt eingefuegten).
+     * Alloziert nicht: der Hash-Index wird an Ort und Stelle neu aufgebaut.
+     */
+    void truncate(int newSize) {
+        if (newSize >= size) return;
+        Arrays.fill(keys, newSize, size, null);
+        Arrays.fill(values, newSize, size, null);
+        size = newSize;
+        if (table != null) {
+            Arrays.fill(table, 0);
+            for (int i = 0; i < size; i++) insertIndex(table, i);
+        }
+    }
+
+    /** Flache Kopie mit gleicher Reihenfolge (Werte werden nicht kopiert). */
+    public SymbolMap<V> copy() {
+        SymbolMap<V> c = new SymbolMap<>(0);
+        c.ids = Arrays.copyOf(ids, ids.length);
+        c.keys = Arrays.copyOf(keys, keys.length);
+        c.values = Arrays.copyOf(values, values.length);
+        c.table = (table != null) ? table.clone() : null;
+        c.size = size;
+        return c;
+    }
+
+    // --------- Serialisierung ---------
+
+    // Symbol-IDs gelten nur innerhalb eines Prozesses -> Symbol (per Name) + Wert schreiben
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeObject(keys[i]);
+            out.writeObject(values[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = in.readInt();
+        allocate(n);
+        for (int i = 0; i < n; i++) {
+            Symbol key = (Symbol) in.readObject();
+            append(key, in.readObject());
+        }
+    }
+
+    // --------- intern ---------
+
+    private int indexOf(int id) {
+        int[] t = table;
+        if (t == null) {
+            int[] ks = ids;
+            for (int i = 0; i < size; i++) {
+                if (ks[i] == id) return i;
+            }
+            return -1;
+        }
+        int mask = t.length - 1;
+        int slot = hash(id) & mask;
+        while (true) {
+            int e = t[slot];
+            if (e == 0) return -1;
+            if (ids[e - 1] == id) return e - 1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void append(Symbol key, Object value) {
+        if (size == ids.length) grow();
+        int i = size++;
+        ids[i] = key.id;
+        keys[i] = key;
+        values[i] = value;
+
+        if (table != null) {
+            insertIndex(table, i);
+        } else if (size > LINEAR_LIMIT) {
+            rebuildTable();
+        }
+    }
+
+    private void grow() {
+        int cap = ids.length * 2;
+        ids = Arrays.copyOf(ids, cap);
+        keys = Arrays.copyOf(keys, cap);
+        values = Arrays.copyOf(values, cap);
+        if (table != null) rebuildTable();
+    }
+
+    private void rebuildTable() {
+        int[] t = new int[tableSizeFor(ids.length)];
+        for (int i = 0; i < size; i++) insertIndex(t, i);
+        table = t;
+    }
+
+    private void insertIndex(int[] t, int entry) {
+        int mask = t.length - 1;
+        int slot = hash(ids[entry]) & mask;
+        while (t[slot] != 0) slot = (slot + 1) & mask;
+        t[slot] = entry + 1;
+    }
+
+    // Tabelle hoechstens halb voll
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(4, capacity) - 1) << 2;
+    }
+
+    // IDs sind dicht -> Fibonacci-Hashing verteilt benachbarte IDs
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,80 @@
+package interp;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Laufzeitwert eines Tasks (Typ task<T>), erzeugt von "spawn f(x)".
+ * Der Aufruf laeuft in einem eigenen ExecutionContext auf einem Fork-Join-Pool;
+ * join() wartet auf das Ergebnis (und hilft dabei, wenn moeglich, selbst mit).
+ *
+ * Isolation: Argumente werden tief kopiert, Referenzparameter sind verboten und
+ * die Session ist im Task nicht sichtbar. Damit erreicht ein Task keine Cell
+ * seines Erzeugers. Objekt-Ergebnisse kopiert der joinende Kontext (t.join() in
+ * ExecutionContext), damit mehrere Joiner sich keine Zellen teilen und die Kopie
+ * in seiner Speicher-Buchhaltung zaehlt.
+ *
+ */
+public final class TaskValue {
+
+    // Gemeinsamer Pool fuer alle Tasks (ein Worker pro Kern)
+    private static final class Pool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    private final ForkJoinTask<Object> task;
+
+    // Schon einmal abgeholt: der Erzeuger muss den Task nicht mehr abwarten
+    private volatile boolean joined;
+
+    private TaskValue(ForkJoinTask<Object> task) {
+        this.task = task;
+    }
+
+    /**
+     * Startet body als Task. Aus einem Worker heraus wird in dessen eigene
+     * Queue geforkt (work stealing), sonst an den Pool uebergeben.
+     */
+    static TaskValue start(Callable<Object> body) {
+        ForkJoinTask<Object> t = ForkJoinTask.adapt(body);
+        if (ForkJoinTask.getPool() == Pool.INSTANCE) t.fork();
+        else Pool.INSTANCE.execute(t);
+        return new TaskValue(t);
+    }
+
+    /**
+     * Wartet auf das Ergebnis; Fehler im Task werden hier geworfen.
+     * Ein Objekt-Ergebnis ist das des Tasks selbst (nicht kopiert).
+     */
+    public Object join() {
+        Object v;
+        try {
+            v = task.join();
+            joined = true;
+        } catch (RuntimeException ex) {
+            joined = true;
+            // Fork-Join verpackt Fehler aus Worker-Threads in eine Kopie -> Original melden
+            if (ex.getCause() instanceof RuntimeException cause && cause.getClass() == ex.getClass()) throw cause;
+            throw ex;
+        }
+        return v;
+    }
+
+    public boolean isDone() {
+        return task.isDone();
+    }
+
+    /**
+     * Muss der Erzeuger diesen Task am Ende noch abwarten? Nein, wenn er schon
+     * abgeholt wurde oder fehlerfrei fertig ist (ein Fehler soll gemeldet werden).
+     */
+    boolean pending() {
+        return !joined && !(task.isDone() && !task.isCompletedAbnormally());
+    }
+
+    @Override
+    public String toString() {
+        return task.isDone() ? "task(done)" : "task(running)";
+    }
+}
@@ -0,0 +1,55 @@
+package interp;
+
+import ast.Param;
+import ast.TypeNode;
+
+import java.util.List;
+
+/**
+ * Typvergleiche fuer Overload-Aufloesung und Override-Suche.
+ *
+ */
+final class Types {
+
+    private Types() {}
+
+    static boolean sameType(TypeNode a, TypeNode b) {
+        if (a == null || b == null) return false;
+
+        // Exakter Klassenvergleich (int != bool != char != string)
+        if (a.getClass() != b.getClass()) return false;
+
+        // Klassentypen: Name muss gleich sein
+        if (a instanceof ast.ClassTypeNode ca && b instanceof ast.ClassTypeNode cb) {
+            return ca.name == cb.name;
+        }
+
+        // Referenzen: Basis-Typ muss gleich sein
+        if (a instanceof ast.RefTypeNode ra && b instanceof ast.RefTypeNode rb) {
+            return sameType(ra.base, rb.base);
+        }
+
+        // Tasks: Ergebnistyp muss gleich sein
+        if (a instanceof ast.TaskTypeNode ta && b instanceof ast.TaskTypeNode tb) {
+            return sameType(ta.result, tb.result);
+        }
+
+        return true;
+    }
+
+    static boolean sameTypes(List<TypeNode> a, List<TypeNode> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!sameType(a.get(i), b.get(i))) return false;
+        }
+        return true;
+    }
+
+    static boolean sameParamTypes(List<Param> a, List<Param> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!sameType(a.get(i).type, b.get(i).type)) return false;
+        }
+        return true;
+    }
+}
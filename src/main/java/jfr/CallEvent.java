@@ -0,0 +1,38 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Aufruf einer MiniCpp-Funktion, -Methode, eines Konstruktors oder einer nativen Funktion.
+ * Nur Aufrufe ueber der Schwelle werden geschrieben (Standard 1 ms, per JFR-Einstellung
+ * minicpp.Call#threshold aenderbar).
+ *
+ */
+@Name("minicpp.Call")
+@Label("MiniCpp Call")
+@Category({"MiniCpp", "Interpreter"})
+@Description("Invocation of a MiniCpp function, method, constructor or native function")
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+public final class CallEvent extends jdk.jfr.Event {
+
+    /** Zum Pruefen, ob das Event eingeschaltet ist, ohne ein Objekt anzulegen. */
+    public static final CallEvent PROBE = new CallEvent();
+
+    @Label("Function")
+    public String function;
+
+    @Label("Kind")
+    @Description("function, method, constructor or native")
+    public String kind;
+
+    // Aufgerufenes Ziel; der Name wird erst beim Schreiben gebildet
+    public transient Object target;
+}
@@ -0,0 +1,35 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Kopie eines MiniCpp-Objekts: tiefe Kopie (Wertuebergabe, Zuweisung) oder Slicing
+ * auf eine Basisklasse.
+ *
+ */
+@Name("minicpp.Copy")
+@Label("MiniCpp Object Copy")
+@Category({"MiniCpp", "Interpreter"})
+@Description("Deep copy or slicing of a MiniCpp object")
+@Enabled(false)
+@StackTrace(false)
+public final class CopyEvent extends jdk.jfr.Event {
+
+    public static final CopyEvent PROBE = new CopyEvent();
+
+    @Label("Class")
+    public String className;
+
+    @Label("Kind")
+    @Description("deepCopy or slice")
+    public String kind;
+
+    @Label("Target Class")
+    @Description("Class after the copy (differs from the source class when slicing)")
+    public String targetClass;
+}
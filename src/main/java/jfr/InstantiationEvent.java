@@ -0,0 +1,29 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Neues MiniCpp-Objekt (Default-Initialisierung oder Konstruktoraufruf), ohne Kopien.
+ *
+ */
+@Name("minicpp.Instantiation")
+@Label("MiniCpp Instantiation")
+@Category({"MiniCpp", "Interpreter"})
+@Description("New instance of a MiniCpp class")
+@Enabled(false)
+@StackTrace(false)
+public final class InstantiationEvent extends jdk.jfr.Event {
+
+    public static final InstantiationEvent PROBE = new InstantiationEvent();
+
+    @Label("Class")
+    public String className;
+
+    @Label("Fields")
+    public int fields;
+}
@@ -0,0 +1,34 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Phase des Front-Ends: Parsen (Lexer + Parse-Tree), Aufbau des AST,
+ * oder Aufbau eines aufgeschobenen Bodys (Lazy-Modus).
+ *
+ */
+@Name("minicpp.Parse")
+@Label("MiniCpp Parse Phase")
+@Category({"MiniCpp", "Frontend"})
+@Description("Parsing, AST construction or deferred body construction")
+@Enabled(false)
+@StackTrace(false)
+public final class ParseEvent extends jdk.jfr.Event {
+
+    public static final ParseEvent PROBE = new ParseEvent();
+
+    @Label("Source")
+    public String source;
+
+    @Label("Phase")
+    @Description("parse, ast or body")
+    public String phase;
+
+    @Label("Tokens")
+    public int tokens;
+}
@@ -0,0 +1,33 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Aufrufstelle ohne gueltiges Ziel im Cache: Ueberladungsaufloesung beim ersten Aufruf
+ * bzw. nach einem Wechsel der Programmversion.
+ *
+ */
+@Name("minicpp.ResolutionMiss")
+@Label("MiniCpp Overload Resolution Miss")
+@Category({"MiniCpp", "Interpreter"})
+@Description("Call site resolved its overload because no cached target was valid")
+@Enabled(false)
+@StackTrace(false)
+public final class ResolutionMissEvent extends jdk.jfr.Event {
+
+    public static final ResolutionMissEvent PROBE = new ResolutionMissEvent();
+
+    @Label("Callee")
+    public String callee;
+
+    @Label("Arguments")
+    public int arguments;
+
+    @Label("Resolved To")
+    public String target;
+}
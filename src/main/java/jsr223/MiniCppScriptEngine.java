@@ -0,0 +1,274 @@
+package jsr223;
+
+import ast.ASTNode;
+import ast.Program;
+import ast.Statement;
+import frontend.ProgramParser;
+import interp.CompiledProgram;
+import interp.ExecutionContext;
+import interp.Interpreter;
+import interp.NativeFunction;
+
+import javax.script.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * javax.script-Engine fuer MiniCpp.
+ *
+ * - eval/compile: Funktionen und Klassen des Skripts werden in der Session registriert,
+ *   die Top-Level-Statements laufen im Session-Scope, danach main(), falls das Skript
+ *   eine deklariert. Ergebnis ist der Rueckgabewert von main() bzw. der Wert des
+ *   letzten Statements.
+ * - compile() parst und registriert einmal; das CompiledScript ist unveraenderlich
+ *   und kann von beliebig vielen Threads ausgewertet werden (jeweils in deren Session).
+ * - ENGINE_SCOPE-Bindings aus createBindings() sind Sessions (siehe SessionBindings).
+ *   Andere Bindings werden vor der Auswertung in eine temporaere Session kopiert und
+ *   danach zurueckgeschrieben.
+ * - invokeFunction ruft MiniCpp- und native Funktionen mit Java-Argumenten auf.
+ *
+ * Wie in der REPL sehen Funktionen die Session-Variablen nicht, nur Top-Level-Statements.
+ * Eine erneute Top-Level-Deklaration ersetzt die Variable (Skripte duerfen mehrfach laufen).
+ * Laeuft ein kompiliertes Skript erneut in einer Session, die seine Funktionen und Klassen
+ * schon kennt, werden diese nicht noch einmal registriert.
+ *
+ */
+public final class MiniCppScriptEngine extends AbstractScriptEngine implements Compilable, Invocable {
+
+    private final MiniCppScriptEngineFactory factory;
+
+    // Programm, auf dem neue Sessions und Skripte aufsetzen (Builtins + registrierte natives)
+    private volatile CompiledProgram base = CompiledProgram.EMPTY;
+
+    MiniCppScriptEngine(MiniCppScriptEngineFactory factory) {
+        this.factory = factory;
+        setBindings(createBindings(), ScriptContext.ENGINE_SCOPE);
+    }
+
+    /**
+     * Stellt eine Java-Funktion fuer Skripte bereit. Gilt fuer die aktuelle
+     * Engine-Session und alle danach erzeugten Bindings und kompilierten Skripte.
+     */
+    public void registerNative(NativeFunction f) {
+        base = base.withNative(f);
+        if (getBindings(ScriptContext.ENGINE_SCOPE) instanceof SessionBindings s) {
+            synchronized (s) {
+                s.interpreter.registerNative(f);
+            }
+        }
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SessionBindings(base);
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    // --------- eval / compile ---------
+
+    @Override
+    public Object eval(String script, ScriptContext ctx) throws ScriptException {
+        return compile(script).eval(ctx);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext ctx) throws ScriptException {
+        return eval(read(reader), ctx);
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        Program p;
+        try {
+            p = ProgramParser.parse(script);
+        } catch (RuntimeException ex) {
+            throw scriptException(ex);
+        }
+
+        List<ASTNode> decls = new ArrayList<>();
+        List<Statement> statements = new ArrayList<>();
+        boolean hasMain = false;
+        for (ASTNode n : p.declarations) {
+            if (n instanceof Statement s) {
+                statements.add(s);
+            } else {
+                decls.add(n);
+                if (n instanceof ast.FunctionDecl f && f.name.name.equals("main")) hasMain = true;
+            }
+        }
+
+        CompiledProgram b = base;
+        try {
+            return new Script(b, b.withDeclarations(decls), List.copyOf(decls), List.copyOf(statements), hasMain);
+        } catch (RuntimeException ex) {
+            throw scriptException(ex);
+        }
+    }
+
+    @Override
+    public CompiledScript compile(Reader reader) throws ScriptException {
+        return compile(read(reader));
+    }
+
+    /** Vorab geparstes und registriertes Skript; unveraenderlich, threadsicher. */
+    private final class Script extends CompiledScript {
+        private final CompiledProgram base;
+        private final CompiledProgram linked;
+        private final List<ASTNode> decls;
+        private final List<Statement> statements;
+        private final boolean hasMain;
+
+        Script(CompiledProgram base, CompiledProgram linked, List<ASTNode> decls, List<Statement> statements, boolean hasMain) {
+            this.base = base;
+            this.linked = linked;
+            this.decls = decls;
+            this.statements = statements;
+            this.hasMain = hasMain;
+        }
+
+        @Override
+        public Object eval(ScriptContext ctx) throws ScriptException {
+            return inSession(ctx, session -> {
+                Interpreter in = session.interpreter;
+                CompiledProgram current = in.program();
+                // Frische Session: fertig registriertes Programm uebernehmen; sonst dazuladen
+                if (current == base) in.useProgram(linked);
+                else if (current != linked && !decls.isEmpty()) in.useProgram(current.withDeclarations(missing(current)));
+
+                ExecutionContext c = session.context();
+                Object last = null;
+                for (Statement s : statements) last = c.execStatement(s);
+                if (hasMain) last = c.runMain();
+                return last;
+            });
+        }
+
+        // Deklarationen, die die Session noch nicht hat; lief das Skript schon (z.B. A, B, A),
+        // sind seine Funktionen/Klassen bereits registriert und duerfen nicht doppelt hinein
+        private List<ASTNode> missing(CompiledProgram current) {
+            List<ASTNode> res = new ArrayList<>(decls.size());
+            for (ASTNode d : decls) if (!current.declares(d)) res.add(d);
+            return res;
+        }
+
+        @Override
+        public ScriptEngine getEngine() {
+            return MiniCppScriptEngine.this;
+        }
+    }
+
+    // --------- Invocable ---------
+
+    @Override
+    public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+        Object[] a = (args != null) ? args : new Object[0];
+        ScriptContext ctx = getContext();
+        Bindings b = ctx.getBindings(ScriptContext.ENGINE_SCOPE);
+        if (b instanceof SessionBindings s) {
+            CompiledProgram p;
+            synchronized (s) {
+                p = s.interpreter.program();
+            }
+            ast.Symbol sym = ast.Symbol.of(name);
+            if (p.functions(sym) == null && p.natives(sym) == null) {
+                throw new NoSuchMethodException("No such function: " + name);
+            }
+        }
+        return inSession(ctx, session -> session.context().call(name, a));
+    }
+
+    @Override
+    public Object invokeMethod(Object thiz, String name, Object... args) {
+        // MiniCpp-Methoden werden ueber statische Typen aufgeloest, nicht ueber Java-Objekte
+        throw new UnsupportedOperationException("invokeMethod is not supported by MiniCpp");
+    }
+
+    /** Implementierung eines Interfaces: jede Methode ruft die gleichnamige MiniCpp-Funktion. */
+    @Override
+    public <T> T getInterface(Class<T> type) {
+        if (type == null || !type.isInterface()) throw new IllegalArgumentException("Not an interface: " + type);
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            if (m.getDeclaringClass() == Object.class) return objectMethod(p, m, args);
+            return invokeFunction(m.getName(), args);
+        });
+        return type.cast(proxy);
+    }
+
+    @Override
+    public <T> T getInterface(Object thiz, Class<T> type) {
+        throw new UnsupportedOperationException("getInterface on objects is not supported by MiniCpp");
+    }
+
+    // --------- intern ---------
+
+    private interface SessionTask {
+        Object run(SessionBindings session);
+    }
+
+    /**
+     * Fuehrt task in der Session des ENGINE_SCOPE aus; Ausgabe/Eingabe kommen aus ctx.
+     * Fremde Bindings: temporaere Session, Werte hinein- und danach zurueckkopieren.
+     */
+    private Object inSession(ScriptContext ctx, SessionTask task) throws ScriptException {
+        Bindings b = ctx.getBindings(ScriptContext.ENGINE_SCOPE);
+        SessionBindings session = (b instanceof SessionBindings s) ? s : new SessionBindings(base);
+        WriterSink out = new WriterSink(ctx.getWriter());
+
+        synchronized (session) {
+            try {
+                if (session != b && b != null) session.putAll(b);
+
+                ExecutionContext c = session.context();
+                c.setOutput(out);
+                c.setInput(session.input(ctx.getReader()));
+                try {
+                    return task.run(session);
+                } finally {
+                    out.flush();
+                }
+            } catch (RuntimeException | StackOverflowError ex) {
+                throw scriptException(ex);
+            } finally {
+                if (session != b && b != null) {
+                    for (Map.Entry<String, Object> e : session.entrySet()) b.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+    }
+
+    private static ScriptException scriptException(Throwable ex) {
+        String msg = (ex.getMessage() != null) ? ex.getMessage() : ex.toString();
+        ScriptException se = new ScriptException(msg);
+        se.initCause(ex);
+        return se;
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+        try {
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[8192];
+            for (int n; (n = reader.read(buf)) >= 0; ) sb.append(buf, 0, n);
+            return sb.toString();
+        } catch (IOException ex) {
+            throw new ScriptException(ex);
+        }
+    }
+
+    private static Object objectMethod(Object proxy, Method m, Object[] args) {
+        return switch (m.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> "MiniCpp proxy";
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package jsr223;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.util.List;
+
+/**
+ * Factory fuer javax.script (per ServiceLoader, siehe META-INF/services):
+ * new ScriptEngineManager().getEngineByName("minicpp").
+ *
+ */
+public final class MiniCppScriptEngineFactory implements ScriptEngineFactory {
+
+    private static final String VERSION = "1.0";
+
+    @Override
+    public String getEngineName() {
+        return "MiniCpp Interpreter";
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of("cpp", "mcpp");
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return List.of("text/x-minicpp");
+    }
+
+    @Override
+    public List<String> getNames() {
+        return List.of("minicpp", "MiniCpp");
+    }
+
+    @Override
+    public String getLanguageName() {
+        return "MiniCpp";
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public Object getParameter(String key) {
+        return switch (key) {
+            case ScriptEngine.ENGINE -> getEngineName();
+            case ScriptEngine.ENGINE_VERSION -> getEngineVersion();
+            case ScriptEngine.NAME -> getNames().get(0);
+            case ScriptEngine.LANGUAGE -> getLanguageName();
+            case ScriptEngine.LANGUAGE_VERSION -> getLanguageVersion();
+            // Sessions sind synchronisiert, kompilierte Skripte unveraenderlich
+            case "THREADING" -> "MULTITHREADED";
+            default -> null;
+        };
+    }
+
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return obj + "." + m + "(" + String.join(", ", args) + ")";
+    }
+
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        StringBuilder sb = new StringBuilder("print_string(\"");
+        for (char c : toDisplay.toCharArray()) {
+            if (c == '"' || c == '\\') sb.append('\\');
+            sb.append(c);
+        }
+        return sb.append("\");").toString();
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+        StringBuilder sb = new StringBuilder();
+        for (String s : statements) sb.append(s).append(";\n");
+        return sb.toString();
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new MiniCppScriptEngine(this);
+    }
+}
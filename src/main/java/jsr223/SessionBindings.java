@@ -0,0 +1,120 @@
+package jsr223;
+
+import interp.CompiledProgram;
+import interp.ExecutionContext;
+import interp.InputSource;
+import interp.Interpreter;
+import interp.OutputSink;
+
+import javax.script.Bindings;
+import java.io.Reader;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ENGINE_SCOPE-Bindings als Sicht auf den Session-Scope einer MiniCpp-Session:
+ * get/put lesen und schreiben die globalen Variablen direkt, ohne Kopie.
+ * Jedes Bindings-Objekt ist eine eigene Session (eigener Interpreter); Auswertungen
+ * in derselben Session laufen nacheinander (synchronisiert auf dieses Objekt).
+ *
+ * Werte: Integer, Boolean, Character, String und MiniCpp-Objekte. Eine neue Variable
+ * bekommt den Typ ihres Werts, eine bestehende behaelt ihren Typ.
+ * Variablen koennen nicht entfernt werden.
+ *
+ */
+final class SessionBindings extends AbstractMap<String, Object> implements Bindings {
+
+    final Interpreter interpreter;
+
+    // Eingabe ueber den zuletzt verwendeten Reader (gepufferte Zeichen gehen nicht verloren)
+    private Reader reader;
+    private InputSource input;
+
+    SessionBindings(CompiledProgram base) {
+        this.interpreter = new Interpreter(base, OutputSink.discard());
+        interpreter.context().setEmbedded(true);
+    }
+
+    ExecutionContext context() {
+        return interpreter.context();
+    }
+
+    synchronized InputSource input(Reader r) {
+        if (r == null) return InputSource.of("");
+        if (r != reader) {
+            reader = r;
+            input = InputSource.of(r);
+        }
+        return input;
+    }
+
+    @Override
+    public synchronized Object put(String name, Object value) {
+        checkKey(name);
+        Object old = context().getGlobal(name);
+        context().setGlobal(name, value);
+        return old;
+    }
+
+    @Override
+    public synchronized Object get(Object key) {
+        checkKey(key);
+        return context().getGlobal((String) key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        checkKey(key);
+        return context().hasGlobal((String) key);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException("MiniCpp variables cannot be removed");
+    }
+
+    @Override
+    public synchronized int size() {
+        return context().globalNames().size();
+    }
+
+    /** Momentaufnahme der Namen; Werte werden beim Zugriff gelesen. */
+    @Override
+    public synchronized Set<Map.Entry<String, Object>> entrySet() {
+        List<String> names = context().globalNames();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                Iterator<String> it = names.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        String name = it.next();
+                        return new AbstractMap.SimpleImmutableEntry<>(name, get(name));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return names.size();
+            }
+        };
+    }
+
+    // Wie SimpleBindings: Schluessel nicht null, String, nicht leer
+    private static void checkKey(Object key) {
+        if (key == null) throw new NullPointerException("key can not be null");
+        if (!(key instanceof String s)) throw new ClassCastException("key should be a String");
+        if (s.isEmpty()) throw new IllegalArgumentException("key can not be empty");
+    }
+}
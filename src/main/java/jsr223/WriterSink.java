@@ -0,0 +1,54 @@
+package jsr223;
+
+import interp.OutputSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Ausgabe in den Writer eines ScriptContext.
+ *
+ */
+final class WriterSink implements OutputSink {
+
+    private final Writer writer;
+
+    WriterSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void println(int v) {
+        println(Integer.toString(v));
+    }
+
+    @Override
+    public void println(char c) {
+        try {
+            writer.write(c);
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void println(String s) {
+        try {
+            writer.write(s);
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package server;
+
+import ast.Program;
+import frontend.ModuleCache;
+import frontend.ReplInput;
+import interp.CompiledProgram;
+import interp.ExecutionBudget;
+import interp.Interpreter;
+import interp.InputSource;
+import interp.InterpreterImage;
+import interp.OutputSink;
+
+import java.io.*;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Netzwerk-REPL fuer viele gleichzeitige Sessions in einer JVM
+ * (Loopback-TCP oder Unix Domain Socket, zeilenbasiert wie die lokale REPL).
+ *
+ * - Jede Session hat ihren eigenen Session-Scope und Scope-Stack (eigener Interpreter).
+ * - Alle Sessions teilen sich das vorgeladene Programm; eigene Funktionen/Klassen
+ *   erzeugen eine Programmversion nur fuer die jeweilige Session (copy-on-write).
+ * - Jede Verbindung laeuft auf einem virtuellen Thread (falls verfuegbar).
+ * - Sessions, die laenger als idleMillis nichts ausgefuehrt haben, werden als
+ *   Session-Image auf die Platte ausgelagert und bei der naechsten Eingabe wieder geladen.
+ * - Eine Session ohne Verbindung (:detach oder abgebrochene Verbindung) wird nach
+ *   ttlMillis geschlossen, ihr Session-Image geloescht. Beim Beenden des Servers
+ *   werden alle Sessions geschlossen.
+ * - Jede Eingabe laeuft mit einem eigenen ExecutionBudget (Zeitlimit, wie pro Request
+ *   im ScriptServer); Schliessen der Session bricht eine laufende Eingabe ab.
+ *
+ * Befehle (am Anfang einer Eingabe):
+ *   exit | quit | :q   Session beenden
+ *   :detach            Verbindung trennen, Session bleibt erhalten
+ *   :resume <id>       an eine bestehende, nicht verbundene Session anhaengen
+ *
+ */
+public final class ReplServer {
+
+    // Standard-Lebensdauer einer Session ohne Verbindung
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // Standard-Zeitlimit pro Eingabe (wie --timeout im Server-Modus)
+    static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private final CompiledProgram base;
+    private final long idleMillis;
+    private final long ttlMillis;
+    private final Path dir;
+
+    // Grenzen pro Eingabe (0 = unbegrenzt), siehe ExecutionBudget
+    private volatile long maxSteps;
+    private volatile long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private volatile long maxBytes;
+    private volatile int maxFrames;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService executor = ScriptServer.newExecutor("repl-session", ScriptServer.MAX_CONNECTIONS);
+    private final SecureRandom random = new SecureRandom();
+
+    // Sessions lesen nicht von stdin des Servers; read_* melden sofort Ende der Eingabe
+    private static final InputSource NO_INPUT = InputSource.of("");
+
+    /**
+     * @param base       geteiltes Programm (wird nie veraendert)
+     * @param idleMillis Leerlaufzeit, nach der eine Session ausgelagert wird
+     * @param dir        Verzeichnis fuer ausgelagerte Sessions
+     */
+    public ReplServer(CompiledProgram base, long idleMillis, Path dir) {
+        this(base, idleMillis, DEFAULT_TTL_MILLIS, dir);
+    }
+
+    /**
+     * @param ttlMillis Zeit ohne Verbindung, nach der eine Session geschlossen wird
+     */
+    public ReplServer(CompiledProgram base, long idleMillis, long ttlMillis, Path dir) {
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttlMillis must be > 0");
+        this.base = base;
+        this.idleMillis = idleMillis;
+        this.ttlMillis = ttlMillis;
+        this.dir = dir;
+    }
+
+    /** Schritt-, Zeit-, Speicher- und Aufruftiefen-Grenze pro Eingabe (0 = unbegrenzt). */
+    public void setLimits(long maxSteps, long timeoutMillis, long maxBytes, int maxFrames) {
+        this.maxSteps = maxSteps;
+        this.timeoutMillis = timeoutMillis;
+        this.maxBytes = maxBytes;
+        this.maxFrames = maxFrames;
+    }
+
+    public void serve(String address) throws IOException {
+        // Ausgelagerte Sessions werden deserialisiert: nur ein eigenes, privates Verzeichnis
+        ModuleCache.createPrivateDirectory(dir);
+        SocketAddress addr = ScriptServer.parseAddress(address);
+
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, Math.min(idleMillis, ttlMillis) / 4);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+
+        try (ServerSocketChannel server = ScriptServer.bind(addr)) {
+            System.err.println("REPL server listening on " + address);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                ScriptServer.accept(executor, server.accept(), this::handle);
+            }
+        } finally {
+            evictor.shutdownNow();
+            executor.shutdownNow();
+            for (Session s : sessions.values()) s.close();
+            if (addr instanceof UnixDomainSocketAddress ua) Files.deleteIfExists(ua.getPath());
+        }
+    }
+
+    /** Anzahl Sessions im Speicher bzw. ausgelagert. */
+    public int sessions() {
+        return sessions.size();
+    }
+
+    // --------- Session ---------
+
+    private final class Session {
+        final String id;
+        final Path file;
+
+        // Schuetzt interpreter/out gegen Auslagern waehrend einer Ausfuehrung
+        final ReentrantLock lock = new ReentrantLock();
+
+        Interpreter interpreter;   // null = ausgelagert
+        OutputSink out;
+        volatile long lastUsed = System.nanoTime();
+
+        // attached/closed nur unter synchronized(this) aendern (resume gegen expireIfDetached)
+        volatile boolean attached;
+        boolean closed;
+
+        // Schon etwas ausgefuehrt? Eine leere Session wird bei :resume verworfen
+        volatile boolean used;
+
+        // Budget der gerade laufenden Eingabe (null = keine), close() bricht sie ab
+        volatile ExecutionBudget running;
+
+        Session(String id, OutputSink out) {
+            this.id = id;
+            this.file = dir.resolve(id + ".session");
+            this.out = out;
+            this.interpreter = new Interpreter(base, out, NO_INPUT);
+        }
+
+        // Nur unter lock: ggf. von der Platte zurueckholen
+        Interpreter interpreter() throws IOException {
+            if (interpreter == null) {
+                interpreter = InterpreterImage.loadSession(base, file, out);
+                interpreter.context().setInput(NO_INPUT);
+                Files.deleteIfExists(file);
+            }
+            return interpreter;
+        }
+
+        void attach(OutputSink out) {
+            lock.lock();
+            try {
+                this.out = out;
+                if (interpreter != null) interpreter.context().setOutput(out);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Vom Evictor: nur wenn gerade nichts laeuft
+        void evictIfIdle(long now) {
+            if (interpreter == null || now - lastUsed < TimeUnit.MILLISECONDS.toNanos(idleMillis)) return;
+            if (!lock.tryLock()) return;
+            try {
+                if (interpreter == null) return;
+                InterpreterImage.saveSession(interpreter, base, file);
+                interpreter = null;
+            } catch (IOException ex) {
+                // Session bleibt im Speicher
+                System.err.println("Cannot evict session " + id + ": " + ex.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Vom Evictor: Session ohne Verbindung, die laenger als ttlMillis unbenutzt ist
+        void expireIfDetached(long now) {
+            synchronized (this) {
+                if (attached || closed || now - lastUsed < TimeUnit.MILLISECONDS.toNanos(ttlMillis)) return;
+                closed = true;
+            }
+            close();
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            sessions.remove(id, this);
+            // Laufende Eingabe abbrechen, sonst wartet lock() bis zu ihrem Ende
+            ExecutionBudget b = running;
+            if (b != null) b.cancel();
+            lock.lock();
+            try {
+                interpreter = null;
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                System.err.println("Cannot delete session file " + file + ": " + ex.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (Session s : sessions.values()) {
+            s.expireIfDetached(now);
+            s.evictIfIdle(now);
+        }
+    }
+
+    private Session newSession(OutputSink out) {
+        while (true) {
+            byte[] b = new byte[8];
+            random.nextBytes(b);
+            String id = HexFormat.of().formatHex(b);
+            Session s = new Session(id, out);
+            if (sessions.putIfAbsent(id, s) == null) return s;
+        }
+    }
+
+    // --------- Verbindung ---------
+
+    private void handle(SocketChannel ch) {
+        Session session = null;
+        try (ch;
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(ch), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(ch)), false, StandardCharsets.UTF_8)) {
+
+            // Ausgaben der Session gehen in denselben (gepufferten) Stream wie Prompts
+            OutputSink sink = OutputSink.of(out);
+            session = newSession(sink);
+            session.attached = true;
+            out.println("session " + session.id);
+
+            ReplInput input = new ReplInput();
+            boolean firstLine = true;
+
+            while (true) {
+                out.print(firstLine ? ">>> " : "... ");
+                out.flush();
+                String line = in.readLine();
+                if (line == null) break;
+
+                String trimmed = line.trim();
+                if (firstLine) {
+                    if (trimmed.equals("exit") || trimmed.equals("quit") || trimmed.equals(":q")) {
+                        session.close();
+                        session = null;
+                        break;
+                    }
+                    if (trimmed.equals(":detach")) {
+                        out.println("detached " + session.id);
+                        break;
+                    }
+                    if (trimmed.startsWith(":resume ")) {
+                        session = resume(session, trimmed.substring(8).trim(), out, sink);
+                        continue;
+                    }
+                }
+
+                if (!input.addLine(line)) {
+                    firstLine = false;
+                    continue;
+                }
+                firstLine = true;
+
+                run(session, input, out);
+            }
+        } catch (IOException ex) {
+            // Client hat die Verbindung abgebrochen
+        } finally {
+            if (session != null) {
+                session.lastUsed = System.nanoTime();
+                synchronized (session) {
+                    session.attached = false;
+                }
+            }
+        }
+    }
+
+    private void run(Session session, ReplInput input, PrintStream out) {
+        session.lock.lock();
+        Interpreter interpreter = null;
+        try {
+            Program p = input.takeProgram();
+            session.used = true;
+            interpreter = session.interpreter();
+
+            // Zeitlimit ab Beginn der Ausfuehrung; close() bricht ueber running ab,
+            // eine inzwischen geschlossene Session sofort
+            ExecutionBudget budget = new ExecutionBudget(maxSteps, timeoutMillis, maxBytes, maxFrames);
+            session.running = budget;
+            synchronized (session) {
+                if (session.closed) budget.cancel();
+            }
+            interpreter.context().setBudget(budget);
+            interpreter.execReplProgram(p);
+        } catch (RuntimeException ex) {
+            out.println("Error: " + ex.getMessage());
+        } catch (Exception ex) {
+            out.println("Error: " + ex);
+        } finally {
+            session.running = null;
+            if (interpreter != null) interpreter.context().setBudget(null);
+            session.lastUsed = System.nanoTime();
+            session.lock.unlock();
+        }
+    }
+
+    // Wechselt zu einer anderen Session; die bisherige bleibt erhalten (wie :detach),
+    // ausser sie ist noch leer (z.B. die beim Verbinden angelegte) - dann wird sie geschlossen
+    private Session resume(Session current, String id, PrintStream out, OutputSink sink) {
+        Session target = sessions.get(id);
+        if (target == null || target == current) {
+            out.println("Error: No such session: " + id);
+            return current;
+        }
+        synchronized (target) {
+            if (target.closed) {
+                out.println("Error: No such session: " + id);
+                return current;
+            }
+            if (target.attached) {
+                out.println("Error: Session is attached elsewhere: " + id);
+                return current;
+            }
+            target.attached = true;
+        }
+        if (!current.used) {
+            current.close();
+        } else {
+            current.lastUsed = System.nanoTime();
+            synchronized (current) {
+                current.attached = false;
+            }
+        }
+        target.attach(sink);
+        out.println("session " + target.id);
+        return target;
+    }
+}
@@ -0,0 +1,340 @@
+package server;
+
+import ast.Program;
+import frontend.ProgramParser;
+import interp.CompiledProgram;
+import interp.ExecutionAbortedException;
+import interp.ExecutionBudget;
+import interp.ExecutionContext;
+import interp.InputSource;
+import interp.InterpreterMetrics;
+import interp.InterpreterPool;
+import interp.MemorySink;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Modus: nimmt Skript-Aufrufe ueber einen lokalen Socket entgegen
+ * (Unix Domain Socket oder TCP auf Loopback) und fuehrt sie gegen ein
+ * vorab geladenes Programm aus. JVM-Start und ANTLR-Warmup fallen nur einmal an.
+ *
+ * Protokoll (alle Zahlen big-endian, Texte UTF-8), beliebig viele Requests pro Verbindung:
+ *   Request:  int32 Laenge, Quelltext
+ *   Response: int8 Status, int32 Laenge, Text (mitgeschnittene Ausgabe bzw. Fehlermeldung)
+ *
+ * Jeder Request bekommt einen eigenen ExecutionContext (isolierte Session, eigene
+ * Ausgabe); Funktionen/Klassen des Requests erweitern nur seine Programmversion.
+ * Requests ohne eigene Deklarationen bekommen einen vorgeladenen Kontext aus dem
+ * InterpreterPool, der danach auf den Zustand nach dem Laden zurueckgesetzt wird.
+ * Ausfuehrung auf virtuellen Threads, falls die JVM sie anbietet (sonst begrenzter
+ * Thread-Pool), begrenzt durch workers gleichzeitig laufende und queue wartende Requests.
+ * Ueberschreitet ein Request sein Zeitlimit, wird er ueber sein ExecutionBudget
+ * abgebrochen; sein Platz in der Zulassung wird erst frei, wenn der Worker wirklich
+ * fertig ist.
+ *
+ */
+public final class ScriptServer {
+
+    public static final int OK = 0;
+    public static final int ERROR = 1;
+    public static final int TIMEOUT = 2;
+    public static final int BUSY = 3;
+
+    // Groesster angenommener Quelltext (Schutz vor kaputten Laengenangaben)
+    private static final int MAX_REQUEST = 16 << 20;
+
+    // Gleichzeitige Verbindungen im Thread-Pool (ohne virtuelle Threads), darueber wird geschlossen
+    static final int MAX_CONNECTIONS = 1024;
+
+    /** Antwort auf einen Request. */
+    public record Response(int status, String text) {}
+
+    private final CompiledProgram program;
+    private final InterpreterPool pool;
+    private final long timeoutMillis;
+
+    // Weitere Grenzen pro Request (0 = unbegrenzt), siehe ExecutionBudget
+    private volatile long maxSteps;
+    private volatile long maxBytes;
+    private volatile int maxFrames;
+
+    // Zaehler fuer alle Requests (null = aus)
+    private volatile InterpreterMetrics metrics;
+    private final int admissionLimit;
+
+    // Laufende Skripte (max. workers) und zugelassene Requests (laufend + wartend)
+    private final Semaphore running;
+    private final AtomicInteger admitted = new AtomicInteger();
+
+    // Verbindungen und Skripte getrennt: ein Skript-Worker darf nie auf eine Verbindung warten
+    private final ExecutorService connections = newExecutor("script-connection", MAX_CONNECTIONS);
+    private final ExecutorService scripts;
+
+    /**
+     * @param program       geteiltes Programm (wird nie veraendert)
+     * @param workers       max. gleichzeitig laufende Skripte
+     * @param queue         max. zusaetzlich wartende Requests, darueber -> BUSY
+     * @param timeoutMillis Zeitlimit pro Request (inkl. Wartezeit)
+     */
+    public ScriptServer(CompiledProgram program, int workers, int queue, long timeoutMillis) {
+        if (workers < 1 || queue < 0) throw new IllegalArgumentException("workers >= 1, queue >= 0");
+        this.program = program;
+        this.pool = new InterpreterPool(program, workers);
+        this.timeoutMillis = timeoutMillis;
+        this.admissionLimit = workers + queue;
+        this.running = new Semaphore(workers, true);
+        // Jeder zugelassene Request belegt hoechstens einen Thread, bis er fertig ist
+        this.scripts = newExecutor("script-worker", admissionLimit);
+    }
+
+    /** Schritt-, Speicher- und Aufruftiefen-Grenze pro Request (0 = unbegrenzt). */
+    public void setLimits(long maxSteps, long maxBytes, int maxFrames) {
+        this.maxSteps = maxSteps;
+        this.maxBytes = maxBytes;
+        this.maxFrames = maxFrames;
+    }
+
+    /** Zaehlt Parsen und Ausfuehrung aller folgenden Requests (null = aus). */
+    public void setMetrics(InterpreterMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** Waermt den Kontext-Pool an (main() wird iterations-mal ausgefuehrt). */
+    public void warmup(int iterations) {
+        pool.warmup(iterations);
+    }
+
+    /**
+     * Bindet an die Adresse und bedient Verbindungen, bis der Thread unterbrochen wird.
+     * Adresse: "unix:/pfad/zum/socket" oder eine Portnummer (TCP, nur Loopback).
+     */
+    public void serve(String address) throws IOException {
+        SocketAddress addr = parseAddress(address);
+
+        try (ServerSocketChannel server = bind(addr)) {
+            System.err.println("Listening on " + address);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                accept(connections, server.accept(), this::handle);
+            }
+        } finally {
+            connections.shutdownNow();
+            scripts.shutdownNow();
+            if (addr instanceof UnixDomainSocketAddress ua) Files.deleteIfExists(ua.getPath());
+        }
+    }
+
+    /**
+     * Fuehrt einen Request aus (Zulassung, Zeitlimit, Mitschnitt der Ausgabe).
+     * Kann auch ohne Socket direkt aufgerufen werden.
+     */
+    public Response invoke(String source) {
+        if (admitted.incrementAndGet() > admissionLimit) {
+            admitted.decrementAndGet();
+            return new Response(BUSY, "Server busy");
+        }
+
+        // Zeitlimit inkl. Wartezeit: laeuft ab Annahme des Requests
+        ExecutionBudget budget = new ExecutionBudget(maxSteps, timeoutMillis, maxBytes, maxFrames);
+
+        // Wer started zuerst setzt, gibt den Platz frei: der Worker, wenn er fertig ist,
+        // sonst (nie gestartet) der Aufrufer beim Abbruch
+        AtomicBoolean started = new AtomicBoolean();
+        Future<Response> f;
+        try {
+            f = scripts.submit(() -> {
+                if (!started.compareAndSet(false, true)) return null;
+                try {
+                    running.acquire();
+                    try {
+                        return execute(source, budget);
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    admitted.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            admitted.decrementAndGet();
+            return new Response(BUSY, "Server busy");
+        }
+
+        try {
+            return f.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            abandon(f, started, budget);
+            return new Response(TIMEOUT, "Timeout after " + timeoutMillis + " ms");
+        } catch (ExecutionException ex) {
+            return new Response(ERROR, "Error: " + ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abandon(f, started, budget);
+            return new Response(ERROR, "Interrupted");
+        }
+    }
+
+    // Aufrufer wartet nicht mehr: Skript abbrechen, der Worker laeuft ggf. noch bis zum naechsten poll
+    private void abandon(Future<Response> f, AtomicBoolean started, ExecutionBudget budget) {
+        budget.cancel();
+        f.cancel(true);
+        if (started.compareAndSet(false, true)) admitted.decrementAndGet();
+    }
+
+    // Laeuft auf einem Worker: eigener Kontext, eigene Ausgabe
+    private Response execute(String source, ExecutionBudget budget) {
+        MemorySink out = new MemorySink();
+        // Requests haben keine Eingabe (stdin gehoert dem Server)
+        InputSource in = InputSource.of("");
+        InterpreterMetrics m = metrics;
+
+        try {
+            long parseStart = System.nanoTime();
+            Program p = ProgramParser.parse(source);
+            if (m != null) m.recordParse(System.nanoTime() - parseStart);
+
+            // Nur Statements -> gepoolten Kontext des geteilten Programms verwenden
+            boolean hasDecls = p.declarations.stream().anyMatch(n -> !(n instanceof ast.Statement));
+            if (hasDecls) {
+                ExecutionContext ctx = program.extend(p).newContext(out, budget, in);
+                ctx.setMetrics(m);
+                Object ret = ctx.runMain();
+                if (ret != null) out.println("main returned: " + ret);
+            } else {
+                ExecutionContext ctx = pool.borrow();
+                try {
+                    ctx.setMetrics(m);
+                    ctx.setOutput(out);
+                    ctx.setInput(in);
+                    ctx.setBudget(budget);
+                    for (ast.ASTNode n : p.declarations) ctx.execStatement((ast.Statement) n);
+                    Object ret = ctx.runMain();
+                    if (ret != null) out.println("main returned: " + ret);
+                } finally {
+                    pool.release(ctx);
+                }
+            }
+
+            return new Response(OK, out.text());
+
+        } catch (ExecutionAbortedException ex) {
+            // Budget-Zeitlimit kann vor dem Timeout des Aufrufers greifen -> gleicher Status
+            if (ex.reason == ExecutionAbortedException.Reason.DEADLINE
+                    || ex.reason == ExecutionAbortedException.Reason.CANCELLED) {
+                return new Response(TIMEOUT, "Timeout after " + timeoutMillis + " ms");
+            }
+            out.println("Error: " + ex.getMessage());
+            return new Response(ERROR, out.text());
+
+        } catch (RuntimeException | StackOverflowError ex) {
+            out.println("Error: " + ex.getMessage());
+            return new Response(ERROR, out.text());
+        }
+    }
+
+    // --------- Verbindung ---------
+
+    private void handle(SocketChannel ch) {
+        try (ch;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)))) {
+
+            while (true) {
+                int len;
+                try {
+                    len = in.readInt();
+                } catch (EOFException ex) {
+                    return;
+                }
+                if (len < 0 || len > MAX_REQUEST) {
+                    write(out, new Response(ERROR, "Invalid request length: " + len));
+                    return;
+                }
+
+                byte[] src = in.readNBytes(len);
+                if (src.length < len) return;
+
+                write(out, invoke(new String(src, StandardCharsets.UTF_8)));
+            }
+        } catch (IOException ex) {
+            // Client hat die Verbindung abgebrochen
+        }
+    }
+
+    private static void write(DataOutputStream out, Response r) throws IOException {
+        byte[] text = r.text().getBytes(StandardCharsets.UTF_8);
+        out.writeByte(r.status());
+        out.writeInt(text.length);
+        out.write(text);
+        out.flush();
+    }
+
+    // Unix-Socket: alte Socket-Datei vorher entfernen
+    static ServerSocketChannel bind(SocketAddress addr) throws IOException {
+        ServerSocketChannel server;
+        if (addr instanceof UnixDomainSocketAddress ua) {
+            Files.deleteIfExists(ua.getPath());
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+        try {
+            server.bind(addr);
+        } catch (IOException ex) {
+            server.close();
+            throw ex;
+        }
+        return server;
+    }
+
+    static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(Path.of(address.substring(5)));
+        }
+        try {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Expected unix:<path> or port: " + address);
+        }
+    }
+
+    // Verbindung auf einem eigenen Thread bedienen; ist der Pool voll, wird sie geschlossen
+    static void accept(ExecutorService executor, SocketChannel ch, java.util.function.Consumer<SocketChannel> handler) throws IOException {
+        try {
+            executor.execute(() -> handler.accept(ch));
+        } catch (RejectedExecutionException ex) {
+            ch.close();
+        }
+    }
+
+    /**
+     * Virtuelle Threads (JDK 21+) ueber Reflection, damit der Code auch auf
+     * aelteren JVMs laeuft; dort ein Pool mit hoechstens maxThreads Daemon-Threads
+     * (ohne Warteschlange: ist er voll, wirft execute RejectedExecutionException).
+     */
+    static ExecutorService newExecutor(String name, int maxThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package visitor;
 
 import ast.*;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
 import parser.MiniCppBaseVisitor;
 import parser.MiniCppParser;
 
@@ -12,6 +15,40 @@ import parser.MiniCppParser;
  */
 public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
 
+    /**
+     * Lazy-Modus: erzeugt fuer einen Body-Block nur einen Platzhalter,
+     * der den AST erst beim ersten Zugriff baut (siehe frontend.ProgramParser).
+     */
+    public interface DeferredBodies {
+        ast.LazyBlock defer(MiniCppParser.BlockContext block);
+    }
+
+    // null = Bodies sofort bauen
+    private final DeferredBodies deferred;
+
+    public ASTBuilder() {
+        this(null);
+    }
+
+    public ASTBuilder(DeferredBodies deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * Wie MiniCppBaseVisitor.visit, setzt zusaetzlich die Quelltextposition (erstes Token)
+     * an jedem neu gebauten Knoten. Durchgereichte Knoten (Klammern, Wrapper) behalten
+     * die Position ihres innersten Konstrukts.
+     */
+    @Override
+    public ASTNode visit(ParseTree tree) {
+        ASTNode n = super.visit(tree);
+        if (n != null && !n.hasPosition() && tree instanceof ParserRuleContext ctx) {
+            Token start = ctx.getStart();
+            n.setPosition(start.getLine(), start.getCharPositionInLine() + 1);
+        }
+        return n;
+    }
+
     /**
      * Einstiegspunkt: Besucht den Wurzelknoten des Programms.
      * Sammelt alle Top-Level-Elemente (Funktionen, Klassen, Statements) ein.
@@ -25,17 +62,25 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
 
             // Unterscheidung welches Top-Level-Element.
             if (ch instanceof MiniCppParser.FunctionDeclContext f) {
-                p.declarations.add((ASTNode) visit(f));
+                p.declarations.add(visit(f));
             } else if (ch instanceof MiniCppParser.ClassDeclContext c) {
-                p.declarations.add((ASTNode) visit(c));
+                p.declarations.add(visit(c));
             } else if (ch instanceof MiniCppParser.StmtContext s) {
-                p.declarations.add((ASTNode) visit(s));
+                p.declarations.add(visit(s));
             }
         }
 
         return p;
     }
 
+    /**
+     * Einzelnes Top-Level-Element (Streaming-Modus): Funktion, Klasse oder Statement.
+     */
+    @Override
+    public ASTNode visitTopLevel(MiniCppParser.TopLevelContext ctx) {
+        return visit(ctx.getChild(0));
+    }
+
     // ---------- Statements ----------
 
     /**
@@ -73,7 +118,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
      */
     @Override
     public ast.ASTNode visitVarDecl(parser.MiniCppParser.VarDeclContext ctx) {
-        String name = ctx.ID().getText();
+        ast.Symbol name = ast.Symbol.of(ctx.ID().getText());
         ast.TypeNode type = (ast.TypeNode) visit(ctx.type());
 
         // Initialisierung ist optional
@@ -96,7 +141,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
 
     @Override
     public ASTNode visitVar(MiniCppParser.VarContext ctx) {
-        return new VarExpr(ctx.ID().getText());
+        return new VarExpr(Symbol.of(ctx.ID().getText()));
     }
 
     @Override
@@ -111,25 +156,26 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
     @Override
     public ast.ASTNode visitFunctionDecl(parser.MiniCppParser.FunctionDeclContext ctx) {
 
-        // Funktionsname
-        String name = ctx.ID().getText();
+        // Funktionsname und Rueckgabetyp
+        ast.Symbol name = ast.Symbol.of(ctx.ID().getText());
+        ast.TypeNode returnType = (ast.TypeNode) visit(ctx.type());
 
         // Parameter (mit Typen!)
         java.util.List<ast.Param> params = new java.util.ArrayList<>();
         if (ctx.paramList() != null) {
             for (parser.MiniCppParser.ParamContext p : ctx.paramList().param()) {
                 ast.TypeNode pt = (ast.TypeNode) visit(p.type());
-                String pn = p.ID().getText();
+                ast.Symbol pn = ast.Symbol.of(p.ID().getText());
                 params.add(new ast.Param(pt, pn));
             }
         }
 
-        // Funktionsbody
-        ast.BlockStmt body = (ast.BlockStmt) visit(ctx.block());
+        // Funktionsbody (im Lazy-Modus nur die Position)
+        ast.LazyBlock body = body(ctx.block());
 
         // Pruefen, ob das Schluesselwort 'virtual' am Anfang steht
         boolean isVirtual = (ctx.getStart().getText().equals("virtual"));
-        return new ast.FunctionDecl(name, params, body, isVirtual);
+        return new ast.FunctionDecl(name, returnType, params, body, isVirtual);
     }
 
     /**
@@ -139,17 +185,17 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
     @Override
     public ASTNode visitClassDecl(MiniCppParser.ClassDeclContext ctx) {
         // class ID (':' public ID)? '{' classMember* '}'
-        String name = ctx.ID(0).getText();
+        Symbol name = Symbol.of(ctx.ID(0).getText());
 
         // Wenn es eine Vererbung gibt, steht ein zweiter ID im Context (BaseName)
-        String baseName = null;
+        Symbol baseName = null;
         if (ctx.ID().size() > 1) {
-            baseName = ctx.ID(1).getText();
+            baseName = Symbol.of(ctx.ID(1).getText());
         }
 
         java.util.List<ASTNode> members = new java.util.ArrayList<>();
         for (MiniCppParser.ClassMemberContext m : ctx.classMember()) {
-            members.add((ASTNode) visit(m));
+            members.add(visit(m));
         }
 
         return new ast.ClassDecl(name, baseName, members);
@@ -343,7 +389,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
      */
     @Override
     public ASTNode visitCallOrCtor(MiniCppParser.CallOrCtorContext ctx) {
-        String name = ctx.ID().getText();
+        Symbol name = Symbol.of(ctx.ID().getText());
 
         java.util.List<ast.Expr> args = new java.util.ArrayList<>();
         if (ctx.argList() != null) {
@@ -355,6 +401,23 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
         return new ast.FunctionCallExpr(name, args);
     }
 
+    /**
+     * Besucht "spawn f(args)": derselbe Aufruf wie bei visitCallOrCtor, nur als Task.
+     */
+    @Override
+    public ASTNode visitSpawn(MiniCppParser.SpawnContext ctx) {
+        Symbol name = Symbol.of(ctx.ID().getText());
+
+        java.util.List<ast.Expr> args = new java.util.ArrayList<>();
+        if (ctx.argList() != null) {
+            for (MiniCppParser.ExprContext e : ctx.argList().expr()) {
+                args.add((ast.Expr) visit(e));
+            }
+        }
+
+        return new ast.SpawnExpr(new ast.FunctionCallExpr(name, args));
+    }
+
     // Typ-Besucher (liefern TypeNode-Instanzen)
     @Override
     public ast.ASTNode visitIntType(parser.MiniCppParser.IntTypeContext ctx) {
@@ -378,7 +441,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
 
     @Override
     public ast.ASTNode visitClassType(parser.MiniCppParser.ClassTypeContext ctx) {
-        return new ast.ClassTypeNode(ctx.ID().getText());
+        return new ast.ClassTypeNode(ast.Symbol.of(ctx.ID().getText()));
     }
 
     // Rekursiv den Basistyp besuchen (z.B. int in int&)
@@ -388,6 +451,13 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
         return new ast.RefTypeNode(base);
     }
 
+    // task<T>: Ergebnistyp rekursiv besuchen
+    @Override
+    public ast.ASTNode visitTaskType(parser.MiniCppParser.TaskTypeContext ctx) {
+        ast.TypeNode result = (ast.TypeNode) visit(ctx.type());
+        return new ast.TaskTypeNode(result);
+    }
+
     @Override
     public ast.ASTNode visitBoolLiteral(parser.MiniCppParser.BoolLiteralContext ctx) {
         boolean v = ctx.BOOL().getText().equals("true");
@@ -431,7 +501,7 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
             if (!".".equals(dot)) break;
 
             // Der Name nach dem Punkt
-            String name = ctx.getChild(i + 1).getText(); // ID nach dem Punkt
+            Symbol name = Symbol.of(ctx.getChild(i + 1).getText()); // ID nach dem Punkt
 
             // Pruefen: Kommt danach eine Klammer "("? -> Methodenaufruf
             boolean isCall = (i + 2 < ctx.getChildCount()) && "(".equals(ctx.getChild(i + 2).getText());
@@ -494,22 +564,27 @@ public class ASTBuilder extends MiniCppBaseVisitor<ASTNode> {
      */
     @Override
     public ASTNode visitConstructorDecl(parser.MiniCppParser.ConstructorDeclContext ctx) {
-        String className = ctx.ID().getText();
+        ast.Symbol className = ast.Symbol.of(ctx.ID().getText());
 
         java.util.List<ast.Param> params = new java.util.ArrayList<>();
         if (ctx.paramList() != null) {
             for (parser.MiniCppParser.ParamContext p : ctx.paramList().param()) {
                 ast.TypeNode pt = (ast.TypeNode) visit(p.type());
-                String pn = p.ID().getText();
+                ast.Symbol pn = ast.Symbol.of(p.ID().getText());
                 params.add(new ast.Param(pt, pn));
             }
         }
 
-        ast.BlockStmt body = (ast.BlockStmt) visit(ctx.block());
+        ast.LazyBlock body = body(ctx.block());
         return new ast.ConstructorDecl(className, params, body);
     }
 
 
+    private ast.LazyBlock body(MiniCppParser.BlockContext block) {
+        if (deferred != null) return deferred.defer(block);
+        return ast.LazyBlock.of((ast.BlockStmt) visit(block));
+    }
+
     // Hilfsmethoden fuer Escaping
     private char parseCharLiteral(String tokenText) {
 
@@ -0,0 +1,53 @@
+package jsr223;
+
+import javax.script.Compilable;
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+/**
+ * Prueft, dass ein kompiliertes Skript nach einem anderen erneut laufen kann
+ * (A, B, A in derselben Session), ohne dass seine Funktionen doppelt registriert
+ * werden ("Ambiguous overload"), und dass eine Aufrufstelle mit anders typisierten
+ * Bindungen die passende Ueberladung waehlt. Aufruf: gradle scriptCheck
+ */
+public final class ScriptRerunCheck {
+
+    public static void main(String[] args) throws Exception {
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("minicpp");
+        if (engine == null) throw new AssertionError("minicpp engine not registered");
+        Compilable c = (Compilable) engine;
+
+        CompiledScript a = c.compile("int f(int x) { return x + 1; }\nf(1);");
+        CompiledScript b = c.compile("int g(int x) { return x * 2; }\ng(2);");
+
+        expect(2, a.eval());
+        expect(4, b.eval());
+        expect(2, a.eval());
+        expect(4, b.eval());
+
+        // Gleicher Quelltext neu kompiliert: andere Knoten, daher weiterhin ein Fehler
+        try {
+            c.compile("int f(int x) { return x + 1; }\nf(1);").eval();
+            throw new AssertionError("redeclared f(int) was accepted");
+        } catch (javax.script.ScriptException expected) {
+            // erwartet
+        }
+        // Dieselbe Aufrufstelle mit anders typisierter Bindung: Ueberladung neu waehlen
+        CompiledScript o = c.compile("int h(int v) { return 1; }\nint h(string v) { return 2; }\nh(x);");
+        Bindings ints = engine.createBindings();
+        ints.put("x", 5);
+        Bindings strings = engine.createBindings();
+        strings.put("x", "hello");
+        expect(1, o.eval(ints));
+        expect(2, o.eval(strings));
+        expect(1, o.eval(ints));
+
+        System.out.println("ScriptRerunCheck: OK");
+    }
+
+    private static void expect(Object want, Object got) {
+        if (!want.equals(got)) throw new AssertionError("expected " + want + ", got " + got);
+    }
+}